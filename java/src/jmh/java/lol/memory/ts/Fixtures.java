@@ -0,0 +1,76 @@
+package lol.memory.ts;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.parser.Feature;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipFile;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+
+/**
+ * Benchmark inputs read from the example archives.
+ *
+ * <p>
+ * The archive can be changed with the {@code lol.memory.ts.bench.archive} system property (the default assumes that
+ * benchmarks are run from the {@code java} directory).
+ */
+public final class Fixtures {
+    private static final String ARCHIVE_PROPERTY = "lol.memory.ts.bench.archive";
+    private static final String DEFAULT_ARCHIVE = "../examples/archives/twitter-stream-2021-01-01.zip";
+
+    public static Path archivePath() {
+        return Path.of(System.getProperty(ARCHIVE_PROPERTY, DEFAULT_ARCHIVE));
+    }
+
+    /**
+     * Read up to the given number of raw status lines (deletions are skipped) from the archive.
+     */
+    public static List<String> readTweetLines(int limit) {
+        var path = Fixtures.archivePath();
+        var result = new ArrayList<String>(limit);
+
+        try (var zip = new ZipFile(path.toFile())) {
+            var entries = zip.entries();
+            while (entries.hasMoreElements() && result.size() < limit) {
+                var entry = entries.nextElement();
+                if (entry.getName().endsWith(".bz2")) {
+                    try (var reader = new BufferedReader(new InputStreamReader(
+                            new BZip2CompressorInputStream(zip.getInputStream(entry), true), StandardCharsets.UTF_8))) {
+                        String line;
+                        while ((line = reader.readLine()) != null && result.size() < limit) {
+                            if (!line.startsWith("{\"delete\"")) {
+                                result.add(line);
+                            }
+                        }
+                    }
+                }
+            }
+        } catch (IOException error) {
+            throw new UncheckedIOException(error);
+        }
+
+        return result;
+    }
+
+    /**
+     * Read and decode up to the given number of statuses from the archive.
+     */
+    public static List<Item.Tweet> readTweets(int limit) {
+        var result = new ArrayList<Item.Tweet>(limit);
+        for (String line : Fixtures.readTweetLines(limit)) {
+            Item.fromJson(JSON.parseObject(line, Feature.OrderedField)).filter(Item::isTweet)
+                    .ifPresent(item -> result.add(item.asTweet().get()));
+        }
+        return result;
+    }
+
+    protected Fixtures() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,66 @@
+package lol.memory.ts;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.parser.Feature;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import lol.memory.ts.avro.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Parsing and decoding of archive lines (each invocation processes one fixture, cycling through all of them).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ItemBenchmark {
+    private List<String> lines;
+    private List<Item.Tweet> tweets;
+    private List<String> dateTimes;
+    private int index = 0;
+
+    @Setup
+    public void setup() {
+        this.lines = Fixtures.readTweetLines(1000);
+        this.tweets = Fixtures.readTweets(1000);
+        this.dateTimes = this.lines.stream()
+                .map(line -> JSON.parseObject(line, Feature.OrderedField).getString("created_at"))
+                .collect(Collectors.toList());
+    }
+
+    private int next(int size) {
+        this.index = (this.index + 1) % size;
+        return this.index;
+    }
+
+    @Benchmark
+    public Optional<? extends Item> parseItem() {
+        var line = this.lines.get(this.next(this.lines.size()));
+        return Item.fromJson(JSON.parseObject(line, Feature.OrderedField));
+    }
+
+    @Benchmark
+    public Optional<User> getFullUser() {
+        return this.tweets.get(this.next(this.tweets.size())).getFullUser();
+    }
+
+    @Benchmark
+    public void parseDateTime(Blackhole blackhole) {
+        blackhole.consume(Twitter.parseDateTime(this.dateTimes.get(this.next(this.dateTimes.size()))));
+    }
+}
@@ -0,0 +1,97 @@
+package lol.memory.ts.db;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import lol.memory.ts.Fixtures;
+import lol.memory.ts.Item;
+import lol.memory.ts.UserInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encoding of database values (this is in the database package so that it can use the package-private entry classes).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EntryBenchmark {
+    private List<Entry> statusEntries;
+    private List<UserDbEntry.UserEntry> userEntries;
+    private int index = 0;
+
+    /**
+     * A sorted list of status IDs, with a new value that lands in the middle (only used for insertion).
+     */
+    @State(Scope.Thread)
+    public static class ListState {
+        @Param({ "1", "16", "256", "4096" })
+        private int listSize;
+
+        private Optional<byte[]> list;
+        private long newValue;
+
+        @Setup
+        public void setup() {
+            var value = Optional.<byte[]> empty();
+            for (int i = 0; i < this.listSize; i += 1) {
+                value = Entry.insertValue(value, 1000L * i);
+            }
+            this.list = value;
+            this.newValue = 1000L * (this.listSize / 2) + 1;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        // Entries are constructed here so that the benchmarks only measure encoding.
+        var tweets = Fixtures.readTweets(1000).stream().filter(tweet -> tweet.getRetweetedStatus().isEmpty())
+                .collect(Collectors.toList());
+        this.statusEntries = new ArrayList<>(tweets.size());
+        for (Item.Tweet tweet : tweets) {
+            var mentionedIds = tweet.getUserMentions().stream().map(UserInfo.Full::getUserId).distinct().sorted()
+                    .collect(Collectors.toList());
+
+            this.statusEntries.add(MetadataDbEntry.makeFullStatusEntry(tweet.getStatusId(), tweet.getTimestampMillis(),
+                    tweet.getUserInfo().getUserId(), tweet.getReplyInfo().map(replyInfo -> replyInfo.getStatusId()),
+                    tweet.getQuotedStatus().map(value -> value.getStatusId()), mentionedIds));
+        }
+        this.userEntries = tweets.stream().flatMap(tweet -> tweet.getFullUser().stream())
+                .map(user -> new UserDbEntry.UserEntry(user, user.getTimestamp().toEpochMilli()))
+                .collect(Collectors.toList());
+    }
+
+    private int next(int size) {
+        this.index = (this.index + 1) % size;
+        return this.index;
+    }
+
+    @Benchmark
+    public Optional<byte[]> insertValue(ListState state) {
+        return Entry.insertValue(state.list, state.newValue);
+    }
+
+    @Benchmark
+    public Optional<byte[]> encodeStatus() {
+        return this.statusEntries.get(this.next(this.statusEntries.size())).updateValue(Optional.empty());
+    }
+
+    @Benchmark
+    public Optional<byte[]> encodeUser() {
+        return this.userEntries.get(this.next(this.userEntries.size())).updateValue(Optional.empty());
+    }
+}
@@ -0,0 +1,191 @@
+package lol.memory.ts.db;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import lol.memory.ts.archive.Archive;
+import lol.memory.ts.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+
+/**
+ * Read latency and throughput for the metadata database (sample time mode reports the p50 and p99 latencies).
+ *
+ * <p>
+ * By default the database is imported from the fixture archive during setup. A larger database (for example one
+ * imported from a generated archive) can be used by setting the {@code lol.memory.ts.bench.db} system property to its
+ * path. Keys are sampled from the database, so the benchmarks only measure lookups that succeed.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryBenchmark {
+    private static final String DB_PROPERTY = "lol.memory.ts.bench.db";
+    private static final int SAMPLE_SIZE = 10000;
+
+    /**
+     * How the database is opened.
+     */
+    public enum Configuration {
+        TRANSACTION, READ_ONLY, SECONDARY
+    }
+
+    @Param({ "TRANSACTION", "READ_ONLY", "SECONDARY" })
+    private Configuration configuration;
+
+    @Param({ "64" })
+    private int batchSize;
+
+    private Database db;
+    private Lookup lookup;
+    private long[] userIds;
+    private long[] deletingUserIds;
+    private String[] screenNames;
+    private List<Long> statusIds;
+    private List<Path> temporaryPaths;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, RocksDBException {
+        RocksDB.loadLibrary();
+        var dbPath = Optional.ofNullable(System.getProperty(DB_PROPERTY)).map(Path::of);
+        this.temporaryPaths = new ArrayList<>();
+
+        if (dbPath.isEmpty()) {
+            dbPath = Optional.of(Files.createTempDirectory("metadata-db"));
+            this.temporaryPaths.add(dbPath.get());
+            try (var builder = new Database(dbPath.get().toString())) {
+                var archive = Archive.load(Fixtures.archivePath());
+                archive.run(ImportMetadata.create(builder, EnumSet.noneOf(ImportMetadata.Index.class)));
+            }
+        }
+
+        switch (this.configuration) {
+        case READ_ONLY:
+            this.db = Database.openReadOnly(dbPath.get().toString());
+            break;
+        case SECONDARY:
+            var secondaryPath = Files.createTempDirectory("metadata-secondary");
+            this.temporaryPaths.add(secondaryPath);
+            this.db = Database.openSecondary(dbPath.get().toString(), secondaryPath.toString(),
+                    DatabaseOptions.defaults());
+            break;
+        default:
+            this.db = new Database(dbPath.get().toString());
+        }
+        this.lookup = new Lookup(this.db);
+
+        this.userIds = this.sampleIds((byte) 0, 1);
+        this.deletingUserIds = this.sampleIds((byte) 3, 1);
+        var statusIds = this.sampleIds((byte) 2, 1);
+        this.statusIds = new ArrayList<>(statusIds.length);
+        for (long statusId : statusIds) {
+            this.statusIds.add(statusId);
+        }
+        if (this.statusIds.size() <= this.batchSize) {
+            // JMH doesn't tear down a trial whose setup fails.
+            this.tearDown();
+            throw new IllegalStateException(String.format(
+                    "Only %d status IDs were sampled, but the batch size is %d (use a larger database or a smaller batch size)",
+                    this.statusIds.size(), this.batchSize));
+        }
+
+        var screenNames = new ArrayList<String>();
+        this.db.scan(new byte[] { 1 }, new byte[] { 2 }, (key, value) -> {
+            screenNames.add(new String(key, 1, key.length - 1, StandardCharsets.UTF_8));
+            return screenNames.size() < SAMPLE_SIZE;
+        });
+        this.screenNames = screenNames.toArray(new String[0]);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.db.close();
+        for (Path path : this.temporaryPaths) {
+            ImportBenchmark.deleteDirectory(path);
+        }
+    }
+
+    /**
+     * Collect the distinct IDs at the given offset in keys with the given tag (spread over the tag's key range).
+     */
+    private long[] sampleIds(byte tag, int offset) {
+        var bounds = this.db.splitRange(new byte[] { tag }, new byte[] { (byte) (tag + 1) }, 16);
+        var result = new ArrayList<Long>();
+
+        for (int i = 0; i < bounds.size() - 1; i += 1) {
+            var limit = result.size() + SAMPLE_SIZE / 16;
+            this.db.scan(bounds.get(i), bounds.get(i + 1), (key, value) -> {
+                var id = ByteBuffer.wrap(key, offset, 8).getLong();
+                if (result.isEmpty() || result.get(result.size() - 1) != id) {
+                    result.add(id);
+                }
+                return result.size() < limit;
+            });
+        }
+
+        var ids = new long[result.size()];
+        for (int i = 0; i < ids.length; i += 1) {
+            ids[i] = result.get(i);
+        }
+        return ids;
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private final Random random = new Random(0);
+
+        int next(int size) {
+            return this.random.nextInt(size);
+        }
+    }
+
+    @Benchmark
+    public Optional<MetadataDbEntry.Status> lookupStatus(Cursor cursor) throws RocksDBException {
+        return this.lookup.lookupStatus(this.statusIds.get(cursor.next(this.statusIds.size())));
+    }
+
+    @Benchmark
+    public List<Long> lookupUserIds(Cursor cursor) throws RocksDBException {
+        return this.lookup.lookupUserIds(this.screenNames[cursor.next(this.screenNames.length)]);
+    }
+
+    @Benchmark
+    public List<String> lookupScreenNames(Cursor cursor) {
+        return this.lookup.lookupScreenNames(this.userIds[cursor.next(this.userIds.length)]);
+    }
+
+    @Benchmark
+    public List<Long> lookupDeletedStatusIds(Cursor cursor) {
+        return this.lookup.lookupDeletedStatusIds(this.deletingUserIds[cursor.next(this.deletingUserIds.length)]);
+    }
+
+    @Benchmark
+    public List<Optional<MetadataDbEntry.Status>> lookupStatuses(Cursor cursor) throws RocksDBException {
+        var start = cursor.next(this.statusIds.size() - this.batchSize);
+        return this.lookup.lookupStatuses(this.statusIds.subList(start, start + this.batchSize));
+    }
+}
@@ -14,6 +14,7 @@ import org.slf4j.LoggerFactory;
 public final class Twitter {
     private static final Logger logger = LoggerFactory.getLogger(Twitter.class);
     private static final long SNOWFLAKE_MINIMUM = 100000000000000L;
+    private static final long SNOWFLAKE_EPOCH = 1288834974657L;
     private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("EE MMM dd HH:mm:ss Z yyyy");
 
     /**
@@ -28,12 +29,19 @@ public final class Twitter {
      */
     public static Optional<Long> extractTimestampMillis(long statusId) {
         if (statusId > Twitter.SNOWFLAKE_MINIMUM) {
-            return Optional.of((statusId >> 22) + 1288834974657L);
+            return Optional.of((statusId >> 22) + Twitter.SNOWFLAKE_EPOCH);
         } else {
             return Optional.empty();
         }
     }
 
+    /**
+     * Compute the smallest Snowflake ID that could have been assigned at the given epoch millisecond.
+     */
+    public static long firstSnowflakeAt(long timestampMillis) {
+        return Math.max(0L, timestampMillis - Twitter.SNOWFLAKE_EPOCH) << 22;
+    }
+
     /**
      * Parse a datetime value from the Twitter API.
      */
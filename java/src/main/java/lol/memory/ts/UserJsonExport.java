@@ -3,48 +3,71 @@ package lol.memory.ts;
 import com.alibaba.fastjson.JSONObject;
 import java.io.File;
 import java.io.IOException;
-import java.util.Collections;
+import java.nio.file.Path;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.function.Consumer;
+import java.util.function.LongPredicate;
 import lol.memory.ts.archive.Archive;
 import lol.memory.ts.archive.Record;
+import lol.memory.ts.export.ShardedWriter;
 
 /**
  * Application that exports user JSON objects with a snapshot timestamp (as epoch second).
+ *
+ * <p>
+ * If an output directory is given, the objects are written to shards (assigned by user ID) with optional compression
+ * ({@code none}, {@code gzip}, or {@code zstd}), together with a manifest. Otherwise they are printed to standard
+ * output.
  */
 public class UserJsonExport {
 
     public static void main(String[] args) throws IOException {
 
         var dataFile = new File(args[0]);
-        Set<Long> selectedUserIds = (args.length > 1) ? Util.readLongs(new File(args[1])) : Collections.emptySet();
+        var selector = (args.length > 1) ? UserSelector.load(Path.of(args[1])) : UserSelector.empty();
 
         var archive = Archive.load(dataFile);
-        var users = new HashSet<JSONObject>();
 
-        archive.run(new Consumer<Record<Item>>() {
+        if (args.length > 2) {
+            var numShards = (args.length > 3) ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+            var compression = (args.length > 4) ? ShardedWriter.Compression.valueOf(args[4].toUpperCase())
+                    : ShardedWriter.Compression.NONE;
+
+            try (var writer = new ShardedWriter(Path.of(args[2]), "users", numShards, compression)) {
+                archive.run(UserJsonExport.create(selector,
+                        user -> writer.write(user.getLongValue("id"), user.toString())));
+            }
+        } else {
+            archive.run(UserJsonExport.create(selector, user -> {
+                synchronized (System.out) {
+                    System.out.println(user);
+                }
+            }));
+        }
+    }
+
+    public static Consumer<Record<Item>> create(LongPredicate selector, Consumer<JSONObject> output) {
+        return new Consumer<Record<Item>>() {
             public void accept(Record<Item> record) {
                 if (record.getValue().isTweet()) {
-                    UserJsonExport.extractUserObjects(selectedUserIds, users, record.getValue().asTweet().get());
+                    var users = new HashSet<JSONObject>();
+                    UserJsonExport.extractUserObjects(selector, users, record.getValue().asTweet().get());
 
                     for (JSONObject user : users) {
-                        synchronized (System.out) {
-                            System.out.println(user);
-                        }
+                        output.accept(user);
                     }
-                    users.clear();
                 }
             }
-        });
+        };
     }
 
-    private static void extractUserObjects(Set<Long> selectedUserIds, Set<JSONObject> values, Item.Tweet tweet) {
-        if (selectedUserIds.contains(tweet.getUserId())) {
+    private static void extractUserObjects(LongPredicate selector, Set<JSONObject> values, Item.Tweet tweet) {
+        if (selector.test(tweet.getUserId())) {
             values.add(tweet.getAugmentedUserObject());
         }
-        tweet.getRetweetedStatus().ifPresent(status -> extractUserObjects(selectedUserIds, values, status));
-        tweet.getQuotedStatus().ifPresent(status -> extractUserObjects(selectedUserIds, values, status));
+        tweet.getRetweetedStatus().ifPresent(status -> extractUserObjects(selector, values, status));
+        tweet.getQuotedStatus().ifPresent(status -> extractUserObjects(selector, values, status));
     }
 
     protected UserJsonExport() {
@@ -0,0 +1,130 @@
+package lol.memory.ts;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An immutable set of user IDs stored as a sorted array of primitive longs (safe to share between threads).
+ *
+ * <p>
+ * Selections can be read from text files (one ID per line) or from a binary format (a magic number and a count followed
+ * by the sorted IDs, all big-endian), which can be written from a text file with the {@code main} method.
+ */
+public final class UserSelector implements LongPredicate {
+    private static final Logger logger = LoggerFactory.getLogger(UserSelector.class);
+    private static final int MAGIC = 0x55534c31;
+    private static final UserSelector EMPTY = new UserSelector(new long[0]);
+    private final long[] userIds;
+
+    /**
+     * Convert a text selection file to the binary format.
+     */
+    public static void main(String[] args) throws IOException {
+        var selector = UserSelector.load(Path.of(args[0]));
+        selector.write(Path.of(args[1]));
+        UserSelector.logger.info("Wrote {} user IDs", selector.size());
+    }
+
+    private UserSelector(long[] userIds) {
+        this.userIds = userIds;
+    }
+
+    public static UserSelector empty() {
+        return UserSelector.EMPTY;
+    }
+
+    public static UserSelector of(long... userIds) {
+        var sorted = userIds.clone();
+        Arrays.sort(sorted);
+        return new UserSelector(UserSelector.distinct(sorted));
+    }
+
+    /**
+     * Load a selection from either a text or a binary file (determined by the initial magic number).
+     */
+    public static UserSelector load(Path path) throws IOException {
+        try (var stream = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (stream.available() >= 4 && stream.readInt() == UserSelector.MAGIC) {
+                var count = stream.readLong();
+                var userIds = new long[Math.toIntExact(count)];
+                for (int i = 0; i < userIds.length; i += 1) {
+                    userIds[i] = stream.readLong();
+                }
+                return new UserSelector(userIds);
+            }
+        }
+
+        return UserSelector.loadText(path);
+    }
+
+    private static UserSelector loadText(Path path) throws IOException {
+        var userIds = new long[1024];
+        var count = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                try {
+                    var userId = Long.parseLong(line);
+                    if (count == userIds.length) {
+                        userIds = Arrays.copyOf(userIds, userIds.length * 2);
+                    }
+                    userIds[count] = userId;
+                    count += 1;
+                } catch (NumberFormatException error) {
+                    UserSelector.logger.error("Error parsing long: {}", line);
+                }
+            }
+        }
+
+        var sorted = Arrays.copyOf(userIds, count);
+        Arrays.parallelSort(sorted);
+        return new UserSelector(UserSelector.distinct(sorted));
+    }
+
+    /**
+     * Write the selection in the binary format (atomically replacing any existing file).
+     */
+    public void write(Path path) throws IOException {
+        var tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (var stream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            stream.writeInt(UserSelector.MAGIC);
+            stream.writeLong(this.userIds.length);
+            for (long userId : this.userIds) {
+                stream.writeLong(userId);
+            }
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public boolean test(long userId) {
+        return Arrays.binarySearch(this.userIds, userId) >= 0;
+    }
+
+    public int size() {
+        return this.userIds.length;
+    }
+
+    private static long[] distinct(long[] sorted) {
+        var count = 0;
+        for (int i = 0; i < sorted.length; i += 1) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[count] = sorted[i];
+                count += 1;
+            }
+        }
+        return (count == sorted.length) ? sorted : Arrays.copyOf(sorted, count);
+    }
+}
@@ -6,17 +6,27 @@ import com.alibaba.fastjson.parser.Feature;
 import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import lol.memory.ts.Item;
+import lol.memory.ts.metrics.ArchiveEntryEvent;
+import lol.memory.ts.metrics.JsonDecodeErrorEvent;
+import lol.memory.ts.metrics.PipelineMetrics;
 import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.apache.commons.compress.utils.CountingInputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,8 +41,22 @@ public abstract class Archive {
     }
 
     private static final Logger logger = LoggerFactory.getLogger(Archive.class);
+    private static final String PROGRESS_INTERVAL_PROPERTY = "lol.memory.ts.archive.progress-interval";
     private final Path path;
     private final int numThreads;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicReference<ArchiveProgress> progress = new AtomicReference<>();
+
+    /**
+     * Callbacks for entry-level activity (these are called from the worker threads).
+     */
+    public interface Listener {
+        default void entryStarted(Optional<String> filePath) {
+        }
+
+        default void entryFinished(Optional<String> filePath, int lineCount) {
+        }
+    }
 
     protected abstract Iterable<EntryJob> entryJobs(Consumer<Record<Item>> process);
 
@@ -69,12 +93,42 @@ public abstract class Archive {
         this.numThreads = numThreads;
     }
 
+    public final void addListener(Listener listener) {
+        this.listeners.add(listener);
+    }
+
     /**
      * Perform an action on every item (tweet or deletion) in this archive.
      */
     public final boolean run(Consumer<Record<Item>> process) {
-        ExecutorService pool = Executors.newFixedThreadPool(this.numThreads);
+        var jobs = new ArrayList<EntryJob>();
+        var entriesTotal = 0;
+        long compressedBytesTotal = 0;
         for (EntryJob job : this.entryJobs(process)) {
+            jobs.add(job);
+            if (job.isValidFile()) {
+                entriesTotal += 1;
+                compressedBytesTotal += Math.max(0, job.getCompressedSize());
+            }
+        }
+
+        var progress = new ArchiveProgress(this.path, entriesTotal, compressedBytesTotal);
+        this.progress.set(progress);
+        progress.register();
+        var interval = Long.getLong(PROGRESS_INTERVAL_PROPERTY, 60);
+        Optional<ScheduledExecutorService> reporter = Optional.empty();
+        if (interval > 0) {
+            var scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                var thread = new Thread(runnable, "progress");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleAtFixedRate(progress::log, interval, interval, TimeUnit.SECONDS);
+            reporter = Optional.of(scheduler);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(this.numThreads);
+        for (EntryJob job : jobs) {
             pool.submit(job);
         }
         pool.shutdown();
@@ -83,6 +137,52 @@ public abstract class Archive {
         } catch (InterruptedException error) {
             Archive.logger.error("Error shutting down execution: {}", error.getMessage());
             return false;
+        } finally {
+            if (reporter.isPresent()) {
+                reporter.get().shutdownNow();
+                progress.log();
+            }
+            progress.unregister();
+        }
+    }
+
+    /**
+     * Counters for the current run (or the most recent one, if nothing is running).
+     */
+    public final Optional<ArchiveProgress> getProgress() {
+        return Optional.ofNullable(this.progress.get());
+    }
+
+    /**
+     * Accumulates the time spent reading from the wrapped stream (used to separate decompression from line splitting).
+     */
+    private static final class TimedInputStream extends FilterInputStream {
+        private long nanos = 0;
+
+        TimedInputStream(InputStream stream) {
+            super(stream);
+        }
+
+        @Override
+        public int read() throws IOException {
+            var start = System.nanoTime();
+            var result = super.read();
+            this.nanos += System.nanoTime() - start;
+            return result;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            var start = System.nanoTime();
+            var result = super.read(bytes, offset, length);
+            this.nanos += System.nanoTime() - start;
+            return result;
+        }
+
+        long takeNanos() {
+            var result = this.nanos;
+            this.nanos = 0;
+            return result;
         }
     }
 
@@ -99,34 +199,93 @@ public abstract class Archive {
 
         protected abstract InputStream getInputStream();
 
+        /**
+         * The size of the bzip2 data for the entry (negative if unknown).
+         */
+        protected abstract long getCompressedSize();
+
+        /**
+         * Record the time taken to read a line, split between decompression and the rest of the reader's work.
+         */
+        private void recordRead(long startNanos, Optional<TimedInputStream> timed) {
+            if (startNanos != 0 && timed.isPresent()) {
+                var totalNanos = System.nanoTime() - startNanos;
+                var bzip2Nanos = timed.get().takeNanos();
+                PipelineMetrics.recordNanos(PipelineMetrics.Stage.BZIP2_READ, bzip2Nanos);
+                PipelineMetrics.recordNanos(PipelineMetrics.Stage.LINE_SPLIT, Math.max(0, totalNanos - bzip2Nanos));
+            }
+        }
+
         public final void run() {
             try {
                 if (this.isValidFile()) {
                     var filePath = this.getFilePath();
                     InputStream stream = null;
+                    CountingInputStream compressed = null;
+                    CountingInputStream uncompressed = null;
                     BufferedReader reader = null;
+                    int lineCount = 0;
+                    var event = new ArchiveEntryEvent();
+                    event.begin();
+                    var runProgress = Archive.this.progress.get();
+                    var progress = runProgress.entryStarted(filePath, this.getCompressedSize());
+
+                    for (Listener listener : Archive.this.listeners) {
+                        listener.entryStarted(filePath);
+                    }
+
                     try {
                         stream = this.getInputStream();
-                        var buffered = new BufferedInputStream(stream);
+                        compressed = new CountingInputStream(stream);
+                        progress.setStream(compressed);
+                        var buffered = new BufferedInputStream(compressed);
                         var bzip2 = new BZip2CompressorInputStream(buffered, true);
-                        reader = new BufferedReader(new InputStreamReader(bzip2));
+                        uncompressed = new CountingInputStream(bzip2);
+                        var timed = PipelineMetrics.isEnabled() ? Optional.of(new TimedInputStream(uncompressed))
+                                : Optional.<TimedInputStream> empty();
+                        reader = new BufferedReader(
+                                new InputStreamReader(timed.isPresent() ? timed.get() : uncompressed));
 
+                        var readStart = PipelineMetrics.start();
                         String line = reader.readLine();
+                        this.recordRead(readStart, timed);
                         int lineNumber = 1;
                         while (line != null) {
                             try {
+                                var parseStart = PipelineMetrics.start();
                                 var value = JSON.parseObject(line, Feature.OrderedField);
+                                PipelineMetrics.record(PipelineMetrics.Stage.JSON_PARSE, parseStart);
+
+                                var decodeStart = PipelineMetrics.start();
                                 var item = Item.fromJson(value);
+                                PipelineMetrics.record(PipelineMetrics.Stage.ITEM_DECODE, decodeStart);
 
                                 if (item.isPresent()) {
+                                    PipelineMetrics.countRecord();
+                                    progress.itemRead(item.get().isTweet());
                                     this.process.accept(
                                             new Record(Archive.this.getPath(), filePath, lineNumber, item.get()));
+                                } else {
+                                    PipelineMetrics.countSkip();
                                 }
                             } catch (JSONException error) {
+                                PipelineMetrics.countError();
+                                var errorEvent = new JsonDecodeErrorEvent();
+                                if (errorEvent.isEnabled()) {
+                                    errorEvent.archivePath = Archive.this.getPath().toString();
+                                    errorEvent.filePath = filePath.orElse(null);
+                                    errorEvent.lineNumber = lineNumber;
+                                    errorEvent.message = error.getMessage();
+                                    errorEvent.commit();
+                                }
                                 Archive.logger.error("Error parsing JSON ({}): {}", filePath.orElseGet(() -> "<none>"),
                                         error.getMessage());
                             }
+                            lineCount = lineNumber;
+                            progress.lineRead();
+                            readStart = PipelineMetrics.start();
                             line = reader.readLine();
+                            this.recordRead(readStart, timed);
                             lineNumber += 1;
                         }
                     } catch (IOException error) {
@@ -150,6 +309,21 @@ public abstract class Archive {
                                         filePath.orElseGet(() -> "<none>"), error.getMessage());
                             }
                         }
+
+                        runProgress.entryFinished(progress);
+                        for (Listener listener : Archive.this.listeners) {
+                            listener.entryFinished(filePath, lineCount);
+                        }
+
+                        event.end();
+                        if (event.shouldCommit()) {
+                            event.archivePath = Archive.this.getPath().toString();
+                            event.filePath = filePath.orElse(null);
+                            event.compressedBytes = (compressed == null) ? 0 : compressed.getBytesRead();
+                            event.uncompressedBytes = (uncompressed == null) ? 0 : uncompressed.getBytesRead();
+                            event.lineCount = lineCount;
+                            event.commit();
+                        }
                     }
                 }
             } catch (Throwable error) {
@@ -0,0 +1,483 @@
+package lol.memory.ts.archive;
+
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import lol.memory.ts.Twitter;
+import lombok.Builder;
+import lombok.Value;
+import org.apache.commons.compress.archivers.ArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Application that writes synthetic archives in the format of the Internet Archive's Twitter stream grabs.
+ *
+ * <p>
+ * Archives are zip or tar files (determined by the output file name, as for {@link Archive#load(Path)}) containing one
+ * bzip2-compressed NDJSON file per minute. The output depends only on the configuration, including the seed. Usage:
+ * {@code ArchiveGenerator <output> [name=value...]}, where the names are the fields of {@link Config}. The size of an
+ * archive is given as a number of lines ({@code itemCount}), not bytes, since the import cost depends on the lines.
+ */
+public final class ArchiveGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveGenerator.class);
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter
+            .ofPattern("EEE MMM dd HH:mm:ss Z yyyy", Locale.US).withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter PATH_FORMAT = DateTimeFormatter.ofPattern("yyyy/MM/dd/HH/mm")
+            .withZone(ZoneOffset.UTC);
+    private static final long FIRST_ACCOUNT_MILLIS = Instant.parse("2006-03-21T00:00:00Z").toEpochMilli();
+    private static final long FIRST_STATUS_MILLIS = Instant.parse("2008-01-01T00:00:00Z").toEpochMilli();
+    private static final long LAST_PRE_SNOWFLAKE_MILLIS = Instant.parse("2010-11-01T00:00:00Z").toEpochMilli();
+    private static final int RECENT_STATUS_COUNT = 4096;
+
+    public static void main(String[] args) throws IOException {
+        var builder = Config.builder();
+
+        for (int i = 1; i < args.length; i += 1) {
+            var parts = args[i].split("=", 2);
+            var value = parts[1];
+
+            switch (parts[0]) {
+            case "seed":
+                builder.seed(Long.parseLong(value));
+                break;
+            case "itemCount":
+                builder.itemCount(Long.parseLong(value));
+                break;
+            case "entryCount":
+                builder.entryCount(Integer.parseInt(value));
+                break;
+            case "entrySkew":
+                builder.entrySkew(Double.parseDouble(value));
+                break;
+            case "userCount":
+                builder.userCount(Integer.parseInt(value));
+                break;
+            case "userExponent":
+                builder.userExponent(Double.parseDouble(value));
+                break;
+            case "retweetRatio":
+                builder.retweetRatio(Double.parseDouble(value));
+                break;
+            case "quoteRatio":
+                builder.quoteRatio(Double.parseDouble(value));
+                break;
+            case "replyRatio":
+                builder.replyRatio(Double.parseDouble(value));
+                break;
+            case "deleteRatio":
+                builder.deleteRatio(Double.parseDouble(value));
+                break;
+            case "preSnowflakeRatio":
+                builder.preSnowflakeRatio(Double.parseDouble(value));
+                break;
+            case "screenNameChangeRatio":
+                builder.screenNameChangeRatio(Double.parseDouble(value));
+                break;
+            case "start":
+                builder.start(Instant.parse(value));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown generator setting: " + parts[0]);
+            }
+        }
+
+        var summary = ArchiveGenerator.generate(Path.of(args[0]), builder.build());
+        ArchiveGenerator.logger.info("Wrote {} entries with {} tweets and {} deletes ({} screen name changes)",
+                summary.getEntryCount(), summary.getTweetCount(), summary.getDeleteCount(),
+                summary.getScreenNameChangeCount());
+    }
+
+    @Value
+    @Builder(toBuilder = true)
+    public static class Config {
+        @Builder.Default
+        private long seed = 0;
+
+        /**
+         * Total number of lines (tweets and deletes), which determines the size of the archive.
+         */
+        @Builder.Default
+        private long itemCount = 10000;
+
+        @Builder.Default
+        private int entryCount = 10;
+
+        /**
+         * Exponent for the decay of entry sizes (entry i has weight 1 / (i + 1)^skew, so 0 gives equal sizes).
+         */
+        @Builder.Default
+        private double entrySkew = 0.0;
+
+        @Builder.Default
+        private int userCount = 1000;
+
+        /**
+         * Exponent of the Zipf distribution of authors.
+         */
+        @Builder.Default
+        private double userExponent = 1.0;
+
+        @Builder.Default
+        private double retweetRatio = 0.5;
+
+        @Builder.Default
+        private double quoteRatio = 0.1;
+
+        @Builder.Default
+        private double replyRatio = 0.15;
+
+        @Builder.Default
+        private double deleteRatio = 0.13;
+
+        /**
+         * Fraction of retweeted, quoted, and replied-to statuses that have pre-Snowflake IDs.
+         */
+        @Builder.Default
+        private double preSnowflakeRatio = 0.02;
+
+        /**
+         * Probability that an author changes screen name before posting.
+         */
+        @Builder.Default
+        private double screenNameChangeRatio = 0.001;
+
+        @Builder.Default
+        private Instant start = Instant.parse("2021-01-01T00:00:00Z");
+    }
+
+    @Value
+    public static class Summary {
+        private int entryCount;
+        private long tweetCount;
+        private long deleteCount;
+        private long screenNameChangeCount;
+    }
+
+    public static Summary generate(Path outputPath, Config config) throws IOException {
+        return new ArchiveGenerator(config).write(outputPath);
+    }
+
+    private final Config config;
+    private final Random random;
+    private final double[] userCdf;
+    private final int[] screenNameVersions;
+    private final long[] statusCounts;
+    private final long[] recentStatusIds;
+    private final long[] recentStatusMillis;
+    private final int[] recentStatusUsers;
+    private long recentStatusCount = 0;
+    private long sequence = 0;
+    private long tweetCount = 0;
+    private long deleteCount = 0;
+    private long screenNameChangeCount = 0;
+
+    private ArchiveGenerator(Config config) {
+        this.config = config;
+        this.random = new Random(config.getSeed());
+        this.userCdf = ArchiveGenerator.zipfCdf(config.getUserCount(), config.getUserExponent());
+        this.screenNameVersions = new int[config.getUserCount()];
+        this.statusCounts = new long[config.getUserCount()];
+        this.recentStatusIds = new long[RECENT_STATUS_COUNT];
+        this.recentStatusMillis = new long[RECENT_STATUS_COUNT];
+        this.recentStatusUsers = new int[RECENT_STATUS_COUNT];
+    }
+
+    private Summary write(Path outputPath) throws IOException {
+        var isTar = outputPath.toString().endsWith("tar");
+        var entrySizes = this.entrySizes();
+
+        try (var output = Files.newOutputStream(outputPath); ArchiveOutputStream archive = isTar
+                ? new TarArchiveOutputStream(output) : new ZipArchiveOutputStream(output)) {
+            for (int i = 0; i < entrySizes.length; i += 1) {
+                var entryStart = this.config.getStart().plusSeconds(60L * i);
+                var name = PATH_FORMAT.format(entryStart) + ".json.bz2";
+
+                if (isTar) {
+                    // Tar entries need their size up front, so each entry is spooled to a temporary file next to the
+                    // output.
+                    var temporary = Files.createTempFile(outputPath.toAbsolutePath().getParent(), "entry", ".json.bz2");
+                    try {
+                        try (var stream = new BufferedOutputStream(Files.newOutputStream(temporary))) {
+                            this.generateEntry(stream, entryStart.toEpochMilli(), entrySizes[i]);
+                        }
+
+                        var entry = new TarArchiveEntry(name);
+                        entry.setSize(Files.size(temporary));
+                        entry.setModTime(Date.from(entryStart));
+                        archive.putArchiveEntry(entry);
+                        Files.copy(temporary, archive);
+                    } finally {
+                        Files.deleteIfExists(temporary);
+                    }
+                } else {
+                    var entry = new ZipArchiveEntry(name);
+                    entry.setTime(entryStart.toEpochMilli());
+                    archive.putArchiveEntry(entry);
+
+                    var stream = new BufferedOutputStream(archive);
+                    this.generateEntry(stream, entryStart.toEpochMilli(), entrySizes[i]);
+                    stream.flush();
+                }
+                archive.closeArchiveEntry();
+            }
+        }
+
+        return new Summary(entrySizes.length, this.tweetCount, this.deleteCount, this.screenNameChangeCount);
+    }
+
+    private long[] entrySizes() {
+        var weights = new double[this.config.getEntryCount()];
+        var total = 0.0;
+        for (int i = 0; i < weights.length; i += 1) {
+            weights[i] = 1.0 / Math.pow(i + 1, this.config.getEntrySkew());
+            total += weights[i];
+        }
+
+        var result = new long[weights.length];
+        var remaining = this.config.getItemCount();
+        for (int i = 0; i < weights.length; i += 1) {
+            result[i] = (long) (this.config.getItemCount() * weights[i] / total);
+            remaining -= result[i];
+        }
+        for (int i = 0; remaining > 0; i = (i + 1) % result.length) {
+            result[i] += 1;
+            remaining -= 1;
+        }
+        return result;
+    }
+
+    /**
+     * Write a compressed entry to a stream, which is left open (since it may be the archive itself).
+     */
+    private void generateEntry(OutputStream output, long startMillis, long itemCount) throws IOException {
+        var stream = new BZip2CompressorOutputStream(output);
+
+        for (long i = 0; i < itemCount; i += 1) {
+            var timestampMillis = startMillis + i * 60000L / itemCount;
+            var item = (this.recentStatusCount > 0 && this.random.nextDouble() < this.config.getDeleteRatio())
+                    ? this.generateDelete(timestampMillis) : this.generateTweet(timestampMillis);
+
+            stream.write(item.toJSONString().getBytes(StandardCharsets.UTF_8));
+            stream.write('\n');
+        }
+
+        // Finishing writes the end of the compressed stream without closing the output.
+        stream.finish();
+    }
+
+    private JSONObject generateDelete(long timestampMillis) {
+        var index = this.random.nextInt((int) Math.min(this.recentStatusCount, RECENT_STATUS_COUNT));
+        var statusId = this.recentStatusIds[index];
+        var userId = ArchiveGenerator.userId(this.recentStatusUsers[index]);
+
+        var status = new JSONObject(true);
+        status.put("id", statusId);
+        status.put("id_str", Long.toString(statusId));
+        status.put("user_id", userId);
+        status.put("user_id_str", Long.toString(userId));
+
+        var delete = new JSONObject(true);
+        delete.put("status", status);
+        delete.put("timestamp_ms", Long.toString(timestampMillis));
+
+        this.deleteCount += 1;
+        return new JSONObject(true).fluentPut("delete", delete);
+    }
+
+    private JSONObject generateTweet(long timestampMillis) {
+        var user = this.sampleUser();
+
+        if (this.random.nextDouble() < this.config.getScreenNameChangeRatio()) {
+            this.screenNameVersions[user] += 1;
+            this.screenNameChangeCount += 1;
+        }
+
+        var statusId = this.nextSnowflake(timestampMillis);
+        var tweet = this.makeTweet(statusId, timestampMillis, user);
+        var mentions = new JSONArray();
+        var kind = this.random.nextDouble();
+
+        if (kind < this.config.getRetweetRatio()) {
+            var retweeted = this.referencedStatus(timestampMillis);
+            mentions.add(this.makeMention(retweeted.getJSONObject("user")));
+            tweet.put("text", "RT @" + retweeted.getJSONObject("user").getString("screen_name") + ": "
+                    + retweeted.getString("text"));
+            tweet.put("retweeted_status", retweeted);
+        } else if (kind < this.config.getRetweetRatio() + this.config.getQuoteRatio()) {
+            var quoted = this.referencedStatus(timestampMillis);
+            tweet.put("quoted_status_id", quoted.getLongValue("id"));
+            tweet.put("quoted_status_id_str", quoted.getString("id_str"));
+            tweet.put("quoted_status", quoted);
+            tweet.put("is_quote_status", true);
+        } else if (kind < this.config.getRetweetRatio() + this.config.getQuoteRatio() + this.config.getReplyRatio()) {
+            var repliedTo = this.referencedStatus(timestampMillis);
+            var repliedToUser = repliedTo.getJSONObject("user");
+            tweet.put("in_reply_to_status_id", repliedTo.getLongValue("id"));
+            tweet.put("in_reply_to_status_id_str", repliedTo.getString("id_str"));
+            tweet.put("in_reply_to_user_id", repliedToUser.getLongValue("id"));
+            tweet.put("in_reply_to_user_id_str", repliedToUser.getString("id_str"));
+            tweet.put("in_reply_to_screen_name", repliedToUser.getString("screen_name"));
+            mentions.add(this.makeMention(repliedToUser));
+        }
+
+        var extraMentionCount = this.random.nextInt(3);
+        for (int i = 0; i < extraMentionCount; i += 1) {
+            mentions.add(this.makeMention(this.makeUser(this.sampleUser(), timestampMillis)));
+        }
+        tweet.put("entities", new JSONObject(true).fluentPut("user_mentions", mentions));
+        tweet.put("timestamp_ms", Long.toString(timestampMillis));
+
+        this.recordStatus(statusId, timestampMillis, user);
+        this.tweetCount += 1;
+        return tweet;
+    }
+
+    /**
+     * Make a status that is being retweeted, quoted, or replied to (either a recent status or an old pre-Snowflake
+     * status).
+     */
+    private JSONObject referencedStatus(long timestampMillis) {
+        if (this.recentStatusCount == 0 || this.random.nextDouble() < this.config.getPreSnowflakeRatio()) {
+            var statusMillis = FIRST_STATUS_MILLIS
+                    + (long) (this.random.nextDouble() * (LAST_PRE_SNOWFLAKE_MILLIS - FIRST_STATUS_MILLIS));
+            var statusId = 1000000000L + (long) (this.random.nextDouble() * 29000000000L);
+            var status = this.makeTweet(statusId, statusMillis, this.sampleUser());
+            status.put("entities", new JSONObject(true).fluentPut("user_mentions", new JSONArray()));
+            return status;
+        } else {
+            var index = this.random.nextInt((int) Math.min(this.recentStatusCount, RECENT_STATUS_COUNT));
+            var status = this.makeTweet(this.recentStatusIds[index], this.recentStatusMillis[index],
+                    this.recentStatusUsers[index]);
+            status.put("entities", new JSONObject(true).fluentPut("user_mentions", new JSONArray()));
+            return status;
+        }
+    }
+
+    private JSONObject makeTweet(long statusId, long timestampMillis, int user) {
+        var tweet = new JSONObject(true);
+        tweet.put("created_at", DATE_FORMAT.format(Instant.ofEpochMilli(timestampMillis)));
+        tweet.put("id", statusId);
+        tweet.put("id_str", Long.toString(statusId));
+        tweet.put("text", "Status " + Long.toString(statusId, 36));
+        tweet.put("in_reply_to_status_id", null);
+        tweet.put("in_reply_to_status_id_str", null);
+        tweet.put("in_reply_to_user_id", null);
+        tweet.put("in_reply_to_user_id_str", null);
+        tweet.put("in_reply_to_screen_name", null);
+        tweet.put("user", this.makeUser(user, timestampMillis));
+        tweet.put("is_quote_status", false);
+        tweet.put("lang", "en");
+        return tweet;
+    }
+
+    private JSONObject makeUser(int user, long timestampMillis) {
+        var userId = ArchiveGenerator.userId(user);
+        var days = Math.max(0, (timestampMillis - this.config.getStart().toEpochMilli()) / 86400000L);
+
+        var value = new JSONObject(true);
+        value.put("id", userId);
+        value.put("id_str", Long.toString(userId));
+        value.put("name", "User " + user);
+        value.put("screen_name", this.screenName(user));
+        value.put("location", (user % 3 == 0) ? null : "Location " + (user % 100));
+        value.put("url", null);
+        value.put("description", (user % 2 == 0) ? null : "Description of user " + user);
+        value.put("protected", false);
+        value.put("verified", user % 97 == 0);
+        value.put("followers_count", (user * 7919L) % 100000 + days * (user % 5));
+        value.put("friends_count", (user * 104729L) % 5000);
+        value.put("listed_count", (user * 31L) % 200);
+        value.put("favourites_count", (user * 131L) % 50000 + this.statusCounts[user] / 2);
+        value.put("statuses_count", (user * 13L) % 10000 + this.statusCounts[user]);
+        value.put("created_at", DATE_FORMAT.format(Instant.ofEpochMilli(ArchiveGenerator.createdMillis(userId))));
+        value.put("time_zone", null);
+        value.put("geo_enabled", user % 4 == 0);
+        value.put("lang", null);
+        value.put("profile_image_url_https", "https://pbs.twimg.com/profile_images/" + userId + "/image_normal.jpg");
+        value.put("profile_banner_url", null);
+        value.put("default_profile", user % 2 == 0);
+        value.put("default_profile_image", false);
+        return value;
+    }
+
+    private JSONObject makeMention(JSONObject user) {
+        var mention = new JSONObject(true);
+        mention.put("screen_name", user.getString("screen_name"));
+        mention.put("name", user.getString("name"));
+        mention.put("id", user.getLongValue("id"));
+        mention.put("id_str", user.getString("id_str"));
+        return mention;
+    }
+
+    private String screenName(int user) {
+        var base = "u" + Long.toString(ArchiveGenerator.userId(user), 36);
+        var version = this.screenNameVersions[user];
+        return (version == 0) ? base : base + "_" + version;
+    }
+
+    private void recordStatus(long statusId, long timestampMillis, int user) {
+        var index = (int) (this.recentStatusCount % RECENT_STATUS_COUNT);
+        this.recentStatusIds[index] = statusId;
+        this.recentStatusMillis[index] = timestampMillis;
+        this.recentStatusUsers[index] = user;
+        this.recentStatusCount += 1;
+        this.statusCounts[user] += 1;
+    }
+
+    private long nextSnowflake(long timestampMillis) {
+        var statusId = Twitter.firstSnowflakeAt(timestampMillis) | (this.sequence & 0x3fffff);
+        this.sequence += 1;
+        return statusId;
+    }
+
+    private int sampleUser() {
+        var index = Arrays.binarySearch(this.userCdf, this.random.nextDouble());
+        return Math.min((index >= 0) ? index : -index - 1, this.userCdf.length - 1);
+    }
+
+    /**
+     * Map user indices to distinct, scattered user IDs (multiplication by an odd constant is a bijection modulo 2^32).
+     */
+    private static long userId(int user) {
+        return 1 + ((user * 2654435761L) & 0xffffffffL);
+    }
+
+    /**
+     * The account creation time for a user, which is spread over the years before the first generated status, so that
+     * every account is older than all of its statuses.
+     */
+    private static long createdMillis(long userId) {
+        return FIRST_ACCOUNT_MILLIS + (userId * 1000L) % (FIRST_STATUS_MILLIS - FIRST_ACCOUNT_MILLIS);
+    }
+
+    private static double[] zipfCdf(int count, double exponent) {
+        var result = new double[count];
+        var total = 0.0;
+        for (int i = 0; i < count; i += 1) {
+            total += 1.0 / Math.pow(i + 1, exponent);
+            result[i] = total;
+        }
+        for (int i = 0; i < count; i += 1) {
+            result[i] /= total;
+        }
+        return result;
+    }
+}
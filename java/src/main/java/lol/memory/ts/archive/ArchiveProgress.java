@@ -0,0 +1,237 @@
+package lol.memory.ts.archive;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import org.apache.commons.compress.utils.CountingInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Live counters for a run over an archive, published through JMX while the run is in progress.
+ *
+ * <p>
+ * Each entry in progress is counted by the worker reading it, and its counts are only added to the shared totals when
+ * it finishes, so workers never contend. Rates are averages since the start of the run, and the ETA assumes that the
+ * remaining compressed bytes will be read at the average rate so far.
+ */
+public final class ArchiveProgress implements ArchiveProgressMXBean {
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveProgress.class);
+    private final Path path;
+    private final int entriesTotal;
+    private final long compressedBytesTotal;
+    private final long startNanos = System.nanoTime();
+    private final AtomicInteger entriesDone = new AtomicInteger();
+    private final LongAdder finishedBytes = new LongAdder();
+    private final LongAdder finishedLines = new LongAdder();
+    private final LongAdder finishedTweets = new LongAdder();
+    private final LongAdder finishedDeletes = new LongAdder();
+    private final Map<EntryProgress, Boolean> inProgress = new ConcurrentHashMap<>();
+    private volatile boolean registered = false;
+
+    /**
+     * Counts for one entry (updated only by the worker reading it).
+     *
+     * <p>
+     * Since there is a single writer, counts are incremented with ordered writes rather than atomic updates, which is
+     * enough for readers on other threads to see recent values.
+     */
+    static final class EntryProgress {
+        private final String filePath;
+        private final long compressedSize;
+        private volatile Optional<CountingInputStream> stream = Optional.empty();
+        private final AtomicLong lineCount = new AtomicLong();
+        private final AtomicLong tweetCount = new AtomicLong();
+        private final AtomicLong deleteCount = new AtomicLong();
+
+        EntryProgress(String filePath, long compressedSize) {
+            this.filePath = filePath;
+            this.compressedSize = compressedSize;
+        }
+
+        void setStream(CountingInputStream stream) {
+            this.stream = Optional.of(stream);
+        }
+
+        void lineRead() {
+            EntryProgress.increment(this.lineCount);
+        }
+
+        void itemRead(boolean isTweet) {
+            if (isTweet) {
+                EntryProgress.increment(this.tweetCount);
+            } else {
+                EntryProgress.increment(this.deleteCount);
+            }
+        }
+
+        private static void increment(AtomicLong count) {
+            count.lazySet(count.get() + 1);
+        }
+
+        long getBytesRead() {
+            return this.stream.map(CountingInputStream::getBytesRead).orElse(0L);
+        }
+    }
+
+    ArchiveProgress(Path path, int entriesTotal, long compressedBytesTotal) {
+        this.path = path;
+        this.entriesTotal = entriesTotal;
+        this.compressedBytesTotal = compressedBytesTotal;
+    }
+
+    EntryProgress entryStarted(Optional<String> filePath, long compressedSize) {
+        var entry = new EntryProgress(filePath.orElse("<none>"), compressedSize);
+        this.inProgress.put(entry, true);
+        return entry;
+    }
+
+    void entryFinished(EntryProgress entry) {
+        this.finishedBytes.add(entry.getBytesRead());
+        this.finishedLines.add(entry.lineCount.get());
+        this.finishedTweets.add(entry.tweetCount.get());
+        this.finishedDeletes.add(entry.deleteCount.get());
+        this.entriesDone.incrementAndGet();
+        this.inProgress.remove(entry);
+    }
+
+    public int getEntriesTotal() {
+        return this.entriesTotal;
+    }
+
+    public int getEntriesDone() {
+        return this.entriesDone.get();
+    }
+
+    public int getEntriesInProgress() {
+        return this.inProgress.size();
+    }
+
+    public long getCompressedBytesTotal() {
+        return this.compressedBytesTotal;
+    }
+
+    public long getCompressedBytesConsumed() {
+        var result = this.finishedBytes.sum();
+        for (EntryProgress entry : this.inProgress.keySet()) {
+            result += entry.getBytesRead();
+        }
+        return result;
+    }
+
+    public long getLineCount() {
+        var result = this.finishedLines.sum();
+        for (EntryProgress entry : this.inProgress.keySet()) {
+            result += entry.lineCount.get();
+        }
+        return result;
+    }
+
+    public long getTweetCount() {
+        var result = this.finishedTweets.sum();
+        for (EntryProgress entry : this.inProgress.keySet()) {
+            result += entry.tweetCount.get();
+        }
+        return result;
+    }
+
+    public long getDeleteCount() {
+        var result = this.finishedDeletes.sum();
+        for (EntryProgress entry : this.inProgress.keySet()) {
+            result += entry.deleteCount.get();
+        }
+        return result;
+    }
+
+    public double getLinesPerSecond() {
+        return this.getLineCount() / this.elapsedSeconds();
+    }
+
+    public double getTweetsPerSecond() {
+        return this.getTweetCount() / this.elapsedSeconds();
+    }
+
+    public double getDeletesPerSecond() {
+        return this.getDeleteCount() / this.elapsedSeconds();
+    }
+
+    public long getEtaSeconds() {
+        var consumed = this.getCompressedBytesConsumed();
+        if (consumed == 0) {
+            return -1;
+        }
+        var remaining = Math.max(0, this.compressedBytesTotal - consumed);
+        return (long) (this.elapsedSeconds() * remaining / consumed);
+    }
+
+    public Map<String, Double> getEntryProgress() {
+        var result = new TreeMap<String, Double>();
+        for (EntryProgress entry : this.inProgress.keySet()) {
+            result.put(entry.filePath,
+                    (entry.compressedSize <= 0) ? 0.0 : 100.0 * entry.getBytesRead() / entry.compressedSize);
+        }
+        return result;
+    }
+
+    public String getSummary() {
+        var eta = this.getEtaSeconds();
+        return String.format(
+                "%d/%d entries done (%d in progress), %d/%d compressed bytes (%.1f%%), %.0f lines/s, %.0f tweets/s, "
+                        + "%.0f deletes/s, ETA %s",
+                this.getEntriesDone(), this.entriesTotal, this.getEntriesInProgress(),
+                this.getCompressedBytesConsumed(), this.compressedBytesTotal,
+                (this.compressedBytesTotal == 0) ? 100.0
+                        : 100.0 * this.getCompressedBytesConsumed() / this.compressedBytesTotal,
+                this.getLinesPerSecond(), this.getTweetsPerSecond(), this.getDeletesPerSecond(),
+                (eta < 0) ? "unknown" : Duration.ofSeconds(eta).toString().substring(2).toLowerCase());
+    }
+
+    void log() {
+        ArchiveProgress.logger.info("Progress ({}): {}", this.path.getFileName(), this.getSummary());
+        for (Map.Entry<String, Double> entry : this.getEntryProgress().entrySet()) {
+            ArchiveProgress.logger.info("  {}: {}%", entry.getKey(), String.format("%.1f", entry.getValue()));
+        }
+    }
+
+    private double elapsedSeconds() {
+        return Math.max(1e-9, (System.nanoTime() - this.startNanos) / 1e9);
+    }
+
+    private ObjectName objectName() throws JMException {
+        return new ObjectName("lol.memory.ts:type=Archive,path=" + ObjectName.quote(this.path.toString()));
+    }
+
+    void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, this.objectName());
+            this.registered = true;
+        } catch (InstanceAlreadyExistsException error) {
+            ArchiveProgress.logger.warn("Progress for {} is already registered", this.path);
+        } catch (JMException error) {
+            ArchiveProgress.logger.error("Error registering progress MBean ({}): {}", this.path, error.getMessage());
+        }
+    }
+
+    void unregister() {
+        if (!this.registered) {
+            return;
+        }
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(this.objectName());
+            this.registered = false;
+        } catch (JMException error) {
+            ArchiveProgress.logger.error("Error unregistering progress MBean ({}): {}", this.path, error.getMessage());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package lol.memory.ts.archive;
+
+import java.util.Map;
+
+/**
+ * JMX view of the progress of an archive run (see {@link ArchiveProgress}).
+ */
+public interface ArchiveProgressMXBean {
+    int getEntriesTotal();
+
+    int getEntriesDone();
+
+    int getEntriesInProgress();
+
+    long getCompressedBytesTotal();
+
+    long getCompressedBytesConsumed();
+
+    long getLineCount();
+
+    long getTweetCount();
+
+    long getDeleteCount();
+
+    double getLinesPerSecond();
+
+    double getTweetsPerSecond();
+
+    double getDeletesPerSecond();
+
+    /**
+     * Estimated seconds until the run finishes (based on compressed bytes, or -1 if nothing has been read yet).
+     */
+    long getEtaSeconds();
+
+    /**
+     * Percentage of compressed bytes consumed for each entry in progress.
+     */
+    Map<String, Double> getEntryProgress();
+
+    String getSummary();
+}
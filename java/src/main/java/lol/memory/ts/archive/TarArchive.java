@@ -54,6 +54,10 @@ public final class TarArchive extends Archive {
             return Optional.of(this.entry.getName());
         }
 
+        protected long getCompressedSize() {
+            return this.entry.getSize();
+        }
+
         protected InputStream getInputStream() {
             try {
                 return TarArchive.this.tarFile.get().getInputStream(this.entry);
@@ -54,6 +54,10 @@ public final class ZipArchive extends Archive {
             return Optional.of(this.entry.getName());
         }
 
+        protected long getCompressedSize() {
+            return this.entry.getSize();
+        }
+
         protected InputStream getInputStream() {
             try {
                 return ZipArchive.this.zipFile.get().getInputStream(this.entry);
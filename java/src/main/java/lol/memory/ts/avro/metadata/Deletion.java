@@ -0,0 +1,485 @@
+/**
+ * Autogenerated by Avro
+ *
+ * DO NOT EDIT DIRECTLY
+ */
+package lol.memory.ts.avro.metadata;
+
+import org.apache.avro.generic.GenericArray;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.util.Utf8;
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.apache.avro.message.BinaryMessageDecoder;
+import org.apache.avro.message.SchemaStore;
+import java.util.Optional;
+
+@org.apache.avro.specific.AvroGenerated
+public class Deletion extends org.apache.avro.specific.SpecificRecordBase
+        implements org.apache.avro.specific.SpecificRecord {
+    private static final long serialVersionUID = -2333952505010987045L;
+
+    public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse(
+            "{\"type\":\"record\",\"name\":\"Deletion\",\"namespace\":\"lol.memory.ts.avro.metadata\",\"fields\":[{\"name\":\"user_id\",\"type\":\"long\"},{\"name\":\"status_id\",\"type\":\"long\"},{\"name\":\"timestamp\",\"type\":[\"null\",{\"type\":\"long\",\"logicalType\":\"timestamp-millis\"}]}]}");
+
+    public static org.apache.avro.Schema getClassSchema() {
+        return SCHEMA$;
+    }
+
+    private static final SpecificData MODEL$ = new SpecificData();
+    static {
+        MODEL$.addLogicalTypeConversion(new org.apache.avro.data.TimeConversions.TimestampMillisConversion());
+    }
+
+    private static final BinaryMessageEncoder<Deletion> ENCODER = new BinaryMessageEncoder<Deletion>(MODEL$, SCHEMA$);
+
+    private static final BinaryMessageDecoder<Deletion> DECODER = new BinaryMessageDecoder<Deletion>(MODEL$, SCHEMA$);
+
+    /**
+     * Return the BinaryMessageEncoder instance used by this class.
+     * 
+     * @return the message encoder used by this class
+     */
+    public static BinaryMessageEncoder<Deletion> getEncoder() {
+        return ENCODER;
+    }
+
+    /**
+     * Return the BinaryMessageDecoder instance used by this class.
+     * 
+     * @return the message decoder used by this class
+     */
+    public static BinaryMessageDecoder<Deletion> getDecoder() {
+        return DECODER;
+    }
+
+    /**
+     * Create a new BinaryMessageDecoder instance for this class that uses the specified {@link SchemaStore}.
+     * 
+     * @param resolver
+     *            a {@link SchemaStore} used to find schemas by fingerprint
+     * 
+     * @return a BinaryMessageDecoder instance for this class backed by the given SchemaStore
+     */
+    public static BinaryMessageDecoder<Deletion> createDecoder(SchemaStore resolver) {
+        return new BinaryMessageDecoder<Deletion>(MODEL$, SCHEMA$, resolver);
+    }
+
+    /**
+     * Serializes this Deletion to a ByteBuffer.
+     * 
+     * @return a buffer holding the serialized data for this instance
+     * 
+     * @throws java.io.IOException
+     *             if this instance could not be serialized
+     */
+    public java.nio.ByteBuffer toByteBuffer() throws java.io.IOException {
+        return ENCODER.encode(this);
+    }
+
+    /**
+     * Deserializes a Deletion from a ByteBuffer.
+     * 
+     * @param b
+     *            a byte buffer holding serialized data for an instance of this class
+     * 
+     * @return a Deletion instance decoded from the given buffer
+     * 
+     * @throws java.io.IOException
+     *             if the given bytes could not be deserialized into an instance of this class
+     */
+    public static Deletion fromByteBuffer(java.nio.ByteBuffer b) throws java.io.IOException {
+        return DECODER.decode(b);
+    }
+
+    private long user_id;
+    private long status_id;
+    private java.time.Instant timestamp;
+
+    /**
+     * Default constructor. Note that this does not initialize fields to their default values from the schema. If that
+     * is desired then one should use <code>newBuilder()</code>.
+     */
+    public Deletion() {
+    }
+
+    /**
+     * All-args constructor.
+     * 
+     * @param user_id
+     *            The new value for user_id
+     * @param status_id
+     *            The new value for status_id
+     * @param timestamp
+     *            The new value for timestamp
+     */
+    public Deletion(java.lang.Long user_id, java.lang.Long status_id, java.time.Instant timestamp) {
+        this.user_id = user_id;
+        this.status_id = status_id;
+        this.timestamp = timestamp;
+    }
+
+    public org.apache.avro.specific.SpecificData getSpecificData() {
+        return MODEL$;
+    }
+
+    public org.apache.avro.Schema getSchema() {
+        return SCHEMA$;
+    }
+
+    // Used by DatumWriter. Applications should not call.
+    public java.lang.Object get(int field$) {
+        switch (field$) {
+        case 0:
+            return user_id;
+        case 1:
+            return status_id;
+        case 2:
+            return timestamp;
+        default:
+            throw new IndexOutOfBoundsException("Invalid index: " + field$);
+        }
+    }
+
+    // Used by DatumReader. Applications should not call.
+    @SuppressWarnings(value = "unchecked")
+    public void put(int field$, java.lang.Object value$) {
+        switch (field$) {
+        case 0:
+            user_id = (java.lang.Long) value$;
+            break;
+        case 1:
+            status_id = (java.lang.Long) value$;
+            break;
+        case 2:
+            timestamp = (java.time.Instant) value$;
+            break;
+        default:
+            throw new IndexOutOfBoundsException("Invalid index: " + field$);
+        }
+    }
+
+    /**
+     * Gets the value of the 'user_id' field.
+     * 
+     * @return The value of the 'user_id' field.
+     */
+    public long getUserId() {
+        return user_id;
+    }
+
+    /**
+     * Sets the value of the 'user_id' field.
+     * 
+     * @param value
+     *            the value to set.
+     */
+    public void setUserId(long value) {
+        this.user_id = value;
+    }
+
+    /**
+     * Gets the value of the 'status_id' field.
+     * 
+     * @return The value of the 'status_id' field.
+     */
+    public long getStatusId() {
+        return status_id;
+    }
+
+    /**
+     * Sets the value of the 'status_id' field.
+     * 
+     * @param value
+     *            the value to set.
+     */
+    public void setStatusId(long value) {
+        this.status_id = value;
+    }
+
+    /**
+     * Gets the value of the 'timestamp' field as an Optional&lt;java.time.Instant&gt;.
+     * 
+     * @return The value wrapped in an Optional&lt;java.time.Instant&gt;.
+     */
+    public Optional<java.time.Instant> getTimestamp() {
+        return Optional.<java.time.Instant> ofNullable(timestamp);
+    }
+
+    /**
+     * Sets the value of the 'timestamp' field.
+     * 
+     * @param value
+     *            the value to set.
+     */
+    public void setTimestamp(java.time.Instant value) {
+        this.timestamp = value;
+    }
+
+    /**
+     * Creates a new Deletion RecordBuilder.
+     * 
+     * @return A new Deletion RecordBuilder
+     */
+    public static lol.memory.ts.avro.metadata.Deletion.Builder newBuilder() {
+        return new lol.memory.ts.avro.metadata.Deletion.Builder();
+    }
+
+    /**
+     * Creates a new Deletion RecordBuilder by copying an existing Builder.
+     * 
+     * @param other
+     *            The existing builder to copy.
+     * 
+     * @return A new Deletion RecordBuilder
+     */
+    public static lol.memory.ts.avro.metadata.Deletion.Builder newBuilder(
+            lol.memory.ts.avro.metadata.Deletion.Builder other) {
+        if (other == null) {
+            return new lol.memory.ts.avro.metadata.Deletion.Builder();
+        } else {
+            return new lol.memory.ts.avro.metadata.Deletion.Builder(other);
+        }
+    }
+
+    /**
+     * Creates a new Deletion RecordBuilder by copying an existing Deletion instance.
+     * 
+     * @param other
+     *            The existing instance to copy.
+     * 
+     * @return A new Deletion RecordBuilder
+     */
+    public static lol.memory.ts.avro.metadata.Deletion.Builder newBuilder(lol.memory.ts.avro.metadata.Deletion other) {
+        if (other == null) {
+            return new lol.memory.ts.avro.metadata.Deletion.Builder();
+        } else {
+            return new lol.memory.ts.avro.metadata.Deletion.Builder(other);
+        }
+    }
+
+    /**
+     * RecordBuilder for Deletion instances.
+     */
+    @org.apache.avro.specific.AvroGenerated
+    public static class Builder extends org.apache.avro.specific.SpecificRecordBuilderBase<Deletion>
+            implements org.apache.avro.data.RecordBuilder<Deletion> {
+
+        private long user_id;
+        private long status_id;
+        private java.time.Instant timestamp;
+
+        /** Creates a new Builder */
+        private Builder() {
+            super(SCHEMA$, MODEL$);
+        }
+
+        /**
+         * Creates a Builder by copying an existing Builder.
+         * 
+         * @param other
+         *            The existing Builder to copy.
+         */
+        private Builder(lol.memory.ts.avro.metadata.Deletion.Builder other) {
+            super(other);
+            if (isValidValue(fields()[0], other.user_id)) {
+                this.user_id = data().deepCopy(fields()[0].schema(), other.user_id);
+                fieldSetFlags()[0] = other.fieldSetFlags()[0];
+            }
+            if (isValidValue(fields()[1], other.status_id)) {
+                this.status_id = data().deepCopy(fields()[1].schema(), other.status_id);
+                fieldSetFlags()[1] = other.fieldSetFlags()[1];
+            }
+            if (isValidValue(fields()[2], other.timestamp)) {
+                this.timestamp = data().deepCopy(fields()[2].schema(), other.timestamp);
+                fieldSetFlags()[2] = other.fieldSetFlags()[2];
+            }
+        }
+
+        /**
+         * Creates a Builder by copying an existing Deletion instance
+         * 
+         * @param other
+         *            The existing instance to copy.
+         */
+        private Builder(lol.memory.ts.avro.metadata.Deletion other) {
+            super(SCHEMA$, MODEL$);
+            if (isValidValue(fields()[0], other.user_id)) {
+                this.user_id = data().deepCopy(fields()[0].schema(), other.user_id);
+                fieldSetFlags()[0] = true;
+            }
+            if (isValidValue(fields()[1], other.status_id)) {
+                this.status_id = data().deepCopy(fields()[1].schema(), other.status_id);
+                fieldSetFlags()[1] = true;
+            }
+            if (isValidValue(fields()[2], other.timestamp)) {
+                this.timestamp = data().deepCopy(fields()[2].schema(), other.timestamp);
+                fieldSetFlags()[2] = true;
+            }
+        }
+
+        /**
+         * Gets the value of the 'user_id' field.
+         * 
+         * @return The value.
+         */
+        public long getUserId() {
+            return user_id;
+        }
+
+        /**
+         * Sets the value of the 'user_id' field.
+         * 
+         * @param value
+         *            The value of 'user_id'.
+         * 
+         * @return This builder.
+         */
+        public lol.memory.ts.avro.metadata.Deletion.Builder setUserId(long value) {
+            validate(fields()[0], value);
+            this.user_id = value;
+            fieldSetFlags()[0] = true;
+            return this;
+        }
+
+        /**
+         * Checks whether the 'user_id' field has been set.
+         * 
+         * @return True if the 'user_id' field has been set, false otherwise.
+         */
+        public boolean hasUserId() {
+            return fieldSetFlags()[0];
+        }
+
+        /**
+         * Clears the value of the 'user_id' field.
+         * 
+         * @return This builder.
+         */
+        public lol.memory.ts.avro.metadata.Deletion.Builder clearUserId() {
+            fieldSetFlags()[0] = false;
+            return this;
+        }
+
+        /**
+         * Gets the value of the 'status_id' field.
+         * 
+         * @return The value.
+         */
+        public long getStatusId() {
+            return status_id;
+        }
+
+        /**
+         * Sets the value of the 'status_id' field.
+         * 
+         * @param value
+         *            The value of 'status_id'.
+         * 
+         * @return This builder.
+         */
+        public lol.memory.ts.avro.metadata.Deletion.Builder setStatusId(long value) {
+            validate(fields()[1], value);
+            this.status_id = value;
+            fieldSetFlags()[1] = true;
+            return this;
+        }
+
+        /**
+         * Checks whether the 'status_id' field has been set.
+         * 
+         * @return True if the 'status_id' field has been set, false otherwise.
+         */
+        public boolean hasStatusId() {
+            return fieldSetFlags()[1];
+        }
+
+        /**
+         * Clears the value of the 'status_id' field.
+         * 
+         * @return This builder.
+         */
+        public lol.memory.ts.avro.metadata.Deletion.Builder clearStatusId() {
+            fieldSetFlags()[1] = false;
+            return this;
+        }
+
+        /**
+         * Gets the value of the 'timestamp' field.
+         * 
+         * @return The value.
+         */
+        public java.time.Instant getTimestamp() {
+            return timestamp;
+        }
+
+        /**
+         * Sets the value of the 'timestamp' field.
+         * 
+         * @param value
+         *            The value of 'timestamp'.
+         * 
+         * @return This builder.
+         */
+        public lol.memory.ts.avro.metadata.Deletion.Builder setTimestamp(java.time.Instant value) {
+            validate(fields()[2], value);
+            this.timestamp = value;
+            fieldSetFlags()[2] = true;
+            return this;
+        }
+
+        /**
+         * Checks whether the 'timestamp' field has been set.
+         * 
+         * @return True if the 'timestamp' field has been set, false otherwise.
+         */
+        public boolean hasTimestamp() {
+            return fieldSetFlags()[2];
+        }
+
+        /**
+         * Clears the value of the 'timestamp' field.
+         * 
+         * @return This builder.
+         */
+        public lol.memory.ts.avro.metadata.Deletion.Builder clearTimestamp() {
+            timestamp = null;
+            fieldSetFlags()[2] = false;
+            return this;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Deletion build() {
+            try {
+                Deletion record = new Deletion();
+                record.user_id = fieldSetFlags()[0] ? this.user_id : (java.lang.Long) defaultValue(fields()[0]);
+                record.status_id = fieldSetFlags()[1] ? this.status_id : (java.lang.Long) defaultValue(fields()[1]);
+                record.timestamp = fieldSetFlags()[2] ? this.timestamp : (java.time.Instant) defaultValue(fields()[2]);
+                return record;
+            } catch (org.apache.avro.AvroMissingFieldException e) {
+                throw e;
+            } catch (java.lang.Exception e) {
+                throw new org.apache.avro.AvroRuntimeException(e);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static final org.apache.avro.io.DatumWriter<Deletion> WRITER$ = (org.apache.avro.io.DatumWriter<Deletion>) MODEL$
+            .createDatumWriter(SCHEMA$);
+
+    @Override
+    public void writeExternal(java.io.ObjectOutput out) throws java.io.IOException {
+        WRITER$.write(this, SpecificData.getEncoder(out));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static final org.apache.avro.io.DatumReader<Deletion> READER$ = (org.apache.avro.io.DatumReader<Deletion>) MODEL$
+            .createDatumReader(SCHEMA$);
+
+    @Override
+    public void readExternal(java.io.ObjectInput in) throws java.io.IOException {
+        READER$.read(this, SpecificData.getDecoder(in));
+    }
+
+}
@@ -0,0 +1,487 @@
+/**
+ * Autogenerated by Avro
+ *
+ * DO NOT EDIT DIRECTLY
+ */
+package lol.memory.ts.avro.metadata;
+
+import org.apache.avro.generic.GenericArray;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.util.Utf8;
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.apache.avro.message.BinaryMessageDecoder;
+import org.apache.avro.message.SchemaStore;
+import java.util.Optional;
+
+@org.apache.avro.specific.AvroGenerated
+public class ScreenName extends org.apache.avro.specific.SpecificRecordBase
+        implements org.apache.avro.specific.SpecificRecord {
+    private static final long serialVersionUID = 5910943257768179007L;
+
+    public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse(
+            "{\"type\":\"record\",\"name\":\"ScreenName\",\"namespace\":\"lol.memory.ts.avro.metadata\",\"fields\":[{\"name\":\"screen_name\",\"type\":\"string\"},{\"name\":\"user_ids\",\"type\":{\"type\":\"array\",\"items\":\"long\"}}]}");
+
+    public static org.apache.avro.Schema getClassSchema() {
+        return SCHEMA$;
+    }
+
+    private static final SpecificData MODEL$ = new SpecificData();
+
+    private static final BinaryMessageEncoder<ScreenName> ENCODER = new BinaryMessageEncoder<ScreenName>(MODEL$,
+            SCHEMA$);
+
+    private static final BinaryMessageDecoder<ScreenName> DECODER = new BinaryMessageDecoder<ScreenName>(MODEL$,
+            SCHEMA$);
+
+    /**
+     * Return the BinaryMessageEncoder instance used by this class.
+     * 
+     * @return the message encoder used by this class
+     */
+    public static BinaryMessageEncoder<ScreenName> getEncoder() {
+        return ENCODER;
+    }
+
+    /**
+     * Return the BinaryMessageDecoder instance used by this class.
+     * 
+     * @return the message decoder used by this class
+     */
+    public static BinaryMessageDecoder<ScreenName> getDecoder() {
+        return DECODER;
+    }
+
+    /**
+     * Create a new BinaryMessageDecoder instance for this class that uses the specified {@link SchemaStore}.
+     * 
+     * @param resolver
+     *            a {@link SchemaStore} used to find schemas by fingerprint
+     * 
+     * @return a BinaryMessageDecoder instance for this class backed by the given SchemaStore
+     */
+    public static BinaryMessageDecoder<ScreenName> createDecoder(SchemaStore resolver) {
+        return new BinaryMessageDecoder<ScreenName>(MODEL$, SCHEMA$, resolver);
+    }
+
+    /**
+     * Serializes this ScreenName to a ByteBuffer.
+     * 
+     * @return a buffer holding the serialized data for this instance
+     * 
+     * @throws java.io.IOException
+     *             if this instance could not be serialized
+     */
+    public java.nio.ByteBuffer toByteBuffer() throws java.io.IOException {
+        return ENCODER.encode(this);
+    }
+
+    /**
+     * Deserializes a ScreenName from a ByteBuffer.
+     * 
+     * @param b
+     *            a byte buffer holding serialized data for an instance of this class
+     * 
+     * @return a ScreenName instance decoded from the given buffer
+     * 
+     * @throws java.io.IOException
+     *             if the given bytes could not be deserialized into an instance of this class
+     */
+    public static ScreenName fromByteBuffer(java.nio.ByteBuffer b) throws java.io.IOException {
+        return DECODER.decode(b);
+    }
+
+    private java.lang.CharSequence screen_name;
+    private java.util.List<java.lang.Long> user_ids;
+
+    /**
+     * Default constructor. Note that this does not initialize fields to their default values from the schema. If that
+     * is desired then one should use <code>newBuilder()</code>.
+     */
+    public ScreenName() {
+    }
+
+    /**
+     * All-args constructor.
+     * 
+     * @param screen_name
+     *            The new value for screen_name
+     * @param user_ids
+     *            The new value for user_ids
+     */
+    public ScreenName(java.lang.CharSequence screen_name, java.util.List<java.lang.Long> user_ids) {
+        this.screen_name = screen_name;
+        this.user_ids = user_ids;
+    }
+
+    public org.apache.avro.specific.SpecificData getSpecificData() {
+        return MODEL$;
+    }
+
+    public org.apache.avro.Schema getSchema() {
+        return SCHEMA$;
+    }
+
+    // Used by DatumWriter. Applications should not call.
+    public java.lang.Object get(int field$) {
+        switch (field$) {
+        case 0:
+            return screen_name;
+        case 1:
+            return user_ids;
+        default:
+            throw new IndexOutOfBoundsException("Invalid index: " + field$);
+        }
+    }
+
+    // Used by DatumReader. Applications should not call.
+    @SuppressWarnings(value = "unchecked")
+    public void put(int field$, java.lang.Object value$) {
+        switch (field$) {
+        case 0:
+            screen_name = (java.lang.CharSequence) value$;
+            break;
+        case 1:
+            user_ids = (java.util.List<java.lang.Long>) value$;
+            break;
+        default:
+            throw new IndexOutOfBoundsException("Invalid index: " + field$);
+        }
+    }
+
+    /**
+     * Gets the value of the 'screen_name' field.
+     * 
+     * @return The value of the 'screen_name' field.
+     */
+    public java.lang.CharSequence getScreenName() {
+        return screen_name;
+    }
+
+    /**
+     * Sets the value of the 'screen_name' field.
+     * 
+     * @param value
+     *            the value to set.
+     */
+    public void setScreenName(java.lang.CharSequence value) {
+        this.screen_name = value;
+    }
+
+    /**
+     * Gets the value of the 'user_ids' field.
+     * 
+     * @return The value of the 'user_ids' field.
+     */
+    public java.util.List<java.lang.Long> getUserIds() {
+        return user_ids;
+    }
+
+    /**
+     * Sets the value of the 'user_ids' field.
+     * 
+     * @param value
+     *            the value to set.
+     */
+    public void setUserIds(java.util.List<java.lang.Long> value) {
+        this.user_ids = value;
+    }
+
+    /**
+     * Creates a new ScreenName RecordBuilder.
+     * 
+     * @return A new ScreenName RecordBuilder
+     */
+    public static lol.memory.ts.avro.metadata.ScreenName.Builder newBuilder() {
+        return new lol.memory.ts.avro.metadata.ScreenName.Builder();
+    }
+
+    /**
+     * Creates a new ScreenName RecordBuilder by copying an existing Builder.
+     * 
+     * @param other
+     *            The existing builder to copy.
+     * 
+     * @return A new ScreenName RecordBuilder
+     */
+    public static lol.memory.ts.avro.metadata.ScreenName.Builder newBuilder(
+            lol.memory.ts.avro.metadata.ScreenName.Builder other) {
+        if (other == null) {
+            return new lol.memory.ts.avro.metadata.ScreenName.Builder();
+        } else {
+            return new lol.memory.ts.avro.metadata.ScreenName.Builder(other);
+        }
+    }
+
+    /**
+     * Creates a new ScreenName RecordBuilder by copying an existing ScreenName instance.
+     * 
+     * @param other
+     *            The existing instance to copy.
+     * 
+     * @return A new ScreenName RecordBuilder
+     */
+    public static lol.memory.ts.avro.metadata.ScreenName.Builder newBuilder(
+            lol.memory.ts.avro.metadata.ScreenName other) {
+        if (other == null) {
+            return new lol.memory.ts.avro.metadata.ScreenName.Builder();
+        } else {
+            return new lol.memory.ts.avro.metadata.ScreenName.Builder(other);
+        }
+    }
+
+    /**
+     * RecordBuilder for ScreenName instances.
+     */
+    @org.apache.avro.specific.AvroGenerated
+    public static class Builder extends org.apache.avro.specific.SpecificRecordBuilderBase<ScreenName>
+            implements org.apache.avro.data.RecordBuilder<ScreenName> {
+
+        private java.lang.CharSequence screen_name;
+        private java.util.List<java.lang.Long> user_ids;
+
+        /** Creates a new Builder */
+        private Builder() {
+            super(SCHEMA$, MODEL$);
+        }
+
+        /**
+         * Creates a Builder by copying an existing Builder.
+         * 
+         * @param other
+         *            The existing Builder to copy.
+         */
+        private Builder(lol.memory.ts.avro.metadata.ScreenName.Builder other) {
+            super(other);
+            if (isValidValue(fields()[0], other.screen_name)) {
+                this.screen_name = data().deepCopy(fields()[0].schema(), other.screen_name);
+                fieldSetFlags()[0] = other.fieldSetFlags()[0];
+            }
+            if (isValidValue(fields()[1], other.user_ids)) {
+                this.user_ids = data().deepCopy(fields()[1].schema(), other.user_ids);
+                fieldSetFlags()[1] = other.fieldSetFlags()[1];
+            }
+        }
+
+        /**
+         * Creates a Builder by copying an existing ScreenName instance
+         * 
+         * @param other
+         *            The existing instance to copy.
+         */
+        private Builder(lol.memory.ts.avro.metadata.ScreenName other) {
+            super(SCHEMA$, MODEL$);
+            if (isValidValue(fields()[0], other.screen_name)) {
+                this.screen_name = data().deepCopy(fields()[0].schema(), other.screen_name);
+                fieldSetFlags()[0] = true;
+            }
+            if (isValidValue(fields()[1], other.user_ids)) {
+                this.user_ids = data().deepCopy(fields()[1].schema(), other.user_ids);
+                fieldSetFlags()[1] = true;
+            }
+        }
+
+        /**
+         * Gets the value of the 'screen_name' field.
+         * 
+         * @return The value.
+         */
+        public java.lang.CharSequence getScreenName() {
+            return screen_name;
+        }
+
+        /**
+         * Sets the value of the 'screen_name' field.
+         * 
+         * @param value
+         *            The value of 'screen_name'.
+         * 
+         * @return This builder.
+         */
+        public lol.memory.ts.avro.metadata.ScreenName.Builder setScreenName(java.lang.CharSequence value) {
+            validate(fields()[0], value);
+            this.screen_name = value;
+            fieldSetFlags()[0] = true;
+            return this;
+        }
+
+        /**
+         * Checks whether the 'screen_name' field has been set.
+         * 
+         * @return True if the 'screen_name' field has been set, false otherwise.
+         */
+        public boolean hasScreenName() {
+            return fieldSetFlags()[0];
+        }
+
+        /**
+         * Clears the value of the 'screen_name' field.
+         * 
+         * @return This builder.
+         */
+        public lol.memory.ts.avro.metadata.ScreenName.Builder clearScreenName() {
+            screen_name = null;
+            fieldSetFlags()[0] = false;
+            return this;
+        }
+
+        /**
+         * Gets the value of the 'user_ids' field.
+         * 
+         * @return The value.
+         */
+        public java.util.List<java.lang.Long> getUserIds() {
+            return user_ids;
+        }
+
+        /**
+         * Sets the value of the 'user_ids' field.
+         * 
+         * @param value
+         *            The value of 'user_ids'.
+         * 
+         * @return This builder.
+         */
+        public lol.memory.ts.avro.metadata.ScreenName.Builder setUserIds(java.util.List<java.lang.Long> value) {
+            validate(fields()[1], value);
+            this.user_ids = value;
+            fieldSetFlags()[1] = true;
+            return this;
+        }
+
+        /**
+         * Checks whether the 'user_ids' field has been set.
+         * 
+         * @return True if the 'user_ids' field has been set, false otherwise.
+         */
+        public boolean hasUserIds() {
+            return fieldSetFlags()[1];
+        }
+
+        /**
+         * Clears the value of the 'user_ids' field.
+         * 
+         * @return This builder.
+         */
+        public lol.memory.ts.avro.metadata.ScreenName.Builder clearUserIds() {
+            user_ids = null;
+            fieldSetFlags()[1] = false;
+            return this;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public ScreenName build() {
+            try {
+                ScreenName record = new ScreenName();
+                record.screen_name = fieldSetFlags()[0] ? this.screen_name
+                        : (java.lang.CharSequence) defaultValue(fields()[0]);
+                record.user_ids = fieldSetFlags()[1] ? this.user_ids
+                        : (java.util.List<java.lang.Long>) defaultValue(fields()[1]);
+                return record;
+            } catch (org.apache.avro.AvroMissingFieldException e) {
+                throw e;
+            } catch (java.lang.Exception e) {
+                throw new org.apache.avro.AvroRuntimeException(e);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static final org.apache.avro.io.DatumWriter<ScreenName> WRITER$ = (org.apache.avro.io.DatumWriter<ScreenName>) MODEL$
+            .createDatumWriter(SCHEMA$);
+
+    @Override
+    public void writeExternal(java.io.ObjectOutput out) throws java.io.IOException {
+        WRITER$.write(this, SpecificData.getEncoder(out));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static final org.apache.avro.io.DatumReader<ScreenName> READER$ = (org.apache.avro.io.DatumReader<ScreenName>) MODEL$
+            .createDatumReader(SCHEMA$);
+
+    @Override
+    public void readExternal(java.io.ObjectInput in) throws java.io.IOException {
+        READER$.read(this, SpecificData.getDecoder(in));
+    }
+
+    @Override
+    protected boolean hasCustomCoders() {
+        return true;
+    }
+
+    @Override
+    public void customEncode(org.apache.avro.io.Encoder out) throws java.io.IOException {
+        out.writeString(this.screen_name);
+
+        long size0 = this.user_ids.size();
+        out.writeArrayStart();
+        out.setItemCount(size0);
+        long actualSize0 = 0;
+        for (java.lang.Long e0 : this.user_ids) {
+            actualSize0++;
+            out.startItem();
+            out.writeLong(e0);
+        }
+        out.writeArrayEnd();
+        if (actualSize0 != size0)
+            throw new java.util.ConcurrentModificationException(
+                    "Array-size written was " + size0 + ", but element count was " + actualSize0 + ".");
+
+    }
+
+    @Override
+    public void customDecode(org.apache.avro.io.ResolvingDecoder in) throws java.io.IOException {
+        org.apache.avro.Schema.Field[] fieldOrder = in.readFieldOrderIfDiff();
+        if (fieldOrder == null) {
+            this.screen_name = in.readString(this.screen_name instanceof Utf8 ? (Utf8) this.screen_name : null);
+
+            long size0 = in.readArrayStart();
+            java.util.List<java.lang.Long> a0 = this.user_ids;
+            if (a0 == null) {
+                a0 = new SpecificData.Array<java.lang.Long>((int) size0, SCHEMA$.getField("user_ids").schema());
+                this.user_ids = a0;
+            } else
+                a0.clear();
+            SpecificData.Array<java.lang.Long> ga0 = (a0 instanceof SpecificData.Array
+                    ? (SpecificData.Array<java.lang.Long>) a0 : null);
+            for (; 0 < size0; size0 = in.arrayNext()) {
+                for (; size0 != 0; size0--) {
+                    java.lang.Long e0 = (ga0 != null ? ga0.peek() : null);
+                    e0 = in.readLong();
+                    a0.add(e0);
+                }
+            }
+
+        } else {
+            for (int i = 0; i < 2; i++) {
+                switch (fieldOrder[i].pos()) {
+                case 0:
+                    this.screen_name = in.readString(this.screen_name instanceof Utf8 ? (Utf8) this.screen_name : null);
+                    break;
+
+                case 1:
+                    long size0 = in.readArrayStart();
+                    java.util.List<java.lang.Long> a0 = this.user_ids;
+                    if (a0 == null) {
+                        a0 = new SpecificData.Array<java.lang.Long>((int) size0, SCHEMA$.getField("user_ids").schema());
+                        this.user_ids = a0;
+                    } else
+                        a0.clear();
+                    SpecificData.Array<java.lang.Long> ga0 = (a0 instanceof SpecificData.Array
+                            ? (SpecificData.Array<java.lang.Long>) a0 : null);
+                    for (; 0 < size0; size0 = in.arrayNext()) {
+                        for (; size0 != 0; size0--) {
+                            java.lang.Long e0 = (ga0 != null ? ga0.peek() : null);
+                            e0 = in.readLong();
+                            a0.add(e0);
+                        }
+                    }
+                    break;
+
+                default:
+                    throw new java.io.IOException("Corrupt ResolvingDecoder.");
+                }
+            }
+        }
+    }
+}
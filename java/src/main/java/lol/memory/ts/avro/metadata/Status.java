@@ -0,0 +1,899 @@
+/**
+ * Autogenerated by Avro
+ *
+ * DO NOT EDIT DIRECTLY
+ */
+package lol.memory.ts.avro.metadata;
+
+import org.apache.avro.generic.GenericArray;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.util.Utf8;
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.apache.avro.message.BinaryMessageDecoder;
+import org.apache.avro.message.SchemaStore;
+import java.util.Optional;
+
+@org.apache.avro.specific.AvroGenerated
+public class Status extends org.apache.avro.specific.SpecificRecordBase
+        implements org.apache.avro.specific.SpecificRecord {
+    private static final long serialVersionUID = -1059157877313050262L;
+
+    public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse(
+            "{\"type\":\"record\",\"name\":\"Status\",\"namespace\":\"lol.memory.ts.avro.metadata\",\"fields\":[{\"name\":\"status_id\",\"type\":\"long\"},{\"name\":\"user_id\",\"type\":\"long\"},{\"name\":\"full\",\"type\":\"boolean\"},{\"name\":\"timestamp\",\"type\":[\"null\",{\"type\":\"long\",\"logicalType\":\"timestamp-millis\"}]},{\"name\":\"replied_to_id\",\"type\":[\"null\",\"long\"]},{\"name\":\"quoted_id\",\"type\":[\"null\",\"long\"]},{\"name\":\"retweeted_id\",\"type\":[\"null\",\"long\"]},{\"name\":\"mentioned_ids\",\"type\":{\"type\":\"array\",\"items\":\"long\"}}]}");
+
+    public static org.apache.avro.Schema getClassSchema() {
+        return SCHEMA$;
+    }
+
+    private static final SpecificData MODEL$ = new SpecificData();
+    static {
+        MODEL$.addLogicalTypeConversion(new org.apache.avro.data.TimeConversions.TimestampMillisConversion());
+    }
+
+    private static final BinaryMessageEncoder<Status> ENCODER = new BinaryMessageEncoder<Status>(MODEL$, SCHEMA$);
+
+    private static final BinaryMessageDecoder<Status> DECODER = new BinaryMessageDecoder<Status>(MODEL$, SCHEMA$);
+
+    /**
+     * Return the BinaryMessageEncoder instance used by this class.
+     * 
+     * @return the message encoder used by this class
+     */
+    public static BinaryMessageEncoder<Status> getEncoder() {
+        return ENCODER;
+    }
+
+    /**
+     * Return the BinaryMessageDecoder instance used by this class.
+     * 
+     * @return the message decoder used by this class
+     */
+    public static BinaryMessageDecoder<Status> getDecoder() {
+        return DECODER;
+    }
+
+    /**
+     * Create a new BinaryMessageDecoder instance for this class that uses the specified {@link SchemaStore}.
+     * 
+     * @param resolver
+     *            a {@link SchemaStore} used to find schemas by fingerprint
+     * 
+     * @return a BinaryMessageDecoder instance for this class backed by the given SchemaStore
+     */
+    public static BinaryMessageDecoder<Status> createDecoder(SchemaStore resolver) {
+        return new BinaryMessageDecoder<Status>(MODEL$, SCHEMA$, resolver);
+    }
+
+    /**
+     * Serializes this Status to a ByteBuffer.
+     * 
+     * @return a buffer holding the serialized data for this instance
+     * 
+     * @throws java.io.IOException
+     *             if this instance could not be serialized
+     */
+    public java.nio.ByteBuffer toByteBuffer() throws java.io.IOException {
+        return ENCODER.encode(this);
+    }
+
+    /**
+     * Deserializes a Status from a ByteBuffer.
+     * 
+     * @param b
+     *            a byte buffer holding serialized data for an instance of this class
+     * 
+     * @return a Status instance decoded from the given buffer
+     * 
+     * @throws java.io.IOException
+     *             if the given bytes could not be deserialized into an instance of this class
+     */
+    public static Status fromByteBuffer(java.nio.ByteBuffer b) throws java.io.IOException {
+        return DECODER.decode(b);
+    }
+
+    private long status_id;
+    private long user_id;
+    private boolean full;
+    private java.time.Instant timestamp;
+    private java.lang.Long replied_to_id;
+    private java.lang.Long quoted_id;
+    private java.lang.Long retweeted_id;
+    private java.util.List<java.lang.Long> mentioned_ids;
+
+    /**
+     * Default constructor. Note that this does not initialize fields to their default values from the schema. If that
+     * is desired then one should use <code>newBuilder()</code>.
+     */
+    public Status() {
+    }
+
+    /**
+     * All-args constructor.
+     * 
+     * @param status_id
+     *            The new value for status_id
+     * @param user_id
+     *            The new value for user_id
+     * @param full
+     *            The new value for full
+     * @param timestamp
+     *            The new value for timestamp
+     * @param replied_to_id
+     *            The new value for replied_to_id
+     * @param quoted_id
+     *            The new value for quoted_id
+     * @param retweeted_id
+     *            The new value for retweeted_id
+     * @param mentioned_ids
+     *            The new value for mentioned_ids
+     */
+    public Status(java.lang.Long status_id, java.lang.Long user_id, java.lang.Boolean full, java.time.Instant timestamp,
+            java.lang.Long replied_to_id, java.lang.Long quoted_id, java.lang.Long retweeted_id,
+            java.util.List<java.lang.Long> mentioned_ids) {
+        this.status_id = status_id;
+        this.user_id = user_id;
+        this.full = full;
+        this.timestamp = timestamp;
+        this.replied_to_id = replied_to_id;
+        this.quoted_id = quoted_id;
+        this.retweeted_id = retweeted_id;
+        this.mentioned_ids = mentioned_ids;
+    }
+
+    public org.apache.avro.specific.SpecificData getSpecificData() {
+        return MODEL$;
+    }
+
+    public org.apache.avro.Schema getSchema() {
+        return SCHEMA$;
+    }
+
+    // Used by DatumWriter. Applications should not call.
+    public java.lang.Object get(int field$) {
+        switch (field$) {
+        case 0:
+            return status_id;
+        case 1:
+            return user_id;
+        case 2:
+            return full;
+        case 3:
+            return timestamp;
+        case 4:
+            return replied_to_id;
+        case 5:
+            return quoted_id;
+        case 6:
+            return retweeted_id;
+        case 7:
+            return mentioned_ids;
+        default:
+            throw new IndexOutOfBoundsException("Invalid index: " + field$);
+        }
+    }
+
+    // Used by DatumReader. Applications should not call.
+    @SuppressWarnings(value = "unchecked")
+    public void put(int field$, java.lang.Object value$) {
+        switch (field$) {
+        case 0:
+            status_id = (java.lang.Long) value$;
+            break;
+        case 1:
+            user_id = (java.lang.Long) value$;
+            break;
+        case 2:
+            full = (java.lang.Boolean) value$;
+            break;
+        case 3:
+            timestamp = (java.time.Instant) value$;
+            break;
+        case 4:
+            replied_to_id = (java.lang.Long) value$;
+            break;
+        case 5:
+            quoted_id = (java.lang.Long) value$;
+            break;
+        case 6:
+            retweeted_id = (java.lang.Long) value$;
+            break;
+        case 7:
+            mentioned_ids = (java.util.List<java.lang.Long>) value$;
+            break;
+        default:
+            throw new IndexOutOfBoundsException("Invalid index: " + field$);
+        }
+    }
+
+    /**
+     * Gets the value of the 'status_id' field.
+     * 
+     * @return The value of the 'status_id' field.
+     */
+    public long getStatusId() {
+        return status_id;
+    }
+
+    /**
+     * Sets the value of the 'status_id' field.
+     * 
+     * @param value
+     *            the value to set.
+     */
+    public void setStatusId(long value) {
+        this.status_id = value;
+    }
+
+    /**
+     * Gets the value of the 'user_id' field.
+     * 
+     * @return The value of the 'user_id' field.
+     */
+    public long getUserId() {
+        return user_id;
+    }
+
+    /**
+     * Sets the value of the 'user_id' field.
+     * 
+     * @param value
+     *            the value to set.
+     */
+    public void setUserId(long value) {
+        this.user_id = value;
+    }
+
+    /**
+     * Gets the value of the 'full' field.
+     * 
+     * @return The value of the 'full' field.
+     */
+    public boolean getFull() {
+        return full;
+    }
+
+    /**
+     * Sets the value of the 'full' field.
+     * 
+     * @param value
+     *            the value to set.
+     */
+    public void setFull(boolean value) {
+        this.full = value;
+    }
+
+    /**
+     * Gets the value of the 'timestamp' field as an Optional&lt;java.time.Instant&gt;.
+     * 
+     * @return The value wrapped in an Optional&lt;java.time.Instant&gt;.
+     */
+    public Optional<java.time.Instant> getTimestamp() {
+        return Optional.<java.time.Instant> ofNullable(timestamp);
+    }
+
+    /**
+     * Sets the value of the 'timestamp' field.
+     * 
+     * @param value
+     *            the value to set.
+     */
+    public void setTimestamp(java.time.Instant value) {
+        this.timestamp = value;
+    }
+
+    /**
+     * Gets the value of the 'replied_to_id' field as an Optional&lt;java.lang.Long&gt;.
+     * 
+     * @return The value wrapped in an Optional&lt;java.lang.Long&gt;.
+     */
+    public Optional<java.lang.Long> getRepliedToId() {
+        return Optional.<java.lang.Long> ofNullable(replied_to_id);
+    }
+
+    /**
+     * Sets the value of the 'replied_to_id' field.
+     * 
+     * @param value
+     *            the value to set.
+     */
+    public void setRepliedToId(java.lang.Long value) {
+        this.replied_to_id = value;
+    }
+
+    /**
+     * Gets the value of the 'quoted_id' field as an Optional&lt;java.lang.Long&gt;.
+     * 
+     * @return The value wrapped in an Optional&lt;java.lang.Long&gt;.
+     */
+    public Optional<java.lang.Long> getQuotedId() {
+        return Optional.<java.lang.Long> ofNullable(quoted_id);
+    }
+
+    /**
+     * Sets the value of the 'quoted_id' field.
+     * 
+     * @param value
+     *            the value to set.
+     */
+    public void setQuotedId(java.lang.Long value) {
+        this.quoted_id = value;
+    }
+
+    /**
+     * Gets the value of the 'retweeted_id' field as an Optional&lt;java.lang.Long&gt;.
+     * 
+     * @return The value wrapped in an Optional&lt;java.lang.Long&gt;.
+     */
+    public Optional<java.lang.Long> getRetweetedId() {
+        return Optional.<java.lang.Long> ofNullable(retweeted_id);
+    }
+
+    /**
+     * Sets the value of the 'retweeted_id' field.
+     * 
+     * @param value
+     *            the value to set.
+     */
+    public void setRetweetedId(java.lang.Long value) {
+        this.retweeted_id = value;
+    }
+
+    /**
+     * Gets the value of the 'mentioned_ids' field.
+     * 
+     * @return The value of the 'mentioned_ids' field.
+     */
+    public java.util.List<java.lang.Long> getMentionedIds() {
+        return mentioned_ids;
+    }
+
+    /**
+     * Sets the value of the 'mentioned_ids' field.
+     * 
+     * @param value
+     *            the value to set.
+     */
+    public void setMentionedIds(java.util.List<java.lang.Long> value) {
+        this.mentioned_ids = value;
+    }
+
+    /**
+     * Creates a new Status RecordBuilder.
+     * 
+     * @return A new Status RecordBuilder
+     */
+    public static lol.memory.ts.avro.metadata.Status.Builder newBuilder() {
+        return new lol.memory.ts.avro.metadata.Status.Builder();
+    }
+
+    /**
+     * Creates a new Status RecordBuilder by copying an existing Builder.
+     * 
+     * @param other
+     *            The existing builder to copy.
+     * 
+     * @return A new Status RecordBuilder
+     */
+    public static lol.memory.ts.avro.metadata.Status.Builder newBuilder(
+            lol.memory.ts.avro.metadata.Status.Builder other) {
+        if (other == null) {
+            return new lol.memory.ts.avro.metadata.Status.Builder();
+        } else {
+            return new lol.memory.ts.avro.metadata.Status.Builder(other);
+        }
+    }
+
+    /**
+     * Creates a new Status RecordBuilder by copying an existing Status instance.
+     * 
+     * @param other
+     *            The existing instance to copy.
+     * 
+     * @return A new Status RecordBuilder
+     */
+    public static lol.memory.ts.avro.metadata.Status.Builder newBuilder(lol.memory.ts.avro.metadata.Status other) {
+        if (other == null) {
+            return new lol.memory.ts.avro.metadata.Status.Builder();
+        } else {
+            return new lol.memory.ts.avro.metadata.Status.Builder(other);
+        }
+    }
+
+    /**
+     * RecordBuilder for Status instances.
+     */
+    @org.apache.avro.specific.AvroGenerated
+    public static class Builder extends org.apache.avro.specific.SpecificRecordBuilderBase<Status>
+            implements org.apache.avro.data.RecordBuilder<Status> {
+
+        private long status_id;
+        private long user_id;
+        private boolean full;
+        private java.time.Instant timestamp;
+        private java.lang.Long replied_to_id;
+        private java.lang.Long quoted_id;
+        private java.lang.Long retweeted_id;
+        private java.util.List<java.lang.Long> mentioned_ids;
+
+        /** Creates a new Builder */
+        private Builder() {
+            super(SCHEMA$, MODEL$);
+        }
+
+        /**
+         * Creates a Builder by copying an existing Builder.
+         * 
+         * @param other
+         *            The existing Builder to copy.
+         */
+        private Builder(lol.memory.ts.avro.metadata.Status.Builder other) {
+            super(other);
+            if (isValidValue(fields()[0], other.status_id)) {
+                this.status_id = data().deepCopy(fields()[0].schema(), other.status_id);
+                fieldSetFlags()[0] = other.fieldSetFlags()[0];
+            }
+            if (isValidValue(fields()[1], other.user_id)) {
+                this.user_id = data().deepCopy(fields()[1].schema(), other.user_id);
+                fieldSetFlags()[1] = other.fieldSetFlags()[1];
+            }
+            if (isValidValue(fields()[2], other.full)) {
+                this.full = data().deepCopy(fields()[2].schema(), other.full);
+                fieldSetFlags()[2] = other.fieldSetFlags()[2];
+            }
+            if (isValidValue(fields()[3], other.timestamp)) {
+                this.timestamp = data().deepCopy(fields()[3].schema(), other.timestamp);
+                fieldSetFlags()[3] = other.fieldSetFlags()[3];
+            }
+            if (isValidValue(fields()[4], other.replied_to_id)) {
+                this.replied_to_id = data().deepCopy(fields()[4].schema(), other.replied_to_id);
+                fieldSetFlags()[4] = other.fieldSetFlags()[4];
+            }
+            if (isValidValue(fields()[5], other.quoted_id)) {
+                this.quoted_id = data().deepCopy(fields()[5].schema(), other.quoted_id);
+                fieldSetFlags()[5] = other.fieldSetFlags()[5];
+            }
+            if (isValidValue(fields()[6], other.retweeted_id)) {
+                this.retweeted_id = data().deepCopy(fields()[6].schema(), other.retweeted_id);
+                fieldSetFlags()[6] = other.fieldSetFlags()[6];
+            }
+            if (isValidValue(fields()[7], other.mentioned_ids)) {
+                this.mentioned_ids = data().deepCopy(fields()[7].schema(), other.mentioned_ids);
+                fieldSetFlags()[7] = other.fieldSetFlags()[7];
+            }
+        }
+
+        /**
+         * Creates a Builder by copying an existing Status instance
+         * 
+         * @param other
+         *            The existing instance to copy.
+         */
+        private Builder(lol.memory.ts.avro.metadata.Status other) {
+            super(SCHEMA$, MODEL$);
+            if (isValidValue(fields()[0], other.status_id)) {
+                this.status_id = data().deepCopy(fields()[0].schema(), other.status_id);
+                fieldSetFlags()[0] = true;
+            }
+            if (isValidValue(fields()[1], other.user_id)) {
+                this.user_id = data().deepCopy(fields()[1].schema(), other.user_id);
+                fieldSetFlags()[1] = true;
+            }
+            if (isValidValue(fields()[2], other.full)) {
+                this.full = data().deepCopy(fields()[2].schema(), other.full);
+                fieldSetFlags()[2] = true;
+            }
+            if (isValidValue(fields()[3], other.timestamp)) {
+                this.timestamp = data().deepCopy(fields()[3].schema(), other.timestamp);
+                fieldSetFlags()[3] = true;
+            }
+            if (isValidValue(fields()[4], other.replied_to_id)) {
+                this.replied_to_id = data().deepCopy(fields()[4].schema(), other.replied_to_id);
+                fieldSetFlags()[4] = true;
+            }
+            if (isValidValue(fields()[5], other.quoted_id)) {
+                this.quoted_id = data().deepCopy(fields()[5].schema(), other.quoted_id);
+                fieldSetFlags()[5] = true;
+            }
+            if (isValidValue(fields()[6], other.retweeted_id)) {
+                this.retweeted_id = data().deepCopy(fields()[6].schema(), other.retweeted_id);
+                fieldSetFlags()[6] = true;
+            }
+            if (isValidValue(fields()[7], other.mentioned_ids)) {
+                this.mentioned_ids = data().deepCopy(fields()[7].schema(), other.mentioned_ids);
+                fieldSetFlags()[7] = true;
+            }
+        }
+
+        /**
+         * Gets the value of the 'status_id' field.
+         * 
+         * @return The value.
+         */
+        public long getStatusId() {
+            return status_id;
+        }
+
+        /**
+         * Sets the value of the 'status_id' field.
+         * 
+         * @param value
+         *            The value of 'status_id'.
+         * 
+         * @return This builder.
+         */
+        public lol.memory.ts.avro.metadata.Status.Builder setStatusId(long value) {
+            validate(fields()[0], value);
+            this.status_id = value;
+            fieldSetFlags()[0] = true;
+            return this;
+        }
+
+        /**
+         * Checks whether the 'status_id' field has been set.
+         * 
+         * @return True if the 'status_id' field has been set, false otherwise.
+         */
+        public boolean hasStatusId() {
+            return fieldSetFlags()[0];
+        }
+
+        /**
+         * Clears the value of the 'status_id' field.
+         * 
+         * @return This builder.
+         */
+        public lol.memory.ts.avro.metadata.Status.Builder clearStatusId() {
+            fieldSetFlags()[0] = false;
+            return this;
+        }
+
+        /**
+         * Gets the value of the 'user_id' field.
+         * 
+         * @return The value.
+         */
+        public long getUserId() {
+            return user_id;
+        }
+
+        /**
+         * Sets the value of the 'user_id' field.
+         * 
+         * @param value
+         *            The value of 'user_id'.
+         * 
+         * @return This builder.
+         */
+        public lol.memory.ts.avro.metadata.Status.Builder setUserId(long value) {
+            validate(fields()[1], value);
+            this.user_id = value;
+            fieldSetFlags()[1] = true;
+            return this;
+        }
+
+        /**
+         * Checks whether the 'user_id' field has been set.
+         * 
+         * @return True if the 'user_id' field has been set, false otherwise.
+         */
+        public boolean hasUserId() {
+            return fieldSetFlags()[1];
+        }
+
+        /**
+         * Clears the value of the 'user_id' field.
+         * 
+         * @return This builder.
+         */
+        public lol.memory.ts.avro.metadata.Status.Builder clearUserId() {
+            fieldSetFlags()[1] = false;
+            return this;
+        }
+
+        /**
+         * Gets the value of the 'full' field.
+         * 
+         * @return The value.
+         */
+        public boolean getFull() {
+            return full;
+        }
+
+        /**
+         * Sets the value of the 'full' field.
+         * 
+         * @param value
+         *            The value of 'full'.
+         * 
+         * @return This builder.
+         */
+        public lol.memory.ts.avro.metadata.Status.Builder setFull(boolean value) {
+            validate(fields()[2], value);
+            this.full = value;
+            fieldSetFlags()[2] = true;
+            return this;
+        }
+
+        /**
+         * Checks whether the 'full' field has been set.
+         * 
+         * @return True if the 'full' field has been set, false otherwise.
+         */
+        public boolean hasFull() {
+            return fieldSetFlags()[2];
+        }
+
+        /**
+         * Clears the value of the 'full' field.
+         * 
+         * @return This builder.
+         */
+        public lol.memory.ts.avro.metadata.Status.Builder clearFull() {
+            fieldSetFlags()[2] = false;
+            return this;
+        }
+
+        /**
+         * Gets the value of the 'timestamp' field.
+         * 
+         * @return The value.
+         */
+        public java.time.Instant getTimestamp() {
+            return timestamp;
+        }
+
+        /**
+         * Sets the value of the 'timestamp' field.
+         * 
+         * @param value
+         *            The value of 'timestamp'.
+         * 
+         * @return This builder.
+         */
+        public lol.memory.ts.avro.metadata.Status.Builder setTimestamp(java.time.Instant value) {
+            validate(fields()[3], value);
+            this.timestamp = value;
+            fieldSetFlags()[3] = true;
+            return this;
+        }
+
+        /**
+         * Checks whether the 'timestamp' field has been set.
+         * 
+         * @return True if the 'timestamp' field has been set, false otherwise.
+         */
+        public boolean hasTimestamp() {
+            return fieldSetFlags()[3];
+        }
+
+        /**
+         * Clears the value of the 'timestamp' field.
+         * 
+         * @return This builder.
+         */
+        public lol.memory.ts.avro.metadata.Status.Builder clearTimestamp() {
+            timestamp = null;
+            fieldSetFlags()[3] = false;
+            return this;
+        }
+
+        /**
+         * Gets the value of the 'replied_to_id' field.
+         * 
+         * @return The value.
+         */
+        public java.lang.Long getRepliedToId() {
+            return replied_to_id;
+        }
+
+        /**
+         * Sets the value of the 'replied_to_id' field.
+         * 
+         * @param value
+         *            The value of 'replied_to_id'.
+         * 
+         * @return This builder.
+         */
+        public lol.memory.ts.avro.metadata.Status.Builder setRepliedToId(java.lang.Long value) {
+            validate(fields()[4], value);
+            this.replied_to_id = value;
+            fieldSetFlags()[4] = true;
+            return this;
+        }
+
+        /**
+         * Checks whether the 'replied_to_id' field has been set.
+         * 
+         * @return True if the 'replied_to_id' field has been set, false otherwise.
+         */
+        public boolean hasRepliedToId() {
+            return fieldSetFlags()[4];
+        }
+
+        /**
+         * Clears the value of the 'replied_to_id' field.
+         * 
+         * @return This builder.
+         */
+        public lol.memory.ts.avro.metadata.Status.Builder clearRepliedToId() {
+            replied_to_id = null;
+            fieldSetFlags()[4] = false;
+            return this;
+        }
+
+        /**
+         * Gets the value of the 'quoted_id' field.
+         * 
+         * @return The value.
+         */
+        public java.lang.Long getQuotedId() {
+            return quoted_id;
+        }
+
+        /**
+         * Sets the value of the 'quoted_id' field.
+         * 
+         * @param value
+         *            The value of 'quoted_id'.
+         * 
+         * @return This builder.
+         */
+        public lol.memory.ts.avro.metadata.Status.Builder setQuotedId(java.lang.Long value) {
+            validate(fields()[5], value);
+            this.quoted_id = value;
+            fieldSetFlags()[5] = true;
+            return this;
+        }
+
+        /**
+         * Checks whether the 'quoted_id' field has been set.
+         * 
+         * @return True if the 'quoted_id' field has been set, false otherwise.
+         */
+        public boolean hasQuotedId() {
+            return fieldSetFlags()[5];
+        }
+
+        /**
+         * Clears the value of the 'quoted_id' field.
+         * 
+         * @return This builder.
+         */
+        public lol.memory.ts.avro.metadata.Status.Builder clearQuotedId() {
+            quoted_id = null;
+            fieldSetFlags()[5] = false;
+            return this;
+        }
+
+        /**
+         * Gets the value of the 'retweeted_id' field.
+         * 
+         * @return The value.
+         */
+        public java.lang.Long getRetweetedId() {
+            return retweeted_id;
+        }
+
+        /**
+         * Sets the value of the 'retweeted_id' field.
+         * 
+         * @param value
+         *            The value of 'retweeted_id'.
+         * 
+         * @return This builder.
+         */
+        public lol.memory.ts.avro.metadata.Status.Builder setRetweetedId(java.lang.Long value) {
+            validate(fields()[6], value);
+            this.retweeted_id = value;
+            fieldSetFlags()[6] = true;
+            return this;
+        }
+
+        /**
+         * Checks whether the 'retweeted_id' field has been set.
+         * 
+         * @return True if the 'retweeted_id' field has been set, false otherwise.
+         */
+        public boolean hasRetweetedId() {
+            return fieldSetFlags()[6];
+        }
+
+        /**
+         * Clears the value of the 'retweeted_id' field.
+         * 
+         * @return This builder.
+         */
+        public lol.memory.ts.avro.metadata.Status.Builder clearRetweetedId() {
+            retweeted_id = null;
+            fieldSetFlags()[6] = false;
+            return this;
+        }
+
+        /**
+         * Gets the value of the 'mentioned_ids' field.
+         * 
+         * @return The value.
+         */
+        public java.util.List<java.lang.Long> getMentionedIds() {
+            return mentioned_ids;
+        }
+
+        /**
+         * Sets the value of the 'mentioned_ids' field.
+         * 
+         * @param value
+         *            The value of 'mentioned_ids'.
+         * 
+         * @return This builder.
+         */
+        public lol.memory.ts.avro.metadata.Status.Builder setMentionedIds(java.util.List<java.lang.Long> value) {
+            validate(fields()[7], value);
+            this.mentioned_ids = value;
+            fieldSetFlags()[7] = true;
+            return this;
+        }
+
+        /**
+         * Checks whether the 'mentioned_ids' field has been set.
+         * 
+         * @return True if the 'mentioned_ids' field has been set, false otherwise.
+         */
+        public boolean hasMentionedIds() {
+            return fieldSetFlags()[7];
+        }
+
+        /**
+         * Clears the value of the 'mentioned_ids' field.
+         * 
+         * @return This builder.
+         */
+        public lol.memory.ts.avro.metadata.Status.Builder clearMentionedIds() {
+            mentioned_ids = null;
+            fieldSetFlags()[7] = false;
+            return this;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Status build() {
+            try {
+                Status record = new Status();
+                record.status_id = fieldSetFlags()[0] ? this.status_id : (java.lang.Long) defaultValue(fields()[0]);
+                record.user_id = fieldSetFlags()[1] ? this.user_id : (java.lang.Long) defaultValue(fields()[1]);
+                record.full = fieldSetFlags()[2] ? this.full : (java.lang.Boolean) defaultValue(fields()[2]);
+                record.timestamp = fieldSetFlags()[3] ? this.timestamp : (java.time.Instant) defaultValue(fields()[3]);
+                record.replied_to_id = fieldSetFlags()[4] ? this.replied_to_id
+                        : (java.lang.Long) defaultValue(fields()[4]);
+                record.quoted_id = fieldSetFlags()[5] ? this.quoted_id : (java.lang.Long) defaultValue(fields()[5]);
+                record.retweeted_id = fieldSetFlags()[6] ? this.retweeted_id
+                        : (java.lang.Long) defaultValue(fields()[6]);
+                record.mentioned_ids = fieldSetFlags()[7] ? this.mentioned_ids
+                        : (java.util.List<java.lang.Long>) defaultValue(fields()[7]);
+                return record;
+            } catch (org.apache.avro.AvroMissingFieldException e) {
+                throw e;
+            } catch (java.lang.Exception e) {
+                throw new org.apache.avro.AvroRuntimeException(e);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static final org.apache.avro.io.DatumWriter<Status> WRITER$ = (org.apache.avro.io.DatumWriter<Status>) MODEL$
+            .createDatumWriter(SCHEMA$);
+
+    @Override
+    public void writeExternal(java.io.ObjectOutput out) throws java.io.IOException {
+        WRITER$.write(this, SpecificData.getEncoder(out));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static final org.apache.avro.io.DatumReader<Status> READER$ = (org.apache.avro.io.DatumReader<Status>) MODEL$
+            .createDatumReader(SCHEMA$);
+
+    @Override
+    public void readExternal(java.io.ObjectInput in) throws java.io.IOException {
+        READER$.read(this, SpecificData.getDecoder(in));
+    }
+
+}
@@ -1,40 +1,841 @@
 package lol.memory.ts.db;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import lol.memory.ts.metrics.PipelineMetrics;
+import lol.memory.ts.metrics.SlowInsertEvent;
+import lol.memory.ts.metrics.TransactionCommitEvent;
+import lombok.Value;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.BloomFilter;
+import org.rocksdb.Checkpoint;
+import org.rocksdb.LiveFileMetaData;
 import org.rocksdb.Options;
 import org.rocksdb.ReadOptions;
+import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
+import org.rocksdb.RocksIterator;
+import org.rocksdb.Statistics;
+import org.rocksdb.Status;
 import org.rocksdb.Transaction;
 import org.rocksdb.TransactionDB;
 import org.rocksdb.TransactionDBOptions;
+import org.rocksdb.WriteBatch;
 import org.rocksdb.WriteOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-public final class Database {
+public final class Database implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(Database.class);
     private static final Options options = new Options();
+    private static final Options secondaryOptions = new Options();
     private static final ReadOptions readOptions = new ReadOptions();
     private static final WriteOptions writeOptions = new WriteOptions();
     private static final TransactionDBOptions transactionOptions = new TransactionDBOptions();
-    private final TransactionDB db;
+    private static final String CHECKPOINT_PREFIX = "checkpoint-";
+    private static final String LATEST_CHECKPOINT = "LATEST";
+    private static final String CHECKPOINT_LOCKS = "locks";
+    private final RocksDB db;
+    private final Optional<TransactionDB> transactionDb;
+    private final DatabaseOptions databaseOptions;
+    private final Optional<ScheduledExecutorService> checkpointScheduler;
+    private final Optional<ScheduledExecutorService> catchUpScheduler;
+    private final Optional<ScheduledExecutorService> statisticsScheduler;
+    private final Optional<Options> instanceOptions;
+    private final Optional<DatabaseStatistics> statistics;
+    private final Optional<GroupCommitWriter> groupCommitWriter;
+    private final Optional<StripedLocks> locks;
+    private final LongAdder writeErrors = new LongAdder();
+    private final Optional<SettledEntryCache> entryCache;
+    private final boolean isWritable;
+    private final AtomicReference<CatchUpStatus> catchUpStatus = new AtomicReference<>();
+    private Optional<FileChannel> checkpointLock = Optional.empty();
 
     static {
         Database.options.setCreateIfMissing(true);
+        // Most inserts are for new keys, so a Bloom filter lets their reads skip the data blocks. Format version 5 uses
+        // the cache-local filter implementation.
+        Database.options.setTableFormatConfig(
+                new BlockBasedTableConfig().setFilterPolicy(new BloomFilter(10, false)).setFormatVersion(5));
+        Database.secondaryOptions.setTableFormatConfig(
+                new BlockBasedTableConfig().setFilterPolicy(new BloomFilter(10, false)).setFormatVersion(5));
+        // Secondary instances must keep all files open so that they can follow the primary's compactions.
+        Database.secondaryOptions.setMaxOpenFiles(-1);
+    }
+
+    /**
+     * The state of a secondary instance's view of its primary.
+     *
+     * <p>
+     * This reports the time since the last successful catch-up, which bounds how far behind the primary the view is,
+     * not the number of sequence numbers by which it trails the primary (which a secondary instance can't observe).
+     */
+    @Value
+    public static class CatchUpStatus {
+        private Instant lastCatchUp;
+        private Duration lastCatchUpDuration;
+        private long sequenceNumber;
+        private long catchUpCount;
+        private long consecutiveFailures;
+        private Duration timeSinceCatchUp;
+        private boolean stale;
+    }
+
+    /**
+     * The number of entries checked against the settled entry cache, and the number skipped without a read.
+     */
+    @Value
+    public static class EntryCacheCounts {
+        private long lookupCount;
+        private long hitCount;
     }
 
     public Database(String path) throws RocksDBException {
-        this.db = TransactionDB.open(Database.options, Database.transactionOptions, path);
+        this(path, DatabaseOptions.defaults());
+    }
+
+    public Database(String path, DatabaseOptions databaseOptions) throws RocksDBException {
+        // The name is checked before anything is opened, so that an invalid name doesn't leave anything open.
+        Optional<ObjectName> statisticsName;
+        try {
+            statisticsName = databaseOptions.getStatisticsInterval().isPresent()
+                    ? Optional.of(DatabaseStatistics.objectName(path)) : Optional.empty();
+        } catch (JMException error) {
+            throw new IllegalArgumentException("Invalid database path for statistics: " + path, error);
+        }
+
+        // Statistics are attached to the options, so instances that collect them need their own copy.
+        this.instanceOptions = databaseOptions.getStatisticsInterval().map(interval -> {
+            var instanceOptions = new Options(Database.options);
+            instanceOptions.setStatistics(new Statistics());
+            return instanceOptions;
+        });
+        try {
+            if (databaseOptions.getWriteMode() == DatabaseOptions.WriteMode.STRIPED) {
+                // Writers lock keys in-process, so the database doesn't need transaction support.
+                this.db = RocksDB.open(this.instanceOptions.orElse(Database.options), path);
+                this.transactionDb = Optional.empty();
+                this.locks = Optional.of(new StripedLocks(databaseOptions.getLockStripes()));
+            } else {
+                var transactionDb = TransactionDB.open(this.instanceOptions.orElse(Database.options),
+                        Database.transactionOptions, path);
+                this.db = transactionDb;
+                this.transactionDb = Optional.of(transactionDb);
+                this.locks = Optional.empty();
+            }
+        } catch (RocksDBException error) {
+            this.instanceOptions.ifPresent(Database::closeInstanceOptions);
+            throw error;
+        }
+        this.isWritable = true;
+        this.entryCache = (databaseOptions.getEntryCacheSize() > 0)
+                ? Optional.of(new SettledEntryCache(databaseOptions.getEntryCacheSize())) : Optional.empty();
+        this.databaseOptions = databaseOptions;
+        this.checkpointScheduler = databaseOptions.getCheckpointDirectory()
+                .flatMap(directory -> databaseOptions.getCheckpointInterval()).map(interval -> {
+                    var scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                        var thread = new Thread(runnable, "checkpoints");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    scheduler.scheduleWithFixedDelay(this::checkpoint, interval.toMillis(), interval.toMillis(),
+                            TimeUnit.MILLISECONDS);
+                    return scheduler;
+                });
+        this.catchUpScheduler = Optional.empty();
+
+        this.statistics = statisticsName
+                .map(name -> new DatabaseStatistics(this, this.instanceOptions.get().statistics(), name));
+        this.statisticsScheduler = this.statistics.map(statistics -> {
+            var interval = databaseOptions.getStatisticsInterval().get().toMillis();
+            var scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                var thread = new Thread(runnable, "statistics");
+                thread.setDaemon(true);
+                return thread;
+            });
+            statistics.register();
+            scheduler.scheduleAtFixedRate(statistics::sampleAndLog, interval, interval, TimeUnit.MILLISECONDS);
+            return scheduler;
+        });
+        this.groupCommitWriter = (databaseOptions.getWriteMode() == DatabaseOptions.WriteMode.GROUP_COMMIT)
+                ? Optional.of(new GroupCommitWriter(this, databaseOptions.getGroupCommitMaxBatch(),
+                        databaseOptions.getGroupCommitMaxLatency(), databaseOptions.getGroupCommitQueueCapacity()))
+                : Optional.empty();
+    }
+
+    private Database(RocksDB db, DatabaseOptions databaseOptions, boolean isSecondary) {
+        this.db = db;
+        this.transactionDb = Optional.empty();
+        this.databaseOptions = databaseOptions;
+        this.checkpointScheduler = Optional.empty();
+        this.statisticsScheduler = Optional.empty();
+        this.instanceOptions = Optional.empty();
+        this.statistics = Optional.empty();
+        this.groupCommitWriter = Optional.empty();
+        this.locks = Optional.empty();
+        this.isWritable = false;
+        this.entryCache = Optional.empty();
+
+        if (isSecondary) {
+            var interval = databaseOptions.getCatchUpInterval().toMillis();
+            var scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                var thread = new Thread(runnable, "catch-up");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.catchUpStatus.set(new CatchUpStatus(Instant.now(), Duration.ZERO, db.getLatestSequenceNumber(), 0, 0,
+                    Duration.ZERO, false));
+            scheduler.scheduleWithFixedDelay(this::catchUp, interval, interval, TimeUnit.MILLISECONDS);
+            this.catchUpScheduler = Optional.of(scheduler);
+        } else {
+            this.catchUpScheduler = Optional.empty();
+        }
+    }
+
+    /**
+     * Open a database for reading only (this does not conflict with a writer holding the same database).
+     */
+    public static Database openReadOnly(String path) throws RocksDBException {
+        return new Database(RocksDB.openReadOnly(path), DatabaseOptions.defaults(), false);
+    }
+
+    /**
+     * Open a read-only secondary instance that follows a primary database as it is written.
+     *
+     * <p>
+     * The secondary path is a directory for the instance's own logs. New writes become visible every time the instance
+     * catches up with the primary (see {@link DatabaseOptions#getCatchUpInterval()}). If catching up fails or falls
+     * behind, reads continue to see the last consistent view, and the status reports the instance as stale once the
+     * time since the last successful catch-up exceeds the configured maximum.
+     */
+    public static Database openSecondary(String primaryPath, String secondaryPath, DatabaseOptions databaseOptions)
+            throws RocksDBException {
+        return new Database(RocksDB.openAsSecondary(Database.secondaryOptions, primaryPath, secondaryPath),
+                databaseOptions, true);
+    }
+
+    /**
+     * Open the most recent complete checkpoint in a checkpoint directory for reading.
+     *
+     * <p>
+     * The instance holds a shared lock on the checkpoint until it is closed, so that the writer won't delete the
+     * checkpoint while it is being read (checkpoints opened in any other way are not protected). If the latest
+     * checkpoint has been deleted without a newer one replacing it, a {@link NoSuchFileException} is thrown.
+     */
+    public static Database openLatestCheckpoint(Path checkpointDirectory) throws IOException, RocksDBException {
+        var latestPath = checkpointDirectory.resolve(LATEST_CHECKPOINT);
+        var name = Files.readString(latestPath, StandardCharsets.UTF_8).trim();
+
+        while (true) {
+            var path = checkpointDirectory.resolve(name);
+            var lock = Database.openCheckpointLock(checkpointDirectory, name);
+
+            try {
+                lock.lock(0, Long.MAX_VALUE, true);
+
+                // The writer only deletes a checkpoint while holding the exclusive lock, so if it still exists it's
+                // safe until the lock is released.
+                if (Files.isDirectory(path)) {
+                    var result = Database.openReadOnly(path.toString());
+                    result.checkpointLock = Optional.of(lock);
+                    return result;
+                }
+            } catch (IOException | RocksDBException | RuntimeException error) {
+                lock.close();
+                throw error;
+            }
+
+            lock.close();
+
+            // The checkpoint was pruned after we read its name, so try again only if there's a newer one.
+            var latest = Files.readString(latestPath, StandardCharsets.UTF_8).trim();
+            if (latest.equals(name)) {
+                throw new NoSuchFileException(path.toString(), null,
+                        String.format("Latest checkpoint %s no longer exists", name));
+            }
+            name = latest;
+        }
+    }
+
+    private static void closeInstanceOptions(Options instanceOptions) {
+        instanceOptions.statistics().close();
+        instanceOptions.close();
+    }
+
+    private static FileChannel openCheckpointLock(Path checkpointDirectory, String name) throws IOException {
+        var locks = checkpointDirectory.resolve(CHECKPOINT_LOCKS);
+        Files.createDirectories(locks);
+        return FileChannel.open(locks.resolve(name), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+    }
+
+    public DatabaseOptions getOptions() {
+        return this.databaseOptions;
+    }
+
+    /**
+     * RocksDB statistics (only present for writable instances with a statistics interval).
+     */
+    public Optional<DatabaseStatistics> getStatistics() {
+        return this.statistics;
+    }
+
+    /**
+     * The catch-up status (only present for secondary instances), with the time since the last catch-up computed as of
+     * now.
+     */
+    public Optional<CatchUpStatus> getCatchUpStatus() {
+        return Optional.ofNullable(this.catchUpStatus.get()).map(status -> {
+            var timeSinceCatchUp = Duration.between(status.getLastCatchUp(), Instant.now());
+            return new CatchUpStatus(status.getLastCatchUp(), status.getLastCatchUpDuration(),
+                    status.getSequenceNumber(), status.getCatchUpCount(), status.getConsecutiveFailures(),
+                    timeSinceCatchUp, timeSinceCatchUp.compareTo(this.databaseOptions.getMaxCatchUpLag()) > 0);
+        });
+    }
+
+    /**
+     * Try to catch up with the primary (this is called on a schedule for secondary instances), returning whether it
+     * succeeded.
+     */
+    public synchronized boolean catchUp() {
+        var previous = this.catchUpStatus.get();
+
+        if (previous == null) {
+            return false;
+        }
+
+        var startTime = System.nanoTime();
+        try {
+            this.db.tryCatchUpWithPrimary();
+            var duration = Duration.ofNanos(System.nanoTime() - startTime);
+            var sequenceNumber = this.db.getLatestSequenceNumber();
+
+            if (previous.isStale() || previous.getConsecutiveFailures() > 0) {
+                Database.logger.info("Secondary instance caught up after {} failures (sequence number {})",
+                        previous.getConsecutiveFailures(), sequenceNumber);
+            }
+            this.catchUpStatus.set(new CatchUpStatus(Instant.now(), duration, sequenceNumber,
+                    previous.getCatchUpCount() + 1, 0, Duration.ZERO, false));
+            return true;
+        } catch (RocksDBException error) {
+            var status = this.getCatchUpStatus().get();
+
+            if (status.isStale() && !previous.isStale()) {
+                Database.logger.warn("Secondary instance is stale (last caught up at {})", status.getLastCatchUp());
+            }
+            Database.logger.error("Error catching up with primary: {}", error.getMessage());
+            this.catchUpStatus.set(new CatchUpStatus(status.getLastCatchUp(), status.getLastCatchUpDuration(),
+                    status.getSequenceNumber(), status.getCatchUpCount(), status.getConsecutiveFailures() + 1,
+                    status.getTimeSinceCatchUp(), status.isStale()));
+            return false;
+        }
+    }
+
+    /**
+     * Take a checkpoint if a checkpoint directory is configured, returning its location.
+     *
+     * <p>
+     * Checkpoints hard-link the database's SST files, so they are cheap to create. Once the checkpoint is complete it
+     * is recorded as the latest, and checkpoints beyond the configured number to retain are deleted, except for any
+     * that are still open by readers that used {@link #openLatestCheckpoint(Path)}, which are deleted by a later
+     * checkpoint once they are closed. Checkpoints opened in any other way may be deleted while they are being read.
+     */
+    public synchronized Optional<Path> checkpoint() {
+        var maybeDirectory = this.databaseOptions.getCheckpointDirectory();
+
+        if (maybeDirectory.isEmpty()) {
+            return Optional.empty();
+        }
+
+        var directory = maybeDirectory.get();
+        var name = String.format("%s%013d", CHECKPOINT_PREFIX, System.currentTimeMillis());
+        var path = directory.resolve(name);
+
+        try (var checkpoint = Checkpoint.create(this.db)) {
+            Files.createDirectories(directory);
+            if (Files.exists(path)) {
+                return Optional.of(path);
+            }
+            checkpoint.createCheckpoint(path.toString());
+
+            var latestTmp = directory.resolve(LATEST_CHECKPOINT + ".tmp");
+            Files.writeString(latestTmp, name, StandardCharsets.UTF_8);
+            Files.move(latestTmp, directory.resolve(LATEST_CHECKPOINT), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+
+            this.pruneCheckpoints(directory);
+            Database.logger.info("Created checkpoint {}", path);
+            return Optional.of(path);
+        } catch (IOException | RocksDBException error) {
+            Database.logger.error("Error creating checkpoint ({}): {}", path, error.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    private void pruneCheckpoints(Path directory) throws IOException {
+        List<Path> checkpoints;
+        try (var paths = Files.list(directory)) {
+            checkpoints = paths.filter(path -> path.getFileName().toString().startsWith(CHECKPOINT_PREFIX)).sorted()
+                    .collect(Collectors.toList());
+        }
+
+        var retained = Math.max(1, this.databaseOptions.getRetainedCheckpoints());
+        for (int i = 0; i < checkpoints.size() - retained; i += 1) {
+            var name = checkpoints.get(i).getFileName().toString();
+
+            try (var lock = Database.openCheckpointLock(directory, name)) {
+                if (!Database.tryLock(lock)) {
+                    Database.logger.info("Keeping checkpoint {} while it is open", checkpoints.get(i));
+                    continue;
+                }
+
+                try (var paths = Files.walk(checkpoints.get(i))) {
+                    for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                        Files.delete(path);
+                    }
+                }
+                Files.delete(directory.resolve(CHECKPOINT_LOCKS).resolve(name));
+            }
+        }
+    }
+
+    /**
+     * Try to take an exclusive lock, which fails if a reader in this or any other process holds a shared lock.
+     */
+    private static boolean tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock() != null;
+        } catch (OverlappingFileLockException error) {
+            return false;
+        }
+    }
+
+    public DatabaseOptions.WriteMode getWriteMode() {
+        return this.databaseOptions.getWriteMode();
     }
 
     public Transaction beginTransaction() {
-        return this.db.beginTransaction(Database.writeOptions);
+        return this.transactionDb
+                .orElseThrow(() -> new IllegalStateException(
+                        this.isWritable ? "Database was opened without transactions" : "Database is read-only"))
+                .beginTransaction(Database.writeOptions);
+    }
+
+    /**
+     * Update the value for an entry's key, returning whether anything was written.
+     */
+    public boolean insert(Transaction tx, Entry entry) throws RocksDBException {
+        var event = new SlowInsertEvent();
+        event.begin();
+        var written = this.insertEntry(tx, entry);
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.entryType = entry.getClass().getSimpleName();
+            event.keyTag = entry.getKey()[0];
+            event.keyLength = entry.getKey().length;
+            event.written = written;
+            event.commit();
+        }
+        return written;
+    }
+
+    /**
+     * Insert every entry in a batch, reading and writing each distinct key once, and returning the actions to be run
+     * once the transaction is committed (for the entries that changed their values, and for recording settled entries
+     * in the cache).
+     */
+    public List<Runnable> insert(Transaction tx, EntryBatch batch) throws RocksDBException {
+        // Transactions don't support direct buffers, so values are read as arrays.
+        return batch.apply(key -> {
+            var value = tx.get(Database.readOptions, key);
+            return (value == null) ? null : ByteBuffer.wrap(value);
+        }, tx::put, this.entryCache);
+    }
+
+    /**
+     * Queue a batch for the group commit writer (its actions are run on the writer's thread once it is written).
+     */
+    public void submit(EntryBatch batch) {
+        this.groupCommitWriter.orElseThrow(() -> new IllegalStateException("Database is not in group commit mode"))
+                .submit(batch);
+    }
+
+    /**
+     * Wait until all batches submitted so far have been written (this does nothing outside group commit mode).
+     */
+    public void awaitWrites() {
+        this.groupCommitWriter.ifPresent(GroupCommitWriter::awaitWrites);
     }
 
-    public void insert(Transaction tx, Entry entry) throws RocksDBException {
+    /**
+     * Write a batch atomically while holding the locks for its keys (in striped mode), returning the actions for the
+     * entries that changed their values (to be run by the caller).
+     */
+    public List<Runnable> insert(EntryBatch batch) throws RocksDBException {
+        return this.withLocks(batch.keys(), () -> this.insertUnlocked(batch));
+    }
+
+    /**
+     * An action that reads and writes keys while their locks are held.
+     */
+    interface LockedAction<T> {
+        T run() throws RocksDBException;
+    }
+
+    /**
+     * Run an action while holding the locks for a set of keys (in striped mode).
+     *
+     * <p>
+     * The keys only identify locks, so a caller can guard a group of related keys with a single representative key. The
+     * action must not take any other locks.
+     */
+    <T> T withLocks(Collection<byte[]> keys, LockedAction<T> action) throws RocksDBException {
+        var locks = this.locks.orElseThrow(() -> new IllegalStateException("Database is not in striped mode"));
+        var stripes = locks.stripes(keys);
+
+        locks.lock(stripes);
+        try {
+            return action.run();
+        } finally {
+            locks.unlock(stripes);
+        }
+    }
+
+    /**
+     * Read each key in a batch once, and write the combined results in one atomic write, without taking any locks (the
+     * caller must hold the locks for the keys or be the only writer).
+     */
+    List<Runnable> insertUnlocked(EntryBatch batch) throws RocksDBException {
+        try (var writeBatch = new WriteBatch()) {
+            var actions = batch.apply(this::readValue, writeBatch::put, this.entryCache);
+
+            if (writeBatch.count() > 0) {
+                var start = PipelineMetrics.start();
+                this.db.write(Database.writeOptions, writeBatch);
+                PipelineMetrics.record(PipelineMetrics.Stage.COMMIT, start);
+            }
+            return actions;
+        }
+    }
+
+    /**
+     * Read a value through this thread's direct buffers (null if there is no value), returning a buffer that is only
+     * valid until the next read on this thread.
+     */
+    ByteBuffer readValue(byte[] key) throws RocksDBException {
+        var buffers = DirectBuffers.get();
+        var keyBuffer = buffers.key(key);
+        var value = buffers.value(0);
+        var size = this.db.get(Database.readOptions, keyBuffer, value);
+
+        if (size == RocksDB.NOT_FOUND) {
+            return null;
+        } else if (size > value.capacity()) {
+            // The value was truncated, so read it again with a buffer that is large enough.
+            keyBuffer.rewind();
+            value = buffers.value(size);
+            this.db.get(Database.readOptions, keyBuffer, value);
+        }
+        return value;
+    }
+
+    /**
+     * Insert a single entry (settled entries are skipped, but since there's no way to know when the transaction is
+     * committed, new settled values are not recorded in the cache).
+     */
+    private boolean insertEntry(Transaction tx, Entry entry) throws RocksDBException {
+        var fingerprint = entry.getFingerprint();
+
+        if (fingerprint != 0 && this.entryCache.isPresent() && this.entryCache.get().contains(fingerprint)) {
+            return false;
+        }
+
         var key = entry.getKey();
+        var getStart = PipelineMetrics.start();
         var previousValue = Optional.ofNullable(tx.get(this.readOptions, key));
+        PipelineMetrics.record(PipelineMetrics.Stage.DB_GET, getStart);
+
+        var updateStart = PipelineMetrics.start();
         var newValue = entry.updateValue(previousValue);
+        PipelineMetrics.record(PipelineMetrics.Stage.ENTRY_CONSTRUCTION, updateStart);
 
         if (newValue.isPresent()) {
+            var putStart = PipelineMetrics.start();
             tx.put(key, newValue.get());
+            PipelineMetrics.record(PipelineMetrics.Stage.DB_PUT, putStart);
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Count a record that an importer failed to write.
+     */
+    public void countWriteError() {
+        this.writeErrors.increment();
+    }
+
+    /**
+     * The number of records that importers have failed to write to this database since it was opened.
+     */
+    public long getWriteErrorCount() {
+        return this.writeErrors.sum();
+    }
+
+    /**
+     * Counts for the settled entry cache (empty if there is no cache).
+     */
+    public Optional<EntryCacheCounts> getEntryCacheCounts() {
+        return this.entryCache.map(cache -> new EntryCacheCounts(cache.getLookupCount(), cache.getHitCount()));
+    }
+
+    public void commit(Transaction tx) throws RocksDBException {
+        var event = new TransactionCommitEvent();
+        var start = PipelineMetrics.start();
+        event.begin();
+
+        try {
+            tx.commit();
+            event.committed = true;
+            event.status = "Ok";
+        } catch (RocksDBException error) {
+            if (event.isEnabled()) {
+                var status = Optional.ofNullable(error.getStatus()).map(Status::getCode);
+                event.conflict = status.filter(code -> code == Status.Code.Busy || code == Status.Code.TryAgain)
+                        .isPresent();
+                event.status = status.map(Status.Code::name).orElse(error.getMessage());
+            }
+            throw error;
+        } finally {
+            event.end();
+            PipelineMetrics.record(PipelineMetrics.Stage.COMMIT, start);
+            if (event.shouldCommit()) {
+                event.commit();
+            }
+        }
+    }
+
+    public boolean contains(Transaction tx, byte[] key) throws RocksDBException {
+        return tx.get(Database.readOptions, key) != null;
+    }
+
+    public boolean contains(byte[] key) throws RocksDBException {
+        return this.db.get(Database.readOptions, key) != null;
+    }
+
+    /**
+     * Find the pair with the greatest key less than the given key that shares its first bytes (reading through the
+     * transaction, so that its own writes are visible).
+     */
+    public Optional<Map.Entry<byte[], byte[]>> findPreceding(Transaction tx, byte[] key, int prefixLength) {
+        try (var iterator = tx.getIterator(Database.readOptions)) {
+            return Database.findPreceding(iterator, key, prefixLength);
+        }
+    }
+
+    /**
+     * Find the pair with the greatest key less than the given key that shares its first bytes.
+     */
+    public Optional<Map.Entry<byte[], byte[]>> findPreceding(byte[] key, int prefixLength) {
+        try (var iterator = this.db.newIterator(Database.readOptions)) {
+            return Database.findPreceding(iterator, key, prefixLength);
+        }
+    }
+
+    private static Optional<Map.Entry<byte[], byte[]>> findPreceding(RocksIterator iterator, byte[] key,
+            int prefixLength) {
+        iterator.seekForPrev(key);
+        if (iterator.isValid() && Arrays.equals(iterator.key(), key)) {
+            iterator.prev();
+        }
+        if (iterator.isValid()) {
+            var precedingKey = iterator.key();
+            if (precedingKey.length >= prefixLength
+                    && Arrays.equals(precedingKey, 0, prefixLength, key, 0, prefixLength)) {
+                return Optional.of(new AbstractMap.SimpleImmutableEntry<>(precedingKey, iterator.value()));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * The sequence number of the most recent write (for a secondary instance, as of the last catch-up).
+     */
+    public long getLatestSequenceNumber() {
+        return this.db.getLatestSequenceNumber();
+    }
+
+    /**
+     * Read a RocksDB property with an integer value (empty if the property is not supported).
+     */
+    public Optional<Long> getLongProperty(String name) {
+        try {
+            return Optional.of(this.db.getLongProperty(name));
+        } catch (RocksDBException error) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Read a RocksDB property with a map value, such as {@code rocksdb.cfstats} (empty if it is not supported).
+     */
+    public Map<String, String> getMapProperty(String name) {
+        try {
+            return this.db.getMapProperty(name);
+        } catch (RocksDBException error) {
+            return Map.of();
+        }
+    }
+
+    public Optional<byte[]> get(byte[] key) throws RocksDBException {
+        return Optional.ofNullable(this.db.get(Database.readOptions, key));
+    }
+
+    /**
+     * Look up many keys at once, returning the values in the same order (with nulls for missing keys).
+     */
+    public List<byte[]> multiGet(List<byte[]> keys) throws RocksDBException {
+        return this.db.multiGetAsList(Database.readOptions, keys);
+    }
+
+    /**
+     * Visit every pair with a key in the given range (lower bound inclusive, upper bound exclusive), stopping early if
+     * the action returns false.
+     */
+    public void scan(byte[] lowerBound, byte[] upperBound, BiPredicate<byte[], byte[]> action) {
+        try (var iterator = this.db.newIterator(Database.readOptions)) {
+            iterator.seek(lowerBound);
+            while (iterator.isValid()) {
+                var key = iterator.key();
+                if (Arrays.compareUnsigned(key, upperBound) >= 0 || !action.test(key, iterator.value())) {
+                    break;
+                }
+                iterator.next();
+            }
+        }
+    }
+
+    /**
+     * Split a key range into at most n contiguous ranges of roughly equal size, using the boundaries of the database's
+     * SST files (the returned list contains the lower bound, any split points, and the upper bound).
+     */
+    public List<byte[]> splitRange(byte[] lowerBound, byte[] upperBound, int n) {
+        var candidates = new ArrayList<byte[]>();
+        for (LiveFileMetaData file : this.db.getLiveFilesMetaData()) {
+            var key = file.smallestKey();
+            if (Arrays.compareUnsigned(key, lowerBound) > 0 && Arrays.compareUnsigned(key, upperBound) < 0) {
+                candidates.add(key);
+            }
+        }
+        candidates.sort(Arrays::compareUnsigned);
+
+        var result = new ArrayList<byte[]>(n + 1);
+        result.add(lowerBound);
+        for (int i = 1; i < n; i += 1) {
+            var index = (int) ((long) i * candidates.size() / n);
+            if (index < candidates.size()) {
+                var key = candidates.get(index);
+                if (Arrays.compareUnsigned(key, result.get(result.size() - 1)) > 0) {
+                    result.add(key);
+                }
+            }
+        }
+        result.add(upperBound);
+        return result;
+    }
+
+    /**
+     * Scan a key range in parallel, with a new visitor for each sub-range, returning the visitors in key order.
+     */
+    public <V extends BiPredicate<byte[], byte[]>> List<V> scanParallel(byte[] lowerBound, byte[] upperBound,
+            int numThreads, Supplier<V> newVisitor) {
+        var bounds = this.splitRange(lowerBound, upperBound, numThreads * 4);
+        var pool = Executors.newFixedThreadPool(numThreads);
+        var futures = new ArrayList<Future<V>>(bounds.size() - 1);
+
+        for (int i = 0; i < bounds.size() - 1; i += 1) {
+            var lower = bounds.get(i);
+            var upper = bounds.get(i + 1);
+            futures.add(pool.submit(() -> {
+                var visitor = newVisitor.get();
+                this.scan(lower, upper, visitor);
+                return visitor;
+            }));
+        }
+        pool.shutdown();
+
+        var result = new ArrayList<V>(futures.size());
+        try {
+            for (Future<V> future : futures) {
+                result.add(future.get());
+            }
+        } catch (InterruptedException | ExecutionException error) {
+            pool.shutdownNow();
+            throw new IllegalStateException("Parallel scan failed", error);
+        }
+        return result;
+    }
+
+    public void close() {
+        this.groupCommitWriter.ifPresent(GroupCommitWriter::close);
+        for (Optional<ScheduledExecutorService> scheduler : List.of(this.catchUpScheduler, this.checkpointScheduler,
+                this.statisticsScheduler)) {
+            scheduler.ifPresent(ScheduledExecutorService::shutdown);
+            try {
+                if (scheduler.isPresent()) {
+                    scheduler.get().awaitTermination(1, TimeUnit.MINUTES);
+                }
+            } catch (InterruptedException error) {
+                Database.logger.error("Error waiting for scheduled tasks: {}", error.getMessage());
+            }
+        }
+        if (this.isWritable) {
+            this.checkpoint();
         }
+        this.statistics.ifPresent(statistics -> {
+            statistics.sampleAndLog();
+            statistics.unregister();
+        });
+        this.db.close();
+        this.instanceOptions.ifPresent(Database::closeInstanceOptions);
+        this.checkpointLock.ifPresent(lock -> {
+            try {
+                lock.close();
+            } catch (IOException error) {
+                Database.logger.error("Error releasing checkpoint lock: {}", error.getMessage());
+            }
+        });
     }
 }
@@ -0,0 +1,156 @@
+package lol.memory.ts.db;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Operational settings for a database (the defaults match the original behavior).
+ */
+@Value
+@Builder(toBuilder = true)
+public class DatabaseOptions {
+    private static final String PREFIX = "lol.memory.ts.db.";
+
+    /**
+     * How importers write to the database.
+     *
+     * <p>
+     * In transaction mode every record is written by the thread that decoded it in its own transaction. In group commit
+     * mode records are queued for a single writer thread that combines them into larger atomic writes. In striped mode
+     * the database is opened without transaction support, and each record is written atomically by the thread that
+     * decoded it while holding in-process locks for its keys (so there are no conflicts or lock timeouts).
+     */
+    public enum WriteMode {
+        TRANSACTION, GROUP_COMMIT, STRIPED
+    }
+
+    /**
+     * Directory for live checkpoints (none are taken if this is empty).
+     */
+    @Builder.Default
+    private Optional<Path> checkpointDirectory = Optional.empty();
+
+    /**
+     * Time between scheduled checkpoints (if empty, checkpoints are only taken on request and on close).
+     */
+    @Builder.Default
+    private Optional<Duration> checkpointInterval = Optional.empty();
+
+    /**
+     * Whether importers should take a checkpoint after each archive entry is finished.
+     */
+    @Builder.Default
+    private boolean checkpointAfterEntry = false;
+
+    /**
+     * Number of checkpoints to keep (older checkpoints are deleted).
+     */
+    @Builder.Default
+    private int retainedCheckpoints = 2;
+
+    /**
+     * Time between attempts by a secondary instance to catch up with its primary.
+     */
+    @Builder.Default
+    private Duration catchUpInterval = Duration.ofSeconds(1);
+
+    /**
+     * Time since the last successful catch-up after which a secondary instance is considered stale.
+     */
+    @Builder.Default
+    private Duration maxCatchUpLag = Duration.ofSeconds(30);
+
+    /**
+     * Time between samples of RocksDB statistics, which are logged and published through JMX (statistics are not
+     * collected if this is empty).
+     */
+    @Builder.Default
+    private Optional<Duration> statisticsInterval = Optional.empty();
+
+    @Builder.Default
+    private WriteMode writeMode = WriteMode.TRANSACTION;
+
+    /**
+     * Maximum number of records in a group commit (groups grow to this size while the writer has a backlog).
+     */
+    @Builder.Default
+    private int groupCommitMaxBatch = 4096;
+
+    /**
+     * Maximum time the group commit writer spends collecting records before writing them.
+     */
+    @Builder.Default
+    private Duration groupCommitMaxLatency = Duration.ofMillis(10);
+
+    /**
+     * Maximum number of records waiting for the group commit writer (submitting threads wait when it is full).
+     */
+    @Builder.Default
+    private int groupCommitQueueCapacity = 65536;
+
+    /**
+     * Number of locks shared by all keys in striped mode (rounded up to a power of two).
+     */
+    @Builder.Default
+    private int lockStripes = 4096;
+
+    /**
+     * Number of slots in the cache of entries known to have no further effect, such as statuses that are already stored
+     * in full or screen names already recorded for a user (eight bytes each, rounded up to a power of two; zero
+     * disables the cache).
+     */
+    @Builder.Default
+    private int entryCacheSize = 1 << 20;
+
+    public static DatabaseOptions defaults() {
+        return DatabaseOptions.builder().build();
+    }
+
+    /**
+     * Read options from system properties (for example {@code -Dlol.memory.ts.db.checkpoint.directory=...}).
+     */
+    public static DatabaseOptions fromSystemProperties() {
+        return DatabaseOptions.fromProperties(name -> Optional.ofNullable(System.getProperty(PREFIX + name)));
+    }
+
+    /**
+     * Read options from a map using the same names as the system properties, without the prefix (for example
+     * {@code checkpoint.directory}).
+     */
+    public static DatabaseOptions fromSettings(Map<String, String> settings) {
+        return DatabaseOptions.fromProperties(name -> Optional.ofNullable(settings.get(name)));
+    }
+
+    private static DatabaseOptions fromProperties(Function<String, Optional<String>> property) {
+        var builder = DatabaseOptions.builder();
+
+        property.apply("checkpoint.directory").map(Path::of)
+                .ifPresent(value -> builder.checkpointDirectory(Optional.of(value)));
+        property.apply("checkpoint.interval").map(value -> Duration.ofSeconds(Long.parseLong(value)))
+                .ifPresent(value -> builder.checkpointInterval(Optional.of(value)));
+        property.apply("checkpoint.after-entry").map(Boolean::parseBoolean).ifPresent(builder::checkpointAfterEntry);
+        property.apply("checkpoint.retained").map(Integer::parseInt).ifPresent(builder::retainedCheckpoints);
+        property.apply("catch-up.interval").map(value -> Duration.ofMillis(Long.parseLong(value)))
+                .ifPresent(builder::catchUpInterval);
+        property.apply("catch-up.max-lag").map(value -> Duration.ofSeconds(Long.parseLong(value)))
+                .ifPresent(builder::maxCatchUpLag);
+        property.apply("statistics.interval").map(value -> Duration.ofSeconds(Long.parseLong(value)))
+                .ifPresent(value -> builder.statisticsInterval(Optional.of(value)));
+        property.apply("write.mode").map(value -> WriteMode.valueOf(value.trim().toUpperCase().replace('-', '_')))
+                .ifPresent(builder::writeMode);
+        property.apply("group-commit.max-batch").map(Integer::parseInt).ifPresent(builder::groupCommitMaxBatch);
+        property.apply("group-commit.max-latency").map(value -> Duration.ofMillis(Long.parseLong(value)))
+                .ifPresent(builder::groupCommitMaxLatency);
+        property.apply("group-commit.queue-capacity").map(Integer::parseInt)
+                .ifPresent(builder::groupCommitQueueCapacity);
+        property.apply("entry-cache.size").map(Integer::parseInt).ifPresent(builder::entryCacheSize);
+        property.apply("striped.lock-stripes").map(Integer::parseInt).ifPresent(builder::lockStripes);
+
+        return builder.build();
+    }
+}
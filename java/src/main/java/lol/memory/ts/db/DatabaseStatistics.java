@@ -0,0 +1,186 @@
+package lol.memory.ts.db;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import lombok.Value;
+import org.rocksdb.Statistics;
+import org.rocksdb.TickerType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Periodic samples of RocksDB statistics and properties for a database, published through JMX.
+ *
+ * <p>
+ * The counters (stall time, keys and bytes written, and block cache hits and misses) are cumulative since the database
+ * was opened, while the properties (pending compaction bytes, memtable sizes, and so on) are current as of the sample.
+ * Samples are taken by the database on the schedule given by {@link DatabaseOptions#getStatisticsInterval()}.
+ */
+public final class DatabaseStatistics implements DatabaseStatisticsMXBean {
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseStatistics.class);
+    private final Database db;
+    private final Statistics statistics;
+    private final ObjectName objectName;
+    private final AtomicReference<Sample> latest = new AtomicReference<>();
+
+    @Value
+    public static class Sample {
+        private long sampleTimeMillis;
+        private long pendingCompactionBytes;
+        private long memtableBytes;
+        private long immutableMemtableCount;
+        private long level0FileCount;
+        private long runningCompactions;
+        private long stallMicros;
+        private long delayedWriteRate;
+        private boolean writeStopped;
+        private long blockCacheHits;
+        private long blockCacheMisses;
+        private long keysWritten;
+        private long bytesWritten;
+        private long flushBytesWritten;
+        private long compactionBytesWritten;
+
+        public double getBlockCacheHitRate() {
+            var total = this.blockCacheHits + this.blockCacheMisses;
+            return (total == 0) ? 0.0 : (double) this.blockCacheHits / total;
+        }
+    }
+
+    DatabaseStatistics(Database db, Statistics statistics, ObjectName objectName) {
+        this.db = db;
+        this.statistics = statistics;
+        this.objectName = objectName;
+        this.sample();
+    }
+
+    /**
+     * The name under which the statistics for a database path are published.
+     */
+    static ObjectName objectName(String path) throws JMException {
+        return new ObjectName("lol.memory.ts:type=Database,path=" + ObjectName.quote(path));
+    }
+
+    /**
+     * Take a new sample (this is called on a schedule by the database).
+     */
+    public Sample sample() {
+        var sample = new Sample(System.currentTimeMillis(), this.property("rocksdb.estimate-pending-compaction-bytes"),
+                this.property("rocksdb.cur-size-all-mem-tables"), this.property("rocksdb.num-immutable-mem-table"),
+                this.property("rocksdb.num-files-at-level0"), this.property("rocksdb.num-running-compactions"),
+                this.statistics.getTickerCount(TickerType.STALL_MICROS),
+                this.property("rocksdb.actual-delayed-write-rate"), this.property("rocksdb.is-write-stopped") != 0,
+                this.statistics.getTickerCount(TickerType.BLOCK_CACHE_HIT),
+                this.statistics.getTickerCount(TickerType.BLOCK_CACHE_MISS),
+                this.statistics.getTickerCount(TickerType.NUMBER_KEYS_WRITTEN),
+                this.statistics.getTickerCount(TickerType.BYTES_WRITTEN),
+                this.statistics.getTickerCount(TickerType.FLUSH_WRITE_BYTES),
+                this.statistics.getTickerCount(TickerType.COMPACT_WRITE_BYTES));
+        this.latest.set(sample);
+        return sample;
+    }
+
+    /**
+     * Take a new sample and log a summary.
+     */
+    void sampleAndLog() {
+        try {
+            var sample = this.sample();
+            DatabaseStatistics.logger.info(
+                    "RocksDB: {} keys written ({} bytes), {} bytes pending compaction, {} bytes in memtables "
+                            + "({} immutable), {} L0 files, {} compactions running, {} us stalled{}, "
+                            + "block cache hit rate {}",
+                    sample.getKeysWritten(), sample.getBytesWritten(), sample.getPendingCompactionBytes(),
+                    sample.getMemtableBytes(), sample.getImmutableMemtableCount(), sample.getLevel0FileCount(),
+                    sample.getRunningCompactions(), sample.getStallMicros(),
+                    sample.isWriteStopped() ? " (writes stopped)" : "",
+                    String.format("%.3f", sample.getBlockCacheHitRate()));
+        } catch (RuntimeException error) {
+            DatabaseStatistics.logger.error("Error sampling RocksDB statistics: {}", error.getMessage());
+        }
+    }
+
+    public Sample getLatest() {
+        return this.latest.get();
+    }
+
+    void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, this.objectName);
+        } catch (JMException error) {
+            DatabaseStatistics.logger.error("Error registering statistics MBean ({}): {}", this.objectName,
+                    error.getMessage());
+        }
+    }
+
+    void unregister() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(this.objectName);
+        } catch (JMException error) {
+            DatabaseStatistics.logger.error("Error unregistering statistics MBean ({}): {}", this.objectName,
+                    error.getMessage());
+        }
+    }
+
+    private long property(String name) {
+        return this.db.getLongProperty(name).orElse(0L);
+    }
+
+    public long getSampleTimeMillis() {
+        return this.latest.get().getSampleTimeMillis();
+    }
+
+    public long getPendingCompactionBytes() {
+        return this.latest.get().getPendingCompactionBytes();
+    }
+
+    public long getMemtableBytes() {
+        return this.latest.get().getMemtableBytes();
+    }
+
+    public long getImmutableMemtableCount() {
+        return this.latest.get().getImmutableMemtableCount();
+    }
+
+    public long getLevel0FileCount() {
+        return this.latest.get().getLevel0FileCount();
+    }
+
+    public long getRunningCompactions() {
+        return this.latest.get().getRunningCompactions();
+    }
+
+    public long getStallMicros() {
+        return this.latest.get().getStallMicros();
+    }
+
+    public long getDelayedWriteRate() {
+        return this.latest.get().getDelayedWriteRate();
+    }
+
+    public boolean isWriteStopped() {
+        return this.latest.get().isWriteStopped();
+    }
+
+    public double getBlockCacheHitRate() {
+        return this.latest.get().getBlockCacheHitRate();
+    }
+
+    public long getKeysWritten() {
+        return this.latest.get().getKeysWritten();
+    }
+
+    public long getBytesWritten() {
+        return this.latest.get().getBytesWritten();
+    }
+
+    public long getFlushBytesWritten() {
+        return this.latest.get().getFlushBytesWritten();
+    }
+
+    public long getCompactionBytesWritten() {
+        return this.latest.get().getCompactionBytesWritten();
+    }
+}
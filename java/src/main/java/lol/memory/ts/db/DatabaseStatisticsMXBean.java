@@ -0,0 +1,34 @@
+package lol.memory.ts.db;
+
+/**
+ * JMX view of the most recent statistics sample for a database (see {@link DatabaseStatistics}).
+ */
+public interface DatabaseStatisticsMXBean {
+    long getSampleTimeMillis();
+
+    long getPendingCompactionBytes();
+
+    long getMemtableBytes();
+
+    long getImmutableMemtableCount();
+
+    long getLevel0FileCount();
+
+    long getRunningCompactions();
+
+    long getStallMicros();
+
+    long getDelayedWriteRate();
+
+    boolean isWriteStopped();
+
+    double getBlockCacheHitRate();
+
+    long getKeysWritten();
+
+    long getBytesWritten();
+
+    long getFlushBytesWritten();
+
+    long getCompactionBytesWritten();
+}
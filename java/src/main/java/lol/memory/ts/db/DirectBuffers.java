@@ -0,0 +1,66 @@
+package lol.memory.ts.db;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reusable direct buffers for reading values from RocksDB without allocating a new array for every read.
+ *
+ * <p>
+ * These are only used for reads outside transactions (in group commit and striped modes), since transactions don't
+ * support direct buffers, so in the default transaction mode reads still allocate. Writes use arrays in every mode:
+ * RocksDB copies an array into a write batch in one step, so copying it into a direct buffer first would only add a
+ * copy.
+ *
+ * <p>
+ * Each thread has its own buffers (see {@link #get()}), which grow as needed and are never shrunk. A buffer returned by
+ * one of these methods is only valid until the same method is called again on the same thread.
+ */
+final class DirectBuffers {
+    private static final int INITIAL_KEY_CAPACITY = 256;
+    private static final int INITIAL_VALUE_CAPACITY = 4096;
+    private static final int MAX_DOUBLING_CAPACITY = 1 << 29;
+    private static final ThreadLocal<DirectBuffers> buffers = ThreadLocal.withInitial(DirectBuffers::new);
+    private ByteBuffer key = ByteBuffer.allocateDirect(INITIAL_KEY_CAPACITY);
+    private ByteBuffer value = ByteBuffer.allocateDirect(INITIAL_VALUE_CAPACITY);
+
+    private DirectBuffers() {
+    }
+
+    static DirectBuffers get() {
+        return DirectBuffers.buffers.get();
+    }
+
+    /**
+     * Copy a key into the key buffer.
+     */
+    ByteBuffer key(byte[] bytes) {
+        if (this.key.capacity() < bytes.length) {
+            this.key = ByteBuffer.allocateDirect(DirectBuffers.grow(this.key.capacity(), bytes.length));
+        }
+        this.key.clear();
+        this.key.put(bytes).flip();
+        return this.key;
+    }
+
+    /**
+     * An empty buffer with room for a value of at least the given size, for reading into.
+     */
+    ByteBuffer value(int capacity) {
+        if (this.value.capacity() < capacity) {
+            this.value = ByteBuffer.allocateDirect(DirectBuffers.grow(this.value.capacity(), capacity));
+        }
+        this.value.clear();
+        return this.value;
+    }
+
+    /**
+     * Double the capacity until it fits, without overflowing (very large values get exactly the size they need).
+     */
+    static int grow(int capacity, int needed) {
+        var result = Math.max(capacity, 1);
+        while (result < needed && result <= MAX_DOUBLING_CAPACITY) {
+            result *= 2;
+        }
+        return Math.max(result, needed);
+    }
+}
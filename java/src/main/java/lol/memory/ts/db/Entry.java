@@ -15,6 +15,22 @@ public abstract class Entry {
 
     public abstract Optional<byte[]> updateValue(Optional<byte[]> previousValue);
 
+    /**
+     * A non-zero fingerprint for entries that stop having any effect once their key's value reaches a certain state
+     * (zero for other entries).
+     */
+    long getFingerprint() {
+        return 0;
+    }
+
+    /**
+     * Whether this entry, and every other entry with the same fingerprint, will have no effect given this value (the
+     * buffer's position and limit must not be changed).
+     */
+    boolean isSettledBy(ByteBuffer value) {
+        return false;
+    }
+
     Entry(byte[] key) {
         this.key = key;
     }
@@ -30,6 +46,99 @@ public abstract class Entry {
         bytes[position + 7] = (byte) value;
     }
 
+    /**
+     * A non-zero 64-bit hash of a key and one member of its value (for entries that insert into a sorted array).
+     */
+    static long fingerprint(byte[] key, long member) {
+        var hash = 0xcbf29ce484222325L;
+        for (byte value : key) {
+            hash = (hash ^ (value & 0xff)) * 0x100000001b3L;
+        }
+        hash ^= member * 0x9e3779b97f4a7c15L;
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return (hash == 0) ? 1 : hash;
+    }
+
+    /**
+     * Check whether a sorted array of values contains a value.
+     */
+    static boolean containsValue(ByteBuffer values, long value) {
+        var start = values.position();
+        var low = 0;
+        var high = values.remaining() / 8 - 1;
+
+        while (low <= high) {
+            var middle = (low + high) >>> 1;
+            var current = values.getLong(start + middle * 8);
+            if (current < value) {
+                low = middle + 1;
+            } else if (current > value) {
+                high = middle - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The length of a string encoded as UTF-8 (matching {@link String#getBytes(java.nio.charset.Charset)}, which
+     * replaces unpaired surrogates with a question mark).
+     */
+    static int utf8Length(String value) {
+        var length = 0;
+        for (int i = 0; i < value.length(); i += 1) {
+            var c = value.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i += 1;
+            } else if (Character.isSurrogate(c)) {
+                length += 1;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Encode a string as UTF-8 directly into an array (which must have room for {@link #utf8Length(String)} bytes),
+     * returning the position after the last byte written.
+     */
+    static int putUtf8(byte[] bytes, int position, String value) {
+        for (int i = 0; i < value.length(); i += 1) {
+            var c = value.charAt(i);
+            if (c < 0x80) {
+                bytes[position++] = (byte) c;
+            } else if (c < 0x800) {
+                bytes[position++] = (byte) (0xc0 | (c >> 6));
+                bytes[position++] = (byte) (0x80 | (c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                var codePoint = Character.toCodePoint(c, value.charAt(i + 1));
+                bytes[position++] = (byte) (0xf0 | (codePoint >> 18));
+                bytes[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                bytes[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                bytes[position++] = (byte) (0x80 | (codePoint & 0x3f));
+                i += 1;
+            } else if (Character.isSurrogate(c)) {
+                bytes[position++] = '?';
+            } else {
+                bytes[position++] = (byte) (0xe0 | (c >> 12));
+                bytes[position++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                bytes[position++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        return position;
+    }
+
     static Optional<byte[]> insertValue(Optional<byte[]> previousValues, long newValue) {
         if (previousValues.isEmpty()) {
             byte[] value = new byte[8];
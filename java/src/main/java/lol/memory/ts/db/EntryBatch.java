@@ -0,0 +1,297 @@
+package lol.memory.ts.db;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import lol.memory.ts.metrics.PipelineMetrics;
+import lol.memory.ts.metrics.SlowInsertEvent;
+import org.rocksdb.RocksDBException;
+
+/**
+ * Entries to be written together, grouped by key.
+ *
+ * <p>
+ * Entries for the same key are kept in the order they were added, and are combined in memory when the batch is applied,
+ * so that each distinct key is read and written at most once. An entry can have an action that is run once the batch
+ * has been written if that entry changed its value (for example to count new screen name observations), or a dependent
+ * entry that is only applied (in the same batch) if it did (for example to index a deletion only when it is new).
+ */
+public final class EntryBatch {
+    private final Map<Key, List<Slot>> entries = new LinkedHashMap<>();
+    private final Optional<String> filePath;
+    private final int lineNumber;
+    private int entryCount = 0;
+
+    public EntryBatch() {
+        this(Optional.empty(), 0);
+    }
+
+    /**
+     * Create a batch for the entries from a single archive record (which is identified in error messages).
+     */
+    public EntryBatch(Optional<String> filePath, int lineNumber) {
+        this.filePath = filePath;
+        this.lineNumber = lineNumber;
+    }
+
+    /**
+     * Reads the current value for a key (null if there is none).
+     *
+     * <p>
+     * The returned buffer may be reused by the reader, so it is only valid until the next read on the same thread.
+     */
+    interface ValueReader {
+        ByteBuffer get(byte[] key) throws RocksDBException;
+    }
+
+    interface ValueWriter {
+        void put(byte[] key, byte[] value) throws RocksDBException;
+    }
+
+    public void add(Entry entry) {
+        this.add(entry, Optional.empty(), Optional.empty());
+    }
+
+    public void add(Entry entry, Runnable onWritten) {
+        this.add(entry, Optional.of(onWritten), Optional.empty());
+    }
+
+    /**
+     * Add an entry with another that is only applied if the first changes its value.
+     *
+     * <p>
+     * Dependent entries are applied after all other entries in the batch, so their keys must not be used by any entries
+     * that are not dependent.
+     */
+    public void add(Entry entry, Entry dependent) {
+        this.add(entry, Optional.empty(), Optional.of(dependent));
+    }
+
+    private void add(Entry entry, Optional<Runnable> onWritten, Optional<Entry> dependent) {
+        EntryBatch.addSlot(this.entries, new Slot(entry, onWritten, dependent));
+        this.entryCount += 1;
+    }
+
+    private static void addSlot(Map<Key, List<Slot>> entries, Slot slot) {
+        entries.computeIfAbsent(new Key(slot.entry.getKey()), key -> new ArrayList<>(1)).add(slot);
+    }
+
+    /**
+     * Add all entries from another batch (after any entries already in this one).
+     */
+    public void addAll(EntryBatch other) {
+        for (Map.Entry<Key, List<Slot>> pair : other.entries.entrySet()) {
+            this.entries.computeIfAbsent(pair.getKey(), key -> new ArrayList<>(pair.getValue().size()))
+                    .addAll(pair.getValue());
+        }
+        this.entryCount += other.entryCount;
+    }
+
+    public Optional<String> getFilePath() {
+        return this.filePath;
+    }
+
+    public int getLineNumber() {
+        return this.lineNumber;
+    }
+
+    public boolean isEmpty() {
+        return this.entryCount == 0;
+    }
+
+    public int getEntryCount() {
+        return this.entryCount;
+    }
+
+    public int getKeyCount() {
+        return this.entries.size();
+    }
+
+    /**
+     * The distinct keys in the batch (including the keys of dependent entries).
+     */
+    Collection<byte[]> keys() {
+        var keys = new LinkedHashSet<Key>(this.entries.keySet());
+        for (List<Slot> slots : this.entries.values()) {
+            for (Slot slot : slots) {
+                slot.dependent.ifPresent(dependent -> keys.add(new Key(dependent.getKey())));
+            }
+        }
+
+        var result = new ArrayList<byte[]>(keys.size());
+        for (Key key : keys) {
+            result.add(key.bytes);
+        }
+        return result;
+    }
+
+    /**
+     * Read each key once, apply all of its entries in order, and write the result if anything changed, returning the
+     * actions to be run once the writes are committed (for the entries that changed their values, and for recording
+     * settled entries in the cache).
+     *
+     * <p>
+     * Entries that the cache knows to be settled are skipped, and a key is not read at all if all of its entries are.
+     * If the stored value settles all of the remaining entries, it is never copied out of the reader's buffer.
+     */
+    List<Runnable> apply(ValueReader reader, ValueWriter writer, Optional<SettledEntryCache> cache)
+            throws RocksDBException {
+        var actions = new ArrayList<Runnable>();
+        var current = this.entries;
+
+        while (!current.isEmpty()) {
+            var dependents = new LinkedHashMap<Key, List<Slot>>();
+
+            for (Map.Entry<Key, List<Slot>> pair : current.entrySet()) {
+                var slots = cache.isPresent() ? EntryBatch.unsettled(pair.getValue(), cache.get()) : pair.getValue();
+
+                if (!slots.isEmpty()) {
+                    EntryBatch.apply(pair.getKey().bytes, slots, reader, writer, cache, actions, dependents);
+                }
+            }
+
+            current = dependents;
+        }
+
+        return actions;
+    }
+
+    private static void apply(byte[] key, List<Slot> slots, ValueReader reader, ValueWriter writer,
+            Optional<SettledEntryCache> cache, List<Runnable> actions, Map<Key, List<Slot>> dependents)
+            throws RocksDBException {
+        var event = new SlowInsertEvent();
+        event.begin();
+        var getStart = PipelineMetrics.start();
+        var stored = reader.get(key);
+        PipelineMetrics.record(PipelineMetrics.Stage.DB_GET, getStart);
+        var changed = false;
+        Optional<byte[]> value;
+
+        if (stored != null && EntryBatch.allSettled(slots, stored)) {
+            // Nothing can change, so the stored value is never copied out of the reader's buffer.
+            value = Optional.empty();
+            EntryBatch.addSettled(slots, stored, cache, actions);
+        } else {
+            value = Optional.ofNullable(stored).map(EntryBatch::toArray);
+
+            for (Slot slot : slots) {
+                var updateStart = PipelineMetrics.start();
+                var newValue = slot.entry.updateValue(value);
+                PipelineMetrics.record(PipelineMetrics.Stage.ENTRY_CONSTRUCTION, updateStart);
+
+                if (newValue.isPresent()) {
+                    value = newValue;
+                    changed = true;
+                    slot.onWritten.ifPresent(actions::add);
+                    slot.dependent.ifPresent(dependent -> EntryBatch.addSlot(dependents,
+                            new Slot(dependent, Optional.empty(), Optional.empty())));
+                }
+            }
+
+            if (changed) {
+                var putStart = PipelineMetrics.start();
+                writer.put(key, value.get());
+                PipelineMetrics.record(PipelineMetrics.Stage.DB_PUT, putStart);
+            }
+
+            if (value.isPresent()) {
+                EntryBatch.addSettled(slots, ByteBuffer.wrap(value.get()), cache, actions);
+            }
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.entryType = slots.get(0).entry.getClass().getSimpleName();
+            event.keyTag = key[0];
+            event.keyLength = key.length;
+            event.written = changed;
+            event.commit();
+        }
+    }
+
+    private static boolean allSettled(List<Slot> slots, ByteBuffer value) {
+        for (Slot slot : slots) {
+            if (slot.entry.getFingerprint() == 0 || !slot.entry.isSettledBy(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Add actions that record the entries settled by a value in the cache (once the value is committed).
+     */
+    private static void addSettled(List<Slot> slots, ByteBuffer value, Optional<SettledEntryCache> cache,
+            List<Runnable> actions) {
+        if (cache.isPresent()) {
+            for (Slot slot : slots) {
+                var fingerprint = slot.entry.getFingerprint();
+                if (fingerprint != 0 && slot.entry.isSettledBy(value)) {
+                    actions.add(() -> cache.get().add(fingerprint));
+                }
+            }
+        }
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        var result = new byte[buffer.remaining()];
+        buffer.duplicate().get(result);
+        return result;
+    }
+
+    private static List<Slot> unsettled(List<Slot> slots, SettledEntryCache cache) {
+        List<Slot> result = slots;
+
+        for (int i = 0; i < slots.size(); i += 1) {
+            var fingerprint = slots.get(i).entry.getFingerprint();
+
+            if (fingerprint != 0 && cache.contains(fingerprint)) {
+                // Copy lazily, since most entries are not settled.
+                if (result == slots) {
+                    result = new ArrayList<>(slots.subList(0, i));
+                }
+            } else if (result != slots) {
+                result.add(slots.get(i));
+            }
+        }
+        return result;
+    }
+
+    private static final class Slot {
+        private final Entry entry;
+        private final Optional<Runnable> onWritten;
+        private final Optional<Entry> dependent;
+
+        Slot(Entry entry, Optional<Runnable> onWritten, Optional<Entry> dependent) {
+            this.entry = entry;
+            this.onWritten = onWritten;
+            this.dependent = dependent;
+        }
+    }
+
+    private static final class Key {
+        private final byte[] bytes;
+        private final int hashCode;
+
+        Key(byte[] bytes) {
+            this.bytes = bytes;
+            this.hashCode = Arrays.hashCode(bytes);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && Arrays.equals(this.bytes, ((Key) other).bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+    }
+}
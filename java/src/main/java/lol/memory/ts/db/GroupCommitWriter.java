@@ -0,0 +1,201 @@
+package lol.memory.ts.db;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import lol.memory.ts.metrics.PipelineMetrics;
+import org.rocksdb.RocksDBException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A single writer thread that commits batches of entries submitted by any number of threads.
+ *
+ * <p>
+ * Submitting threads add their batches to a lock-free queue and only block if the queue is full. The writer drains the
+ * queue into one group, which grows (up to the maximum size) while a backlog remains after each write and shrinks when
+ * the queue empties, and which is never collected for longer than the maximum latency. Entries for the same key in a
+ * group are combined before anything is written, and each group is written atomically in a single write batch. If a
+ * group fails, its batches are written one at a time, so only the batches that fail on their own are lost. Since the
+ * writer is the only thread that writes, its reads don't need locks.
+ */
+final class GroupCommitWriter implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(GroupCommitWriter.class);
+    private static final int MIN_GROUP_SIZE = 16;
+    private static final long FULL_QUEUE_PARK_NANOS = 50000;
+    private final Database db;
+    private final int maxGroupSize;
+    private final long maxLatencyNanos;
+    private final int queueCapacity;
+    private final ConcurrentLinkedQueue<EntryBatch> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean waiting = false;
+    private volatile boolean closed = false;
+    private int groupSize = MIN_GROUP_SIZE;
+
+    GroupCommitWriter(Database db, int maxGroupSize, Duration maxLatency, int queueCapacity) {
+        this.db = db;
+        this.maxGroupSize = Math.max(MIN_GROUP_SIZE, maxGroupSize);
+        this.maxLatencyNanos = maxLatency.toNanos();
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.thread = new Thread(this::run, "group-commit");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Queue a batch to be written, waiting if the queue is full (this fails if the writer thread has stopped).
+     */
+    void submit(EntryBatch batch) {
+        if (this.closed) {
+            throw new IllegalStateException("Group commit writer is closed");
+        }
+
+        while (this.queued.incrementAndGet() > this.queueCapacity) {
+            this.queued.decrementAndGet();
+
+            // If the writer thread died (for example from an OutOfMemoryError), the queue will never drain.
+            if (!this.thread.isAlive()) {
+                throw new IllegalStateException("Group commit writer has stopped");
+            }
+            LockSupport.parkNanos(FULL_QUEUE_PARK_NANOS);
+        }
+
+        this.submitted.incrementAndGet();
+        this.queue.add(batch);
+
+        // The writer may have seen an empty queue after closing and exited (or died) before the batch was added, in
+        // which case nothing will ever take the batch. If the batch can't be removed here, the writer has taken it.
+        if ((this.closed || !this.thread.isAlive()) && this.queue.remove(batch)) {
+            this.queued.decrementAndGet();
+            this.submitted.decrementAndGet();
+            throw new IllegalStateException(
+                    this.closed ? "Group commit writer is closed" : "Group commit writer has stopped");
+        }
+
+        if (this.waiting) {
+            LockSupport.unpark(this.thread);
+        }
+    }
+
+    /**
+     * Wait until every batch submitted before this call has been written (or has failed).
+     */
+    void awaitWrites() {
+        var target = this.submitted.get();
+
+        while (this.completed.get() < target && this.thread.isAlive()) {
+            LockSupport.unpark(this.thread);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    /**
+     * Write everything that has been submitted and stop the writer thread.
+     */
+    public void close() {
+        this.closed = true;
+        LockSupport.unpark(this.thread);
+
+        try {
+            this.thread.join();
+        } catch (InterruptedException error) {
+            GroupCommitWriter.logger.error("Interrupted while waiting for group commit writer: {}", error.getMessage());
+        }
+    }
+
+    private void run() {
+        var batches = new ArrayList<EntryBatch>(this.maxGroupSize);
+
+        while (true) {
+            var first = this.queue.poll();
+
+            if (first == null) {
+                if (this.closed && this.queue.isEmpty()) {
+                    return;
+                }
+
+                this.waiting = true;
+                if (this.queue.isEmpty() && !this.closed) {
+                    LockSupport.parkNanos(this.maxLatencyNanos);
+                }
+                this.waiting = false;
+                continue;
+            }
+
+            var deadline = System.nanoTime() + this.maxLatencyNanos;
+            batches.add(first);
+
+            while (batches.size() < this.groupSize && System.nanoTime() < deadline) {
+                var next = this.queue.poll();
+                if (next == null) {
+                    break;
+                }
+                batches.add(next);
+            }
+
+            this.queued.addAndGet(-batches.size());
+            this.write(batches);
+            this.completed.addAndGet(batches.size());
+
+            // Grow while the backlog outpaces the current group size, and shrink back when it doesn't.
+            if (batches.size() >= this.groupSize && !this.queue.isEmpty()) {
+                this.groupSize = Math.min(this.maxGroupSize, this.groupSize * 2);
+            } else if (batches.size() < this.groupSize / 2) {
+                this.groupSize = Math.max(MIN_GROUP_SIZE, this.groupSize / 2);
+            }
+
+            batches.clear();
+        }
+    }
+
+    private void write(List<EntryBatch> batches) {
+        var group = new EntryBatch();
+        for (EntryBatch batch : batches) {
+            group.addAll(batch);
+        }
+
+        try {
+            GroupCommitWriter.runActions(this.db.insertUnlocked(group));
+        } catch (RocksDBException | RuntimeException error) {
+            GroupCommitWriter.logger.warn(
+                    "Error during RocksDB group commit ({} records), writing records separately: {}", batches.size(),
+                    error.getMessage());
+
+            // Nothing in the group was written, so each record can be retried on its own, and only the records that
+            // fail again are lost.
+            for (EntryBatch batch : batches) {
+                this.writeSeparately(batch);
+            }
+        }
+    }
+
+    private void writeSeparately(EntryBatch batch) {
+        try {
+            GroupCommitWriter.runActions(this.db.insertUnlocked(batch));
+        } catch (RocksDBException | RuntimeException error) {
+            PipelineMetrics.countError();
+            this.db.countWriteError();
+            GroupCommitWriter.logger.error("Error during RocksDB writing ({}, {}): {}",
+                    batch.getFilePath().orElseGet(() -> "<none>"), batch.getLineNumber(), error.getMessage());
+        }
+    }
+
+    private static void runActions(List<Runnable> actions) {
+        for (Runnable action : actions) {
+            try {
+                action.run();
+            } catch (RuntimeException error) {
+                GroupCommitWriter.logger.error("Error after group commit: {}", error.getMessage());
+            }
+        }
+    }
+}
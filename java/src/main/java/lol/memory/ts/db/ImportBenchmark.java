@@ -0,0 +1,301 @@
+package lol.memory.ts.db;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import com.alibaba.fastjson.serializer.SerializerFeature;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import lol.memory.ts.archive.Archive;
+import lol.memory.ts.archive.Record;
+import lol.memory.ts.Item;
+import lol.memory.ts.metrics.PipelineMetrics;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * End-to-end import benchmark that writes a JSON report.
+ *
+ * <p>
+ * Every combination of importer, thread count, and database settings is run against a new database in a temporary
+ * directory. Usage: {@code ImportBenchmark <archive> <report> [importers] [threads] [settings...]}, where importers and
+ * thread counts are comma-separated lists (by default both importers and the number of available processors), and each
+ * settings argument is a comma-separated list of {@code name=value} database options (see
+ * {@link DatabaseOptions#fromSettings(Map)}). The report label can be set with the {@code lol.memory.ts.bench.label}
+ * system property (for example to a commit hash). Peak RSS is only reported on Linux, and RocksDB statistics are only
+ * reported if a statistics interval is set. Per-stage latencies are included if pipeline metrics are enabled (see
+ * {@link PipelineMetrics}). Records that fail to be written are reported as write errors, and aren't counted towards
+ * the records per second.
+ */
+public class ImportBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(ImportBenchmark.class);
+    private static final String LABEL_PROPERTY = "lol.memory.ts.bench.label";
+    private static final String STALL_PREFIX = "io_stalls.";
+    private static final Path PROC_STATUS = Path.of("/proc/self/status");
+    private static final Path PROC_CLEAR_REFS = Path.of("/proc/self/clear_refs");
+
+    public enum Importer {
+        METADATA, USERS
+    }
+
+    public static void main(String[] args) throws IOException, RocksDBException {
+        RocksDB.loadLibrary();
+        var archivePath = Path.of(args[0]);
+        var reportPath = Path.of(args[1]);
+        var importers = (args.length > 2) ? ImportBenchmark.parseImporters(args[2])
+                : List.of(Importer.METADATA, Importer.USERS);
+        var threadCounts = (args.length > 3) ? ImportBenchmark.parseThreadCounts(args[3])
+                : List.of(Runtime.getRuntime().availableProcessors());
+        var settingsList = new ArrayList<Map<String, String>>();
+        for (int i = 4; i < args.length; i += 1) {
+            settingsList.add(ImportBenchmark.parseSettings(args[i]));
+        }
+        if (settingsList.isEmpty()) {
+            settingsList.add(Map.of());
+        }
+
+        var runs = new JSONArray();
+        for (Map<String, String> settings : settingsList) {
+            for (Importer importer : importers) {
+                for (int threadCount : threadCounts) {
+                    runs.add(ImportBenchmark.run(archivePath, importer, threadCount, settings));
+                }
+            }
+        }
+
+        var report = new JSONObject(true);
+        report.put("label", System.getProperty(LABEL_PROPERTY, ""));
+        report.put("startedAt", Instant.now().toString());
+        report.put("archive", archivePath.toString());
+        report.put("archiveBytes", Files.size(archivePath));
+        report.put("javaVersion", System.getProperty("java.version"));
+        report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        report.put("maxHeapBytes", Runtime.getRuntime().maxMemory());
+        report.put("runs", runs);
+
+        Files.writeString(reportPath, JSON.toJSONString(report, SerializerFeature.PrettyFormat),
+                StandardCharsets.UTF_8);
+        ImportBenchmark.logger.info("Wrote report for {} runs to {}", runs.size(), reportPath);
+    }
+
+    /**
+     * Import an archive into a new database, returning the measurements for the report.
+     */
+    public static JSONObject run(Path archivePath, Importer importer, int threadCount, Map<String, String> settings)
+            throws IOException, RocksDBException {
+        var options = DatabaseOptions.fromSettings(settings);
+        var archive = Archive.load(archivePath, threadCount);
+        var dbPath = Files.createTempDirectory("import-benchmark");
+        var recordCount = new LongAdder();
+
+        PipelineMetrics.get().reset();
+        System.gc();
+        ImportBenchmark.resetPeakRss();
+        var gcStart = ImportBenchmark.gcTotals();
+        var startTime = System.nanoTime();
+        Map<String, Long> stalls;
+        Optional<DatabaseStatistics.Sample> statistics;
+        Optional<Database.EntryCacheCounts> entryCache;
+        long writeErrors;
+        long wallNanos;
+
+        try {
+            try (var db = new Database(dbPath.toString(), options)) {
+                ImportMetadata.addCheckpointListener(archive, db);
+                var process = (importer == Importer.METADATA)
+                        ? ImportMetadata.create(db, EnumSet.noneOf(ImportMetadata.Index.class))
+                        : ImportUsers.create(db, userId -> true, UserDbEntry.SnapshotMode.FULL);
+
+                archive.run(new Consumer<Record<Item>>() {
+                    public void accept(Record<Item> record) {
+                        recordCount.increment();
+                        process.accept(record);
+                    }
+                });
+                db.awaitWrites();
+                stalls = ImportBenchmark.stallCounters(db);
+                statistics = db.getStatistics().map(DatabaseStatistics::sample);
+                entryCache = db.getEntryCacheCounts();
+                writeErrors = db.getWriteErrorCount();
+            }
+            wallNanos = System.nanoTime() - startTime;
+        } catch (RocksDBException | RuntimeException | Error error) {
+            // A failed run shouldn't leave its database behind.
+            try {
+                ImportBenchmark.deleteDirectory(dbPath);
+            } catch (IOException deleteError) {
+                error.addSuppressed(deleteError);
+            }
+            throw error;
+        }
+
+        var gcEnd = ImportBenchmark.gcTotals();
+        var databaseBytes = ImportBenchmark.deleteDirectory(dbPath);
+        var seconds = wallNanos / 1e9;
+        // Records that failed to be written aren't counted towards throughput.
+        var writtenCount = recordCount.sum() - writeErrors;
+
+        var result = new JSONObject(true);
+        result.put("importer", importer.name().toLowerCase());
+        result.put("threads", threadCount);
+        result.put("settings", new JSONObject(new LinkedHashMap<>(settings)));
+        result.put("wallMillis", wallNanos / 1000000);
+        result.put("records", recordCount.sum());
+        result.put("writeErrors", writeErrors);
+        result.put("recordsPerSecond", writtenCount / seconds);
+        result.put("bytesPerSecond", Files.size(archivePath) / seconds);
+        ImportBenchmark.peakRss().ifPresent(value -> result.put("peakRssBytes", value));
+        result.put("gcMillis", gcEnd[0] - gcStart[0]);
+        result.put("gcCount", gcEnd[1] - gcStart[1]);
+        result.put("databaseBytes", databaseBytes);
+        result.put("stalls", new JSONObject(new LinkedHashMap<>(stalls)));
+        statistics.ifPresent(value -> result.put("statistics", JSON.toJSON(value)));
+        entryCache.ifPresent(value -> result.put("entryCache", JSON.toJSON(value)));
+        if (PipelineMetrics.isEnabled()) {
+            result.put("pipeline", ImportBenchmark.pipelineSummary(PipelineMetrics.get().summarize()));
+        }
+
+        ImportBenchmark.logger.info("{} with {} threads: {} records ({} write errors) in {} ms ({} records/s)",
+                importer, threadCount, recordCount.sum(), writeErrors, wallNanos / 1000000,
+                (long) (writtenCount / seconds));
+        return result;
+    }
+
+    private static JSONObject pipelineSummary(PipelineMetrics.Summary summary) {
+        var stages = new JSONObject(true);
+        summary.getStages().forEach((stage, value) -> stages.put(stage.name().toLowerCase(), JSON.toJSON(value)));
+
+        var result = new JSONObject(true);
+        result.put("records", summary.getRecordCount());
+        result.put("errors", summary.getErrorCount());
+        result.put("skipped", summary.getSkipCount());
+        result.put("perRecordMicros", summary.getPerRecordMicros());
+        result.put("stages", stages);
+        return result;
+    }
+
+    /**
+     * The write stall counters from the column family statistics (as of the end of the import).
+     */
+    private static Map<String, Long> stallCounters(Database db) {
+        var result = new LinkedHashMap<String, Long>();
+        db.getMapProperty("rocksdb.cfstats").entrySet().stream()
+                .filter(entry -> entry.getKey().startsWith(STALL_PREFIX)).sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> {
+                    try {
+                        result.put(entry.getKey().substring(STALL_PREFIX.length()),
+                                (long) Double.parseDouble(entry.getValue()));
+                    } catch (NumberFormatException error) {
+                        ImportBenchmark.logger.error("Invalid stall counter {}: {}", entry.getKey(), entry.getValue());
+                    }
+                });
+        return result;
+    }
+
+    /**
+     * Total collection time in milliseconds and collection count across all collectors.
+     */
+    private static long[] gcTotals() {
+        var result = new long[2];
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            result[0] += Math.max(0, bean.getCollectionTime());
+            result[1] += Math.max(0, bean.getCollectionCount());
+        }
+        return result;
+    }
+
+    /**
+     * Reset the kernel's record of the process's peak resident set size (supported on Linux).
+     */
+    private static void resetPeakRss() {
+        try {
+            Files.writeString(PROC_CLEAR_REFS, "5");
+        } catch (IOException | UnsupportedOperationException | SecurityException error) {
+            ImportBenchmark.logger.debug("Unable to reset peak RSS: {}", error.getMessage());
+        }
+    }
+
+    private static Optional<Long> peakRss() {
+        try {
+            for (String line : Files.readAllLines(PROC_STATUS, StandardCharsets.UTF_8)) {
+                if (line.startsWith("VmHWM:")) {
+                    var fields = line.substring(6).trim().split("\\s+");
+                    return Optional.of(Long.parseLong(fields[0]) * 1024);
+                }
+            }
+        } catch (IOException | NumberFormatException error) {
+            ImportBenchmark.logger.debug("Unable to read peak RSS: {}", error.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Delete a directory tree, returning the total size of the files it contained.
+     */
+    static long deleteDirectory(Path directory) throws IOException {
+        long total = 0;
+        List<Path> paths;
+        try (var stream = Files.walk(directory)) {
+            paths = stream.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        }
+        for (Path path : paths) {
+            if (Files.isRegularFile(path)) {
+                total += Files.size(path);
+            }
+            Files.delete(path);
+        }
+        return total;
+    }
+
+    static List<Importer> parseImporters(String input) {
+        var result = new ArrayList<Importer>();
+        for (String name : input.split(",")) {
+            if (!name.isBlank()) {
+                result.add(Importer.valueOf(name.trim().toUpperCase()));
+            }
+        }
+        return result;
+    }
+
+    static List<Integer> parseThreadCounts(String input) {
+        var result = new ArrayList<Integer>();
+        for (String value : input.split(",")) {
+            if (!value.isBlank()) {
+                result.add(Integer.parseInt(value.trim()));
+            }
+        }
+        return result;
+    }
+
+    static Map<String, String> parseSettings(String input) {
+        var result = new LinkedHashMap<String, String>();
+        for (String setting : input.split(",")) {
+            var parts = setting.split("=", 2);
+            if (parts.length == 2) {
+                result.put(parts[0].trim(), parts[1].trim());
+            }
+        }
+        return result;
+    }
+
+    protected ImportBenchmark() {
+        throw new UnsupportedOperationException();
+    }
+}
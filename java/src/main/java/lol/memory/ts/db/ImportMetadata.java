@@ -2,51 +2,124 @@ package lol.memory.ts.db;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import lol.memory.ts.archive.Archive;
 import lol.memory.ts.archive.Record;
+import lol.memory.ts.index.ScreenNameIndex;
 import lol.memory.ts.Item;
+import lol.memory.ts.metrics.PipelineMetrics;
+import lol.memory.ts.Twitter;
 import lol.memory.ts.UserInfo;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
-import org.rocksdb.Transaction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class ImportMetadata {
     private static final Logger logger = LoggerFactory.getLogger(ImportMetadata.class);
 
+    /**
+     * Optional secondary indices that can be written alongside the metadata.
+     */
+    public enum Index {
+        TIMELINE, DELETE_TIME
+    }
+
     public static void main(String[] args) throws IOException, RocksDBException {
         RocksDB.loadLibrary();
         var archive = Archive.load(new File(args[0]));
         var dbPath = args[1];
+        var indices = (args.length > 2) ? ImportMetadata.parseIndices(args[2]) : EnumSet.noneOf(Index.class);
+        var screenNameIndexPath = (args.length > 3) ? Optional.of(Path.of(args[3])) : Optional.<Path> empty();
+        var delta = screenNameIndexPath.map(path -> new ScreenNameIndex.Delta());
+
+        try (var db = new Database(dbPath, DatabaseOptions.fromSystemProperties())) {
+            ImportMetadata.addCheckpointListener(archive, db);
+            archive.run(ImportMetadata.create(db, indices, delta));
+        }
+
+        if (PipelineMetrics.isEnabled()) {
+            PipelineMetrics.get().logSummary();
+        }
+
+        if (screenNameIndexPath.isPresent()) {
+            ScreenNameIndex.update(screenNameIndexPath.get(), delta.get());
+        }
+    }
+
+    /**
+     * Take a checkpoint after every archive entry if the database is configured to do so.
+     */
+    static void addCheckpointListener(Archive archive, Database db) {
+        if (db.getOptions().isCheckpointAfterEntry()) {
+            archive.addListener(new Archive.Listener() {
+                public void entryFinished(Optional<String> filePath, int lineCount) {
+                    db.awaitWrites();
+                    db.checkpoint();
+                }
+            });
+        }
+    }
 
-        var importer = ImportMetadata.create(dbPath);
-        archive.run(importer);
+    static Set<Index> parseIndices(String input) {
+        var result = EnumSet.noneOf(Index.class);
+        for (String name : input.split(",")) {
+            if (!name.isBlank()) {
+                result.add(Index.valueOf(name.trim().toUpperCase()));
+            }
+        }
+        return result;
     }
 
     public static Consumer<Record<Item>> create(String dbPath) throws IOException, RocksDBException {
-        return new Consumer<Record<Item>>() {
-            private final Database db = new Database(dbPath);
+        return ImportMetadata.create(dbPath, EnumSet.noneOf(Index.class));
+    }
+
+    public static Consumer<Record<Item>> create(String dbPath, Set<Index> indices)
+            throws IOException, RocksDBException {
+        return ImportMetadata.create(new Database(dbPath), indices);
+    }
 
+    public static Consumer<Record<Item>> create(Database db, Set<Index> indices) {
+        return ImportMetadata.create(db, indices, Optional.empty());
+    }
+
+    /**
+     * Create an importer that also counts new screen name observations (for incremental screen name index updates).
+     *
+     * <p>
+     * If the database is in group commit mode, records are queued for its writer, and may not have been written when
+     * this importer returns (see {@link Database#awaitWrites()}).
+     */
+    public static Consumer<Record<Item>> create(Database db, Set<Index> indices,
+            Optional<ScreenNameIndex.Delta> delta) {
+        var mode = db.getWriteMode();
+
+        return new Consumer<Record<Item>>() {
             public void accept(Record<Item> record) {
                 try {
-                    var tx = db.beginTransaction();
-                    var item = record.getValue();
-
-                    if (item.isDelete()) {
-                        var delete = item.asDelete().get();
-                        var entry = MetadataDbEntry.makeDeleteEntry(delete.getUserId(), delete.getStatusId(),
-                                delete.getTimestampMillis());
-                        db.insert(tx, entry);
+                    var batch = ImportMetadata.makeBatch(record, indices, delta);
+
+                    if (mode == DatabaseOptions.WriteMode.GROUP_COMMIT) {
+                        db.submit(batch);
+                    } else if (mode == DatabaseOptions.WriteMode.STRIPED) {
+                        db.insert(batch).forEach(Runnable::run);
                     } else {
-                        ImportMetadata.processTweet(db, tx, item.asTweet().get());
+                        try (var tx = db.beginTransaction()) {
+                            var actions = db.insert(tx, batch);
+                            db.commit(tx);
+                            actions.forEach(Runnable::run);
+                        }
                     }
-
-                    tx.commit();
                 } catch (Throwable error) {
+                    PipelineMetrics.countError();
+                    db.countWriteError();
                     ImportMetadata.logger.error("Error during RocksDB writing ({}, {}): {}",
                             record.getFilePath().orElseGet(() -> "<none>"), record.getLineNumber(), error.getMessage());
                 }
@@ -54,21 +127,57 @@ public class ImportMetadata {
         };
     }
 
-    private static void processTweet(Database db, Transaction tx, Item.Tweet tweet)
-            throws IOException, RocksDBException {
+    /**
+     * Collect the entries for a record (with actions that count new screen name observations).
+     */
+    static EntryBatch makeBatch(Record<Item> record, Set<Index> indices, Optional<ScreenNameIndex.Delta> delta) {
+        var item = record.getValue();
+        var batch = new EntryBatch(record.getFilePath(), record.getLineNumber());
+
+        if (item.isDelete()) {
+            var delete = item.asDelete().get();
+            var entry = MetadataDbEntry.makeDeleteEntry(delete.getUserId(), delete.getStatusId(),
+                    delete.getTimestampMillis());
+
+            // Fall back to the status's own time if the deletion isn't timestamped.
+            var timestampMillis = indices.contains(Index.DELETE_TIME)
+                    ? delete.getTimestampMillis().or(() -> Twitter.extractTimestampMillis(delete.getStatusId()))
+                    : Optional.<Long> empty();
+
+            if (timestampMillis.isPresent()) {
+                // Only index the deletion the first time it's seen, so repeated deletions aren't indexed twice.
+                batch.add(entry, MetadataDbEntry.makeDeleteTimeEntry(delete.getUserId(), delete.getStatusId(),
+                        timestampMillis.get()));
+            } else {
+                batch.add(entry);
+            }
+        } else {
+            ImportMetadata.processTweet(batch, item.asTweet().get(), indices, delta);
+        }
+
+        return batch;
+    }
+
+    private static void processTweet(EntryBatch batch, Item.Tweet tweet, Set<Index> indices,
+            Optional<ScreenNameIndex.Delta> delta) {
         var userInfo = tweet.getUserInfo();
 
-        db.insert(tx, MetadataDbEntry.makeUserEntry(userInfo.getUserId(), userInfo.getScreenName(),
-                tweet.getSourceStatusId()));
-        db.insert(tx, MetadataDbEntry.makeScreenNameEntry(userInfo.getUserId(), userInfo.getScreenName()));
+        if (indices.contains(Index.TIMELINE)) {
+            batch.add(MetadataDbEntry.makeTimelineEntry(userInfo.getUserId(), tweet.getStatusId(),
+                    tweet.getTimestampMillis()));
+        }
+
+        ImportMetadata.addUserEntry(batch, MetadataDbEntry.makeUserEntry(userInfo.getUserId(), userInfo.getScreenName(),
+                tweet.getSourceStatusId()), userInfo.getScreenName(), delta);
+        batch.add(MetadataDbEntry.makeScreenNameEntry(userInfo.getUserId(), userInfo.getScreenName()));
 
         var maybeRetweetedStatus = tweet.getRetweetedStatus();
 
         if (maybeRetweetedStatus.isPresent()) {
             var retweetedStatus = maybeRetweetedStatus.get();
 
-            ImportMetadata.processTweet(db, tx, retweetedStatus);
-            db.insert(tx, MetadataDbEntry.makeRetweetStatusEntry(tweet.getStatusId(), tweet.getTimestampMillis(),
+            ImportMetadata.processTweet(batch, retweetedStatus, indices, delta);
+            batch.add(MetadataDbEntry.makeRetweetStatusEntry(tweet.getStatusId(), tweet.getTimestampMillis(),
                     userInfo.getUserId(), retweetedStatus.getStatusId()));
         } else {
             var maybeReplyInfo = tweet.getReplyInfo();
@@ -76,16 +185,16 @@ public class ImportMetadata {
             if (maybeReplyInfo.isPresent()) {
                 var replyInfo = maybeReplyInfo.get();
 
-                db.insert(tx, MetadataDbEntry.makeUserEntry(replyInfo.getUserId(), replyInfo.getScreenName(),
-                        tweet.getSourceStatusId()));
-                db.insert(tx, MetadataDbEntry.makeScreenNameEntry(replyInfo.getUserId(), replyInfo.getScreenName()));
-                db.insert(tx, MetadataDbEntry.makeShortStatusEntry(replyInfo.getStatusId(), replyInfo.getUserId()));
+                ImportMetadata.addUserEntry(batch, MetadataDbEntry.makeUserEntry(replyInfo.getUserId(),
+                        replyInfo.getScreenName(), tweet.getSourceStatusId()), replyInfo.getScreenName(), delta);
+                batch.add(MetadataDbEntry.makeScreenNameEntry(replyInfo.getUserId(), replyInfo.getScreenName()));
+                batch.add(MetadataDbEntry.makeShortStatusEntry(replyInfo.getStatusId(), replyInfo.getUserId()));
             }
 
             var quotedStatus = tweet.getQuotedStatus();
 
             if (quotedStatus.isPresent()) {
-                ImportMetadata.processTweet(db, tx, quotedStatus.get());
+                ImportMetadata.processTweet(batch, quotedStatus.get(), indices, delta);
             }
 
             var mentionedIds = new HashSet<Long>();
@@ -98,7 +207,16 @@ public class ImportMetadata {
                     quotedStatus.map(value -> value.getStatusId()),
                     mentionedIds.stream().distinct().sorted().collect(Collectors.toList()));
 
-            db.insert(tx, entry);
+            batch.add(entry);
+        }
+    }
+
+    private static void addUserEntry(EntryBatch batch, Entry entry, String screenName,
+            Optional<ScreenNameIndex.Delta> delta) {
+        if (delta.isPresent()) {
+            batch.add(entry, () -> delta.get().add(screenName, 1));
+        } else {
+            batch.add(entry);
         }
     }
 
@@ -2,19 +2,20 @@ package lol.memory.ts.db;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.Collections;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Optional;
-import java.util.Set;
 import java.util.function.Consumer;
-import java.util.function.Predicate;
+import java.util.function.LongPredicate;
 import java.util.stream.Collectors;
 import lol.memory.ts.archive.Archive;
 import lol.memory.ts.archive.Record;
 import lol.memory.ts.avro.User;
 import lol.memory.ts.Item;
+import lol.memory.ts.metrics.PipelineMetrics;
 import lol.memory.ts.UserInfo;
-import lol.memory.ts.Util;
+import lol.memory.ts.UserSelector;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
 import org.rocksdb.Transaction;
@@ -28,17 +29,29 @@ public class ImportUsers {
         RocksDB.loadLibrary();
         var archive = Archive.load(new File(args[0]));
         var dbPath = args[1];
-        Set<Long> selectedUserIds = (args.length > 2) ? Util.readLongs(new File(args[2])) : Collections.emptySet();
+        var selector = (args.length > 2) ? UserSelector.load(Path.of(args[2])) : UserSelector.empty();
+        var mode = (args.length > 3) ? UserDbEntry.SnapshotMode.valueOf(args[3].toUpperCase().replace('-', '_'))
+                : UserDbEntry.SnapshotMode.FULL;
 
-        var importer = ImportUsers.create(dbPath, selectedUserIds::contains);
-        archive.run(importer);
+        try (var db = new Database(dbPath, DatabaseOptions.fromSystemProperties())) {
+            ImportMetadata.addCheckpointListener(archive, db);
+            archive.run(ImportUsers.create(db, selector, mode));
+        }
+
+        if (PipelineMetrics.isEnabled()) {
+            PipelineMetrics.get().logSummary();
+        }
     }
 
-    public static Consumer<Record<Item>> create(String dbPath, Predicate<Long> selector)
+    public static Consumer<Record<Item>> create(String dbPath, LongPredicate selector)
             throws IOException, RocksDBException {
-        return new Consumer<Record<Item>>() {
-            private final Database db = new Database(dbPath);
+        return ImportUsers.create(new Database(dbPath), selector, UserDbEntry.SnapshotMode.FULL);
+    }
 
+    public static Consumer<Record<Item>> create(Database db, LongPredicate selector, UserDbEntry.SnapshotMode mode) {
+        var isStriped = db.getWriteMode() == DatabaseOptions.WriteMode.STRIPED;
+
+        return new Consumer<Record<Item>>() {
             public void accept(Record<Item> record) {
                 try {
                     var item = record.getValue();
@@ -57,15 +70,44 @@ public class ImportUsers {
                                 status -> selector.test(status.getUserId()) ? status.getFullUser() : Optional.empty())
                                 .ifPresent(users::add);
 
-                        if (!users.isEmpty()) {
-                            var tx = db.beginTransaction();
+                        if (users.isEmpty()) {
+                            return;
+                        }
+
+                        if (isStriped) {
+                            var lockKeys = new ArrayList<byte[]>(users.size());
                             for (User user : users) {
-                                db.insert(tx, UserDbEntry.makeUserEntry(user, tweet.getTimestampMillis()));
+                                lockKeys.add(UserDbEntry.makeLockKey(user.getId()));
+                            }
+
+                            // Each snapshot is written before the next is made, so that it sees the previous ones.
+                            db.withLocks(lockKeys, () -> {
+                                for (User user : users) {
+                                    var entry = UserDbEntry.makeUserEntry(db, user, tweet.getTimestampMillis(), mode);
+                                    if (entry.isPresent()) {
+                                        var batch = new EntryBatch();
+                                        batch.add(entry.get());
+                                        db.insertUnlocked(batch).forEach(Runnable::run);
+                                    }
+                                }
+                                return null;
+                            });
+                        } else {
+                            try (var tx = db.beginTransaction()) {
+                                for (User user : users) {
+                                    var entry = UserDbEntry.makeUserEntry(db, tx, user, tweet.getTimestampMillis(),
+                                            mode);
+                                    if (entry.isPresent()) {
+                                        db.insert(tx, entry.get());
+                                    }
+                                }
+                                db.commit(tx);
                             }
-                            tx.commit();
                         }
                     }
                 } catch (Throwable error) {
+                    PipelineMetrics.countError();
+                    db.countWriteError();
                     ImportUsers.logger.error("Error during RocksDB writing ({}, {}): {}",
                             record.getFilePath().orElseGet(() -> "<none>"), record.getLineNumber(), error.getMessage());
                 }
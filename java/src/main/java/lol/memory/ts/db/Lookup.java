@@ -0,0 +1,148 @@
+package lol.memory.ts.db;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import lol.memory.ts.Twitter;
+import lombok.Value;
+import org.rocksdb.RocksDBException;
+
+/**
+ * Read-side queries against a metadata database.
+ */
+public final class Lookup {
+    private final Database db;
+
+    public Lookup(Database db) {
+        this.db = db;
+    }
+
+    @Value
+    public static class Deletion {
+        private long userId;
+        private long statusId;
+        private long timestampMillis;
+    }
+
+    public Optional<MetadataDbEntry.Status> lookupStatus(long statusId) throws RocksDBException {
+        var key = MetadataDbEntry.StatusEntry.makeKey(statusId);
+        return this.db.get(key).map(value -> MetadataDbEntry.decodeStatus(key, value));
+    }
+
+    /**
+     * Look up many statuses with a single batched read, returning the results in the same order as the IDs.
+     */
+    public List<Optional<MetadataDbEntry.Status>> lookupStatuses(List<Long> statusIds) throws RocksDBException {
+        var keys = new ArrayList<byte[]>(statusIds.size());
+        for (long statusId : statusIds) {
+            keys.add(MetadataDbEntry.StatusEntry.makeKey(statusId));
+        }
+
+        var values = this.db.multiGet(keys);
+        var result = new ArrayList<Optional<MetadataDbEntry.Status>>(keys.size());
+        for (int i = 0; i < keys.size(); i += 1) {
+            var key = keys.get(i);
+            result.add(Optional.ofNullable(values.get(i)).map(value -> MetadataDbEntry.decodeStatus(key, value)));
+        }
+        return result;
+    }
+
+    /**
+     * Find the IDs of all accounts that have used a screen name (case-insensitively).
+     */
+    public List<Long> lookupUserIds(String screenName) throws RocksDBException {
+        var result = new ArrayList<Long>();
+        var value = this.db.get(MetadataDbEntry.ScreenNameEntry.makeKey(screenName));
+        if (value.isPresent()) {
+            for (long userId : MetadataDbEntry.decodeIds(value.get())) {
+                result.add(userId);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Find all screen names used by an account.
+     */
+    public List<String> lookupScreenNames(long userId) {
+        var result = new ArrayList<String>();
+
+        this.db.scan(MetadataDbEntry.UserEntry.makeKey(userId, ""), MetadataDbEntry.UserEntry.makeKey(userId + 1, ""),
+                (key, value) -> {
+                    result.add(new String(key, 9, key.length - 9, StandardCharsets.UTF_8));
+                    return true;
+                });
+
+        return result;
+    }
+
+    /**
+     * Find the IDs of all deleted statuses for an account.
+     */
+    public List<Long> lookupDeletedStatusIds(long userId) {
+        var result = new ArrayList<Long>();
+
+        this.db.scan(MetadataDbEntry.DeleteEntry.makeKey(userId, 0L),
+                MetadataDbEntry.DeleteEntry.makeKey(userId + 1, 0L), (key, value) -> {
+                    result.add(MetadataDbEntry.decodeDeletedStatusId(key));
+                    return true;
+                });
+
+        return result;
+    }
+
+    /**
+     * Find the IDs of a user's statuses with timestamps in the given range (start inclusive, end exclusive).
+     *
+     * <p>
+     * This requires the database to have been built with the timeline index, and is a single prefix-range scan over
+     * Snowflake bounds derived from the range (widened to include pre-Snowflake IDs when necessary).
+     */
+    public List<Long> lookupUserTimeline(long userId, Instant start, Instant end) {
+        var startMillis = start.toEpochMilli();
+        var endMillis = end.toEpochMilli();
+        var firstSnowflakeMillis = Twitter.extractTimestampMillis(MetadataDbEntry.FIRST_SNOWFLAKE).get();
+
+        var lowerId = (startMillis > firstSnowflakeMillis) ? Twitter.firstSnowflakeAt(startMillis) : 0L;
+        var upperId = Math.max(Twitter.firstSnowflakeAt(endMillis), MetadataDbEntry.FIRST_SNOWFLAKE);
+        var result = new ArrayList<Long>();
+
+        this.db.scan(MetadataDbEntry.TimelineEntry.makeKey(userId, lowerId),
+                MetadataDbEntry.TimelineEntry.makeKey(userId, upperId), (key, value) -> {
+                    var statusId = ByteBuffer.wrap(key, 9, 8).getLong();
+                    var timestampMillis = (value.length == 8) ? ByteBuffer.wrap(value).getLong()
+                            : Twitter.extractTimestampMillis(statusId).orElse(Long.MIN_VALUE);
+
+                    if (timestampMillis >= startMillis && timestampMillis < endMillis) {
+                        result.add(statusId);
+                    }
+                    return true;
+                });
+
+        return result;
+    }
+
+    /**
+     * Find all deletions with timestamps in the given range (start inclusive, end exclusive), in time order.
+     *
+     * <p>
+     * This requires the database to have been built with the deletion time index. Deletions without a timestamp are
+     * indexed by the time of the deleted status (if it has a Snowflake ID).
+     */
+    public List<Deletion> lookupDeletions(Instant start, Instant end) {
+        var result = new ArrayList<Deletion>();
+
+        this.db.scan(MetadataDbEntry.DeleteTimeEntry.makeKey(start.toEpochMilli(), 0L, 0L),
+                MetadataDbEntry.DeleteTimeEntry.makeKey(end.toEpochMilli(), 0L, 0L), (key, value) -> {
+                    var buffer = ByteBuffer.wrap(key, 1, 24);
+                    var timestampMillis = buffer.getLong();
+                    result.add(new Deletion(buffer.getLong(), buffer.getLong(), timestampMillis));
+                    return true;
+                });
+
+        return result;
+    }
+}
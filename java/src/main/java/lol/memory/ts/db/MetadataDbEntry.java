@@ -1,15 +1,19 @@
 package lol.memory.ts.db;
 
 import java.nio.ByteBuffer;
-import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import lol.memory.ts.Twitter;
+import lombok.Value;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public abstract class MetadataDbEntry {
     private static final Logger logger = LoggerFactory.getLogger(MetadataDbEntry.class);
+    // The actual number is around 295107421000000.
+    static final long FIRST_SNOWFLAKE = 250000000000000L;
 
     public static Entry makeUserEntry(long userId, String screenName, long statusId) {
         return new UserEntry(userId, screenName, statusId);
@@ -38,16 +42,94 @@ public abstract class MetadataDbEntry {
         return new DeleteEntry(userId, statusId, timestampMillis);
     }
 
+    public static Entry makeTimelineEntry(long userId, long statusId, long timestampMillis) {
+        return new TimelineEntry(userId, statusId, timestampMillis);
+    }
+
+    public static Entry makeDeleteTimeEntry(long userId, long statusId, long timestampMillis) {
+        return new DeleteTimeEntry(userId, statusId, timestampMillis);
+    }
+
+    /**
+     * A decoded status value (short values only provide the user ID).
+     */
+    @Value
+    public static class Status {
+        private long statusId;
+        private long userId;
+        private Optional<Long> timestampMillis;
+        private Optional<Long> repliedToId;
+        private Optional<Long> quotedId;
+        private Optional<Long> retweetedId;
+        private List<Long> mentionedIds;
+
+        public boolean isFull() {
+            return this.timestampMillis.isPresent();
+        }
+    }
+
+    /**
+     * Decode the user ID from a user or deletion key.
+     */
+    public static long decodeUserId(byte[] key) {
+        return ByteBuffer.wrap(key, 1, 8).getLong();
+    }
+
+    /**
+     * Decode the status ID from a deletion key.
+     */
+    public static long decodeDeletedStatusId(byte[] key) {
+        return ByteBuffer.wrap(key, 9, 8).getLong();
+    }
+
+    /**
+     * Decode a user or screen name value (a sorted array of IDs).
+     */
+    public static long[] decodeIds(byte[] value) {
+        var result = new long[value.length / 8];
+        ByteBuffer.wrap(value).asLongBuffer().get(result);
+        return result;
+    }
+
+    public static Status decodeStatus(byte[] key, byte[] value) {
+        var statusId = ByteBuffer.wrap(key, 1, 8).getLong();
+        var buffer = ByteBuffer.wrap(value);
+        var userId = buffer.getLong();
+
+        if (!buffer.hasRemaining()) {
+            return new Status(statusId, userId, Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(),
+                    Collections.emptyList());
+        }
+
+        var timestampMillis = (statusId < FIRST_SNOWFLAKE) ? buffer.getLong()
+                : Twitter.extractTimestampMillis(statusId).get();
+        var tag = buffer.get();
+
+        if (tag == 4) {
+            return new Status(statusId, userId, Optional.of(timestampMillis), Optional.empty(), Optional.empty(),
+                    Optional.of(buffer.getLong()), Collections.emptyList());
+        }
+
+        var repliedToId = (tag == 1 || tag == 3) ? Optional.of(buffer.getLong()) : Optional.<Long> empty();
+        var quotedId = (tag == 2 || tag == 3) ? Optional.of(buffer.getLong()) : Optional.<Long> empty();
+        var mentionedIds = new ArrayList<Long>(buffer.remaining() / 8);
+        while (buffer.hasRemaining()) {
+            mentionedIds.add(buffer.getLong());
+        }
+
+        return new Status(statusId, userId, Optional.of(timestampMillis), repliedToId, quotedId, Optional.empty(),
+                mentionedIds);
+    }
+
     static final class UserEntry extends Entry {
         private static final byte TAG = 0;
         private final long statusId;
 
-        private static byte[] makeKey(long userId, String screenName) {
-            byte[] screenNameBytes = screenName.getBytes(StandardCharsets.UTF_8);
-            byte[] key = new byte[9 + screenNameBytes.length];
+        static byte[] makeKey(long userId, String screenName) {
+            byte[] key = new byte[9 + Entry.utf8Length(screenName)];
             key[0] = TAG;
             Entry.longToBytes(key, 1, userId);
-            System.arraycopy(screenNameBytes, 0, key, 9, screenNameBytes.length);
+            Entry.putUtf8(key, 9, screenName);
             return key;
         }
 
@@ -59,17 +141,27 @@ public abstract class MetadataDbEntry {
         public Optional<byte[]> updateValue(Optional<byte[]> previousValue) {
             return Entry.insertValue(previousValue, this.statusId);
         }
+
+        @Override
+        long getFingerprint() {
+            return Entry.fingerprint(this.getKey(), this.statusId);
+        }
+
+        @Override
+        boolean isSettledBy(ByteBuffer value) {
+            return Entry.containsValue(value, this.statusId);
+        }
     }
 
     static final class ScreenNameEntry extends Entry {
         private static final byte TAG = 1;
         private final long userId;
 
-        private static byte[] makeKey(String screenName) {
-            byte[] screenNameBytes = screenName.toLowerCase().getBytes(StandardCharsets.UTF_8);
-            byte[] key = new byte[1 + screenNameBytes.length];
+        static byte[] makeKey(String screenName) {
+            var lowerCase = screenName.toLowerCase();
+            byte[] key = new byte[1 + Entry.utf8Length(lowerCase)];
             key[0] = TAG;
-            System.arraycopy(screenNameBytes, 0, key, 1, screenNameBytes.length);
+            Entry.putUtf8(key, 1, lowerCase);
             return key;
         }
 
@@ -81,12 +173,20 @@ public abstract class MetadataDbEntry {
         public Optional<byte[]> updateValue(Optional<byte[]> previousValue) {
             return Entry.insertValue(previousValue, this.userId);
         }
+
+        @Override
+        long getFingerprint() {
+            return Entry.fingerprint(this.getKey(), this.userId);
+        }
+
+        @Override
+        boolean isSettledBy(ByteBuffer value) {
+            return Entry.containsValue(value, this.userId);
+        }
     }
 
     static final class StatusEntry extends Entry {
-        private static final byte TAG = 2;
-        // The actual number is around 295107421000000.
-        private static final long FIRST_SNOWFLAKE = 250000000000000L;
+        static final byte TAG = 2;
         private final Optional<Long> timestampMillis;
         private final long statusId;
         private final long userId;
@@ -96,7 +196,7 @@ public abstract class MetadataDbEntry {
         private final Optional<Long> retweetedId;
         private final List<Long> mentionedIds;
 
-        private static byte[] makeKey(long statusId) {
+        static byte[] makeKey(long statusId) {
             byte[] key = new byte[9];
             key[0] = TAG;
             Entry.longToBytes(key, 1, statusId);
@@ -128,14 +228,24 @@ public abstract class MetadataDbEntry {
             this.mentionedIds = mentionedIds;
         }
 
+        @Override
+        long getFingerprint() {
+            return this.statusId;
+        }
+
+        @Override
+        boolean isSettledBy(ByteBuffer value) {
+            return StatusEntry.isFullValue(value.remaining());
+        }
+
         // We only encode timestamps for pre-Snowflake IDs.
         private boolean timestampNeeded() {
             return this.statusId < FIRST_SNOWFLAKE;
         }
 
-        private boolean isFullValue(byte[] value) {
+        private static boolean isFullValue(int length) {
             // Short values have no tag, only a user ID.
-            return value.length != 8;
+            return length != 8;
         }
 
         private byte getStatusTag() {
@@ -158,7 +268,7 @@ public abstract class MetadataDbEntry {
 
         public Optional<byte[]> updateValue(Optional<byte[]> previousValue) {
             if (previousValue.isPresent()) {
-                if (isFullValue(previousValue.get())) {
+                if (StatusEntry.isFullValue(previousValue.get().length)) {
                     // Skip replacing a full value with anything.
                     return Optional.empty();
                 } else {
@@ -220,7 +330,7 @@ public abstract class MetadataDbEntry {
         private static final byte TAG = 3;
         private final Optional<Long> timestampMillis;
 
-        private static byte[] makeKey(long userId, long statusId) {
+        static byte[] makeKey(long userId, long statusId) {
             byte[] key = new byte[17];
             key[0] = TAG;
             Entry.longToBytes(key, 1, userId);
@@ -247,4 +357,70 @@ public abstract class MetadataDbEntry {
             }
         }
     }
+
+    /**
+     * Optional secondary index that supports time-ordered prefix scans of a user's statuses.
+     */
+    static final class TimelineEntry extends Entry {
+        static final byte TAG = 4;
+        private final long statusId;
+        private final long timestampMillis;
+
+        static byte[] makeKey(long userId, long statusId) {
+            byte[] key = new byte[17];
+            key[0] = TAG;
+            Entry.longToBytes(key, 1, userId);
+            Entry.longToBytes(key, 9, statusId);
+            return key;
+        }
+
+        TimelineEntry(long userId, long statusId, long timestampMillis) {
+            super(TimelineEntry.makeKey(userId, statusId));
+            this.statusId = statusId;
+            this.timestampMillis = timestampMillis;
+        }
+
+        public Optional<byte[]> updateValue(Optional<byte[]> previousValue) {
+            if (previousValue.isPresent()) {
+                return Optional.empty();
+            } else {
+                // As in status values, we only encode timestamps for pre-Snowflake IDs.
+                if (this.statusId < FIRST_SNOWFLAKE) {
+                    var result = new byte[8];
+                    Entry.longToBytes(result, 0, this.timestampMillis);
+                    return Optional.of(result);
+                } else {
+                    return Optional.of(new byte[0]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Optional secondary index that supports time-window scans of deletions across all users.
+     */
+    static final class DeleteTimeEntry extends Entry {
+        static final byte TAG = 5;
+
+        static byte[] makeKey(long timestampMillis, long userId, long statusId) {
+            byte[] key = new byte[25];
+            key[0] = TAG;
+            Entry.longToBytes(key, 1, timestampMillis);
+            Entry.longToBytes(key, 9, userId);
+            Entry.longToBytes(key, 17, statusId);
+            return key;
+        }
+
+        DeleteTimeEntry(long userId, long statusId, long timestampMillis) {
+            super(DeleteTimeEntry.makeKey(timestampMillis, userId, statusId));
+        }
+
+        public Optional<byte[]> updateValue(Optional<byte[]> previousValue) {
+            if (previousValue.isPresent()) {
+                return Optional.empty();
+            } else {
+                return Optional.of(new byte[0]);
+            }
+        }
+    }
 }
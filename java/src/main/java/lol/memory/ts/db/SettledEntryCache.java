@@ -0,0 +1,69 @@
+package lol.memory.ts.db;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of fingerprints for entries that are known to have no further effect on the database.
+ *
+ * <p>
+ * Some entries can never change a value again once the value has reached a certain state (for example a status entry
+ * when the stored status is full, or a screen name entry when its user ID is already in the stored array), so after
+ * that state has been committed, later entries with the same fingerprint can be skipped without reading the database.
+ * Fingerprints are stored in a direct-mapped table, where a new fingerprint simply replaces whatever was in its slot,
+ * so the cache never grows or locks, and forgetting an entry only costs a read. Fingerprints for key and member pairs
+ * are 64-bit hashes, so a false match needs a full 64-bit collision with the entry in the same slot.
+ *
+ * <p>
+ * Cached fingerprints never need invalidation. Entries only ever move values towards these states (by inserting into
+ * arrays, or by replacing short statuses with full ones) and nothing deletes keys, the cache is only updated after the
+ * settling write is committed, and it belongs to a single writable instance, which holds RocksDB's lock on the
+ * database, so no other process can change the database while the cache exists. A new instance starts with an empty
+ * cache.
+ */
+final class SettledEntryCache {
+    private final AtomicLongArray slots;
+    private final int mask;
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+
+    SettledEntryCache(int size) {
+        var slotCount = (size <= 1) ? 1 : Integer.highestOneBit(size - 1) << 1;
+        this.slots = new AtomicLongArray(slotCount);
+        this.mask = slotCount - 1;
+    }
+
+    /**
+     * Check whether a fingerprint is known to be settled (the fingerprint must not be zero).
+     */
+    boolean contains(long fingerprint) {
+        this.lookups.increment();
+
+        if (this.slots.get(this.index(fingerprint)) == fingerprint) {
+            this.hits.increment();
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Record that a fingerprint is settled (this must only be called once the settling value has been committed).
+     */
+    void add(long fingerprint) {
+        this.slots.lazySet(this.index(fingerprint), fingerprint);
+    }
+
+    long getLookupCount() {
+        return this.lookups.sum();
+    }
+
+    long getHitCount() {
+        return this.hits.sum();
+    }
+
+    private int index(long fingerprint) {
+        var mixed = fingerprint * 0x9e3779b97f4a7c15L;
+        return (int) (mixed ^ (mixed >>> 32)) & this.mask;
+    }
+}
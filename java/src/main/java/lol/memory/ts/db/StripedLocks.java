@@ -0,0 +1,63 @@
+package lol.memory.ts.db;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed array of locks shared by all keys, with each key guarded by the lock at its hash.
+ *
+ * <p>
+ * A thread that needs several keys takes their locks in index order, so threads can never deadlock, and since locks are
+ * taken without a timeout, waiting for a contended key can only ever be slow, never fail. Keys that share a lock are
+ * serialized unnecessarily, which is rare with enough stripes.
+ */
+final class StripedLocks {
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    StripedLocks(int count) {
+        var size = (count <= 1) ? 1 : Integer.highestOneBit(count - 1) << 1;
+        this.locks = new ReentrantLock[size];
+        this.mask = size - 1;
+
+        for (int i = 0; i < size; i += 1) {
+            this.locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * The distinct stripes for a set of keys, in the order in which they must be locked.
+     */
+    int[] stripes(Collection<byte[]> keys) {
+        var result = new int[keys.size()];
+        var i = 0;
+        for (byte[] key : keys) {
+            var hash = Arrays.hashCode(key);
+            result[i] = (hash ^ (hash >>> 16)) & this.mask;
+            i += 1;
+        }
+        Arrays.sort(result);
+
+        var distinct = 0;
+        for (int j = 0; j < result.length; j += 1) {
+            if (j == 0 || result[j] != result[j - 1]) {
+                result[distinct] = result[j];
+                distinct += 1;
+            }
+        }
+        return Arrays.copyOf(result, distinct);
+    }
+
+    void lock(int[] stripes) {
+        for (int stripe : stripes) {
+            this.locks[stripe].lock();
+        }
+    }
+
+    void unlock(int[] stripes) {
+        for (int i = stripes.length - 1; i >= 0; i -= 1) {
+            this.locks[stripes[i]].unlock();
+        }
+    }
+}
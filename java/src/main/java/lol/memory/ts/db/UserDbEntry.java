@@ -1,20 +1,165 @@
 package lol.memory.ts.db;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.TreeMap;
 import lol.memory.ts.avro.User;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.message.RawMessageDecoder;
 import org.apache.avro.message.RawMessageEncoder;
+import org.apache.avro.specific.SpecificData;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.Transaction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public abstract class UserDbEntry {
     private static final Logger logger = LoggerFactory.getLogger(UserDbEntry.class);
+    private static final SpecificData model = new User().getSpecificData();
+
+    /**
+     * How user snapshots are stored.
+     *
+     * <p>
+     * In the deduplicating modes, a full snapshot is only written when something other than the counters (follower,
+     * friend, listed, favourite, and status counts) differs from the user's preceding full snapshot. Otherwise the
+     * snapshot is either skipped or stored as the differences in the counters relative to that full snapshot. The
+     * creation time is treated as a counter, since it is currently taken from the status the user was seen with.
+     */
+    public enum SnapshotMode {
+        FULL, SKIP_COUNTERS, COUNTER_DELTAS
+    }
 
     public static Entry makeUserEntry(User user, long timestampMillis) {
         return new UserEntry(user, timestampMillis);
     }
 
+    /**
+     * Make the entry for a snapshot in the given storage mode (empty if nothing should be written).
+     */
+    public static Optional<Entry> makeUserEntry(Database db, Transaction tx, User user, long timestampMillis,
+            SnapshotMode mode) throws RocksDBException {
+        return UserDbEntry.makeUserEntry(db, Optional.of(tx), user, timestampMillis, mode);
+    }
+
+    /**
+     * Make the entry for a snapshot in the given storage mode, reading the database directly (the caller must hold the
+     * lock for the user, see {@link #makeLockKey(long)}).
+     */
+    public static Optional<Entry> makeUserEntry(Database db, User user, long timestampMillis, SnapshotMode mode)
+            throws RocksDBException {
+        return UserDbEntry.makeUserEntry(db, Optional.empty(), user, timestampMillis, mode);
+    }
+
+    /**
+     * The key that identifies the lock guarding all of a user's snapshots in striped mode.
+     */
+    static byte[] makeLockKey(long userId) {
+        return ByteBuffer.allocate(9).put((byte) 0).putLong(userId).array();
+    }
+
+    private static Optional<Entry> makeUserEntry(Database db, Optional<Transaction> tx, User user, long timestampMillis,
+            SnapshotMode mode) throws RocksDBException {
+        if (mode == SnapshotMode.FULL || user.getTimestamp().toEpochMilli() != timestampMillis) {
+            return Optional.of(new UserEntry(user, timestampMillis));
+        }
+
+        var key = UserEntry.makeKey(user.getId(), timestampMillis);
+        var deltaKey = CounterDeltaEntry.makeKey(user.getId(), timestampMillis);
+        if (tx.isPresent() ? db.contains(tx.get(), key) || db.contains(tx.get(), deltaKey)
+                : db.contains(key) || db.contains(deltaKey)) {
+            return Optional.empty();
+        }
+
+        var preceding = tx.isPresent() ? db.findPreceding(tx.get(), key, 9) : db.findPreceding(key, 9);
+        if (preceding.isPresent()) {
+            var base = UserDbEntry.decodeUser(preceding.get().getValue());
+
+            if (base.isPresent() && UserDbEntry.sameProfile(base.get(), user)) {
+                if (mode == SnapshotMode.SKIP_COUNTERS) {
+                    return Optional.empty();
+                } else {
+                    var baseTimestampMillis = ByteBuffer.wrap(preceding.get().getKey(), 9, 8).getLong();
+                    return Optional.of(new CounterDeltaEntry(user, timestampMillis, base.get(), baseTimestampMillis));
+                }
+            }
+        }
+
+        return Optional.of(new UserEntry(user, timestampMillis));
+    }
+
+    /**
+     * Read all stored snapshots for a user in time order (reconstructing any stored as counter deltas).
+     */
+    public static List<User> readSnapshots(Database db, long userId) {
+        var full = new TreeMap<Long, User>();
+        var deltas = new TreeMap<Long, byte[]>();
+
+        db.scan(UserEntry.makeKey(userId, 0L), UserEntry.makeKey(userId + 1, 0L), (key, value) -> {
+            UserDbEntry.decodeUser(value).ifPresent(user -> full.put(ByteBuffer.wrap(key, 9, 8).getLong(), user));
+            return true;
+        });
+        db.scan(CounterDeltaEntry.makeKey(userId, 0L), CounterDeltaEntry.makeKey(userId + 1, 0L), (key, value) -> {
+            deltas.put(ByteBuffer.wrap(key, 9, 8).getLong(), value);
+            return true;
+        });
+
+        var result = new TreeMap<Long, User>(full);
+        for (var delta : deltas.entrySet()) {
+            try {
+                var decoder = DecoderFactory.get().binaryDecoder(delta.getValue(), null);
+                var base = full.get(decoder.readLong());
+
+                if (base == null) {
+                    UserDbEntry.logger.error("Missing base snapshot for user {} at {}", userId, delta.getKey());
+                } else {
+                    var user = User.newBuilder(base).setTimestamp(Instant.ofEpochMilli(delta.getKey()))
+                            .setFollowersCount(base.getFollowersCount() + decoder.readLong())
+                            .setFriendsCount(base.getFriendsCount() + decoder.readLong())
+                            .setListedCount(base.getListedCount() + decoder.readLong())
+                            .setFavouritesCount(base.getFavouritesCount() + decoder.readLong())
+                            .setStatusesCount(base.getStatusesCount() + decoder.readLong())
+                            .setCreatedAt(Instant.ofEpochMilli(base.getCreatedAt().toEpochMilli() + decoder.readLong()))
+                            .build();
+                    result.put(delta.getKey(), user);
+                }
+            } catch (IOException error) {
+                UserDbEntry.logger.error("Error decoding counter delta for user {}: {}", userId, error.getMessage());
+            }
+        }
+
+        return new ArrayList<>(result.values());
+    }
+
+    static Optional<User> decodeUser(byte[] value) {
+        try {
+            var decoder = new RawMessageDecoder<User>(UserDbEntry.model, User.getClassSchema());
+            return Optional.of(decoder.decode(new ByteArrayInputStream(value)));
+        } catch (IOException error) {
+            UserDbEntry.logger.error("Error decoding user from Avro: {}", error.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Compare everything except the snapshot timestamps, the counters, and the creation times.
+     */
+    private static boolean sameProfile(User base, User user) {
+        var normalized = User.newBuilder(user).setTimestamp(base.getTimestamp())
+                .setFollowersCount(base.getFollowersCount()).setFriendsCount(base.getFriendsCount())
+                .setListedCount(base.getListedCount()).setFavouritesCount(base.getFavouritesCount())
+                .setStatusesCount(base.getStatusesCount()).setCreatedAt(base.getCreatedAt()).build();
+
+        return base.equals(normalized);
+    }
+
     static final class UserEntry extends Entry {
         private static final byte TAG = 0;
         private final User user;
@@ -50,4 +195,57 @@ public abstract class UserDbEntry {
             }
         }
     }
+
+    /**
+     * A snapshot that only differs from a full snapshot in its counters.
+     *
+     * <p>
+     * The value is the timestamp of the full snapshot followed by the differences in the five counters and the creation
+     * time, all as Avro (zig-zag variable-length) longs.
+     */
+    static final class CounterDeltaEntry extends Entry {
+        private static final byte TAG = 1;
+        private final User user;
+        private final User base;
+        private final long baseTimestampMillis;
+
+        private static byte[] makeKey(long userId, long timestampMillis) {
+            byte[] key = new byte[17];
+            key[0] = TAG;
+            Entry.longToBytes(key, 1, userId);
+            Entry.longToBytes(key, 9, timestampMillis);
+            return key;
+        }
+
+        CounterDeltaEntry(User user, long timestampMillis, User base, long baseTimestampMillis) {
+            super(CounterDeltaEntry.makeKey(user.getId(), timestampMillis));
+            this.user = user;
+            this.base = base;
+            this.baseTimestampMillis = baseTimestampMillis;
+        }
+
+        public Optional<byte[]> updateValue(Optional<byte[]> previousValue) {
+            if (previousValue.isPresent()) {
+                return Optional.empty();
+            } else {
+                try {
+                    var stream = new ByteArrayOutputStream(32);
+                    var encoder = EncoderFactory.get().directBinaryEncoder(stream, null);
+                    encoder.writeLong(this.baseTimestampMillis);
+                    encoder.writeLong(this.user.getFollowersCount() - this.base.getFollowersCount());
+                    encoder.writeLong(this.user.getFriendsCount() - this.base.getFriendsCount());
+                    encoder.writeLong(this.user.getListedCount() - this.base.getListedCount());
+                    encoder.writeLong(this.user.getFavouritesCount() - this.base.getFavouritesCount());
+                    encoder.writeLong(this.user.getStatusesCount() - this.base.getStatusesCount());
+                    encoder.writeLong(
+                            this.user.getCreatedAt().toEpochMilli() - this.base.getCreatedAt().toEpochMilli());
+                    encoder.flush();
+                    return Optional.of(stream.toByteArray());
+                } catch (IOException error) {
+                    UserDbEntry.logger.error("Error encoding counter delta for user {}: {}", user.getId(), error);
+                }
+                return Optional.empty();
+            }
+        }
+    }
 }
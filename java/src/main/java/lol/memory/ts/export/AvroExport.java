@@ -0,0 +1,156 @@
+package lol.memory.ts.export;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lol.memory.ts.avro.metadata.Deletion;
+import lol.memory.ts.avro.metadata.ScreenName;
+import lol.memory.ts.avro.metadata.Status;
+import lol.memory.ts.avro.metadata.UserScreenName;
+import lol.memory.ts.db.Database;
+import lol.memory.ts.db.MetadataDbEntry;
+import org.apache.avro.Schema;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.avro.specific.SpecificRecord;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Application that exports a metadata database as Avro container files.
+ *
+ * <p>
+ * Each record type is split into key ranges that are decoded and written in parallel, with one file per range (named
+ * for the type and the position of the range), so that readers can also process the output in parallel.
+ */
+public final class AvroExport {
+    private static final Logger logger = LoggerFactory.getLogger(AvroExport.class);
+
+    public static void main(String[] args) throws IOException, RocksDBException {
+        RocksDB.loadLibrary();
+        var outputPath = Path.of(args[1]);
+        var numThreads = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        var codec = CodecFactory.fromString((args.length > 3) ? args[3] : "deflate");
+
+        try (var db = Database.openReadOnly(args[0])) {
+            AvroExport.export(db, outputPath, numThreads, codec);
+        }
+    }
+
+    public enum RecordType {
+        USER((byte) 0, UserScreenName.getClassSchema()) {
+            SpecificRecord decode(byte[] key, byte[] value) {
+                var userId = MetadataDbEntry.decodeUserId(key);
+                var screenName = new String(key, 9, key.length - 9, StandardCharsets.UTF_8);
+                return new UserScreenName(userId, screenName, AvroExport.toList(MetadataDbEntry.decodeIds(value)));
+            }
+        },
+        SCREEN_NAME((byte) 1, ScreenName.getClassSchema()) {
+            SpecificRecord decode(byte[] key, byte[] value) {
+                var screenName = new String(key, 1, key.length - 1, StandardCharsets.UTF_8);
+                return new ScreenName(screenName, AvroExport.toList(MetadataDbEntry.decodeIds(value)));
+            }
+        },
+        STATUS((byte) 2, Status.getClassSchema()) {
+            SpecificRecord decode(byte[] key, byte[] value) {
+                var status = MetadataDbEntry.decodeStatus(key, value);
+                return new Status(status.getStatusId(), status.getUserId(), status.isFull(),
+                        status.getTimestampMillis().map(Instant::ofEpochMilli).orElse(null),
+                        status.getRepliedToId().orElse(null), status.getQuotedId().orElse(null),
+                        status.getRetweetedId().orElse(null), status.getMentionedIds());
+            }
+        },
+        DELETION((byte) 3, Deletion.getClassSchema()) {
+            SpecificRecord decode(byte[] key, byte[] value) {
+                var timestamp = (value.length == 8) ? Instant.ofEpochMilli(ByteBuffer.wrap(value).getLong()) : null;
+                return new Deletion(MetadataDbEntry.decodeUserId(key), MetadataDbEntry.decodeDeletedStatusId(key),
+                        timestamp);
+            }
+        };
+
+        private final byte tag;
+        private final Schema schema;
+
+        RecordType(byte tag, Schema schema) {
+            this.tag = tag;
+            this.schema = schema;
+        }
+
+        abstract SpecificRecord decode(byte[] key, byte[] value);
+    }
+
+    public static long export(Database db, Path outputPath, int numThreads, CodecFactory codec) throws IOException {
+        Files.createDirectories(outputPath);
+        var startTime = System.nanoTime();
+        var pool = Executors.newFixedThreadPool(numThreads);
+        var futures = new ArrayList<Future<Long>>();
+
+        for (RecordType recordType : RecordType.values()) {
+            var bounds = db.splitRange(new byte[] { recordType.tag }, new byte[] { (byte) (recordType.tag + 1) },
+                    numThreads * 4);
+
+            for (int i = 0; i < bounds.size() - 1; i += 1) {
+                var lower = bounds.get(i);
+                var upper = bounds.get(i + 1);
+                var path = outputPath.resolve(String.format("%s-%05d.avro", recordType.name().toLowerCase(), i));
+                futures.add(pool.submit(() -> AvroExport.exportRange(db, recordType, lower, upper, path, codec)));
+            }
+        }
+        pool.shutdown();
+
+        long count = 0;
+        try {
+            for (Future<Long> future : futures) {
+                count += future.get();
+            }
+        } catch (InterruptedException | ExecutionException error) {
+            pool.shutdownNow();
+            throw new IOException("Avro export failed", error);
+        }
+
+        var seconds = (System.nanoTime() - startTime) / 1e9;
+        AvroExport.logger.info("Exported {} records to {} files in {} seconds ({} records/s, {} threads)", count,
+                futures.size(), String.format("%.2f", seconds), String.format("%.0f", count / seconds), numThreads);
+
+        return count;
+    }
+
+    private static long exportRange(Database db, RecordType recordType, byte[] lower, byte[] upper, Path path,
+            CodecFactory codec) throws IOException {
+        var count = new long[] { 0 };
+
+        try (var writer = new DataFileWriter<SpecificRecord>(new SpecificDatumWriter<>(recordType.schema))) {
+            writer.setCodec(codec);
+            writer.create(recordType.schema, path.toFile());
+
+            db.scan(lower, upper, (key, value) -> {
+                try {
+                    writer.append(recordType.decode(key, value));
+                    count[0] += 1;
+                } catch (IOException error) {
+                    throw new UncheckedIOException(error);
+                }
+                return true;
+            });
+        }
+
+        return count[0];
+    }
+
+    private static List<Long> toList(long[] values) {
+        return Arrays.asList(Arrays.stream(values).boxed().toArray(Long[]::new));
+    }
+}
@@ -0,0 +1,225 @@
+package lol.memory.ts.export;
+
+import com.alibaba.fastjson.JSONObject;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.BiPredicate;
+import lol.memory.ts.db.Database;
+import lol.memory.ts.db.Lookup;
+import lol.memory.ts.db.MetadataDbEntry;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Application that exports user-to-user interaction graphs from a metadata database in compressed sparse row format.
+ *
+ * <p>
+ * All graphs share a single node table ({@code nodes.i64}, the sorted user IDs). For each relation there is an offset
+ * array ({@code <relation>.offsets.i64}, one more than the number of nodes), a target array
+ * ({@code <relation>.edges.i32}, node indices), and a parallel weight array ({@code <relation>.weights.i32}, the number
+ * of statuses that produced the edge). Every file is a raw little-endian array that can be memory-mapped directly, and
+ * {@code manifest.json} records the sizes.
+ */
+public final class GraphExport {
+    private static final Logger logger = LoggerFactory.getLogger(GraphExport.class);
+
+    public enum Relation {
+        REPLY, MENTION, QUOTE, RETWEET
+    }
+
+    public static void main(String[] args) throws IOException, RocksDBException {
+        RocksDB.loadLibrary();
+        var outputPath = Path.of(args[1]);
+        var numThreads = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        try (var db = Database.openReadOnly(args[0])) {
+            GraphExport.export(db, outputPath, numThreads);
+        }
+    }
+
+    public static void export(Database db, Path outputPath, int numThreads) throws IOException {
+        var lookup = new Lookup(db);
+        var parts = db.scanParallel(new byte[] { 2 }, new byte[] { 3 }, numThreads, () -> new EdgeCollector(lookup));
+        var relations = Relation.values();
+        var edges = new long[relations.length][];
+
+        long userIdCount = 0;
+        for (Relation relation : relations) {
+            long length = 0;
+            for (EdgeCollector part : parts) {
+                length += part.edges[relation.ordinal()].size;
+            }
+            var values = new long[Math.toIntExact(length)];
+            var offset = 0;
+            for (EdgeCollector part : parts) {
+                var list = part.edges[relation.ordinal()];
+                System.arraycopy(list.values, 0, values, offset, list.size);
+                offset += list.size;
+            }
+            edges[relation.ordinal()] = values;
+            userIdCount += values.length;
+        }
+
+        // Edges are stored as source and target user ID pairs, so the node table is the distinct values.
+        var nodes = new long[Math.toIntExact(userIdCount)];
+        var position = 0;
+        for (long[] values : edges) {
+            System.arraycopy(values, 0, nodes, position, values.length);
+            position += values.length;
+        }
+        Arrays.parallelSort(nodes);
+        nodes = Arrays.stream(nodes).distinct().toArray();
+
+        Files.createDirectories(outputPath);
+        GraphExport.writeLongs(outputPath.resolve("nodes.i64"), nodes, nodes.length);
+
+        var manifest = new JSONObject(true);
+        manifest.put("nodes", nodes.length);
+
+        for (Relation relation : relations) {
+            var name = relation.name().toLowerCase();
+            var edgeCount = GraphExport.writeRelation(outputPath, name, nodes, edges[relation.ordinal()]);
+            manifest.put(name, edgeCount);
+            GraphExport.logger.info("Wrote {} graph with {} edges", name, edgeCount);
+        }
+
+        Files.writeString(outputPath.resolve("manifest.json"), manifest.toJSONString(), StandardCharsets.UTF_8);
+    }
+
+    private static int writeRelation(Path outputPath, String name, long[] nodes, long[] userIdPairs)
+            throws IOException {
+        // Encode each edge as a single long (source index in the high bits) so that sorting groups them by source.
+        var encoded = new long[userIdPairs.length / 2];
+        for (int i = 0; i < encoded.length; i += 1) {
+            long source = Arrays.binarySearch(nodes, userIdPairs[2 * i]);
+            long target = Arrays.binarySearch(nodes, userIdPairs[2 * i + 1]);
+            encoded[i] = (source << 32) | target;
+        }
+        Arrays.parallelSort(encoded);
+
+        var offsets = new long[nodes.length + 1];
+        var targets = new int[encoded.length];
+        var weights = new int[encoded.length];
+        var edgeCount = 0;
+
+        for (int i = 0; i < encoded.length; i += 1) {
+            if (i > 0 && encoded[i] == encoded[i - 1]) {
+                weights[edgeCount - 1] += 1;
+            } else {
+                offsets[(int) (encoded[i] >>> 32) + 1] += 1;
+                targets[edgeCount] = (int) encoded[i];
+                weights[edgeCount] = 1;
+                edgeCount += 1;
+            }
+        }
+        for (int i = 1; i < offsets.length; i += 1) {
+            offsets[i] += offsets[i - 1];
+        }
+
+        GraphExport.writeLongs(outputPath.resolve(name + ".offsets.i64"), offsets, offsets.length);
+        GraphExport.writeInts(outputPath.resolve(name + ".edges.i32"), targets, edgeCount);
+        GraphExport.writeInts(outputPath.resolve(name + ".weights.i32"), weights, edgeCount);
+
+        return edgeCount;
+    }
+
+    private static void writeLongs(Path path, long[] values, int length) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            var buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < length; i += 1) {
+                if (buffer.remaining() < 8) {
+                    GraphExport.drain(channel, buffer);
+                }
+                buffer.putLong(values[i]);
+            }
+            GraphExport.drain(channel, buffer);
+        }
+    }
+
+    private static void writeInts(Path path, int[] values, int length) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            var buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < length; i += 1) {
+                if (buffer.remaining() < 4) {
+                    GraphExport.drain(channel, buffer);
+                }
+                buffer.putInt(values[i]);
+            }
+            GraphExport.drain(channel, buffer);
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Collects edges (as user ID pairs) from one range of status values.
+     */
+    private static final class EdgeCollector implements BiPredicate<byte[], byte[]> {
+        private final Lookup lookup;
+        private final LongList[] edges = new LongList[Relation.values().length];
+
+        EdgeCollector(Lookup lookup) {
+            this.lookup = lookup;
+            for (int i = 0; i < this.edges.length; i += 1) {
+                this.edges[i] = new LongList();
+            }
+        }
+
+        public boolean test(byte[] key, byte[] value) {
+            var status = MetadataDbEntry.decodeStatus(key, value);
+            var userId = status.getUserId();
+
+            status.getRepliedToId().ifPresent(id -> this.addStatusEdge(Relation.REPLY, userId, id));
+            status.getQuotedId().ifPresent(id -> this.addStatusEdge(Relation.QUOTE, userId, id));
+            status.getRetweetedId().ifPresent(id -> this.addStatusEdge(Relation.RETWEET, userId, id));
+
+            for (long mentionedId : status.getMentionedIds()) {
+                this.edges[Relation.MENTION.ordinal()].add(userId, mentionedId);
+            }
+
+            return true;
+        }
+
+        private void addStatusEdge(Relation relation, long userId, long statusId) {
+            try {
+                var target = this.lookup.lookupStatus(statusId);
+                if (target.isPresent()) {
+                    this.edges[relation.ordinal()].add(userId, target.get().getUserId());
+                }
+            } catch (RocksDBException error) {
+                GraphExport.logger.error("Error looking up status {}: {}", statusId, error.getMessage());
+            }
+        }
+    }
+
+    private static final class LongList {
+        private long[] values = new long[1024];
+        private int size = 0;
+
+        void add(long first, long second) {
+            if (this.size + 2 > this.values.length) {
+                this.values = Arrays.copyOf(this.values, Math.multiplyExact(this.values.length, 2));
+            }
+            this.values[this.size] = first;
+            this.values[this.size + 1] = second;
+            this.size += 2;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package lol.memory.ts.export;
+
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.GZIPOutputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorOutputStream;
+
+/**
+ * Line-oriented output split across a fixed number of shard files, for use from many threads.
+ *
+ * <p>
+ * Lines are assigned to shards by key, so the content of each shard (but not the order of its lines) depends only on
+ * the input. Each thread accumulates lines in its own buffer for every shard it writes to, and only takes a shard's
+ * lock to hand over a full buffer, so writers rarely contend. A thread's buffers share a fixed budget, so with many
+ * shards each buffer is smaller (and handed over more often) rather than memory growing with both threads and shards.
+ * Closing the writer flushes the remaining buffers (all writing threads must have finished), closes every shard, and
+ * writes a manifest describing the shards if all of them were written successfully.
+ */
+public final class ShardedWriter implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MIN_BUFFER_SIZE = 1 << 12;
+    private static final int THREAD_BUFFER_SIZE = 1 << 19;
+    private final Path outputPath;
+    private final Compression compression;
+    private final Shard[] shards;
+    private final int bufferSize;
+    private final ConcurrentLinkedQueue<StringBuilder[]> allBuffers = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<StringBuilder[]> buffers;
+
+    public enum Compression {
+        NONE(""), GZIP(".gz"), ZSTD(".zst");
+
+        private final String extension;
+
+        Compression(String extension) {
+            this.extension = extension;
+        }
+
+        OutputStream wrap(OutputStream stream) throws IOException {
+            switch (this) {
+            case GZIP:
+                return new GZIPOutputStream(stream, BUFFER_SIZE);
+            case ZSTD:
+                return new ZstdCompressorOutputStream(stream);
+            default:
+                return stream;
+            }
+        }
+    }
+
+    public ShardedWriter(Path outputPath, String prefix, int numShards, Compression compression) throws IOException {
+        Files.createDirectories(outputPath);
+        this.outputPath = outputPath;
+        this.compression = compression;
+        this.shards = new Shard[numShards];
+        this.bufferSize = Math.min(BUFFER_SIZE, Math.max(MIN_BUFFER_SIZE, THREAD_BUFFER_SIZE / numShards));
+
+        for (int i = 0; i < numShards; i += 1) {
+            var name = String.format("%s-%05d.jsonl%s", prefix, i, compression.extension);
+            this.shards[i] = new Shard(name, compression
+                    .wrap(new BufferedOutputStream(Files.newOutputStream(outputPath.resolve(name)), BUFFER_SIZE)));
+        }
+
+        // Buffers are only allocated for the shards a thread actually writes to.
+        this.buffers = ThreadLocal.withInitial(() -> {
+            var result = new StringBuilder[numShards];
+            this.allBuffers.add(result);
+            return result;
+        });
+    }
+
+    public void write(long key, String line) {
+        var index = (int) Long.remainderUnsigned(key, this.shards.length);
+        var threadBuffers = this.buffers.get();
+        var buffer = threadBuffers[index];
+        if (buffer == null) {
+            buffer = new StringBuilder(this.bufferSize);
+            threadBuffers[index] = buffer;
+        }
+        buffer.append(line).append('\n');
+
+        if (buffer.length() >= this.bufferSize) {
+            this.shards[index].drain(buffer);
+        }
+    }
+
+    /**
+     * Flush and close every shard, even if some fail (the first error is thrown, with any others suppressed).
+     */
+    public void close() throws IOException {
+        IOException error = null;
+
+        for (int i = 0; i < this.shards.length; i += 1) {
+            try {
+                for (StringBuilder[] threadBuffers : this.allBuffers) {
+                    if (threadBuffers[i] != null) {
+                        this.shards[i].drain(threadBuffers[i]);
+                    }
+                }
+            } catch (UncheckedIOException drainError) {
+                error = ShardedWriter.addError(error, drainError.getCause());
+            }
+
+            try {
+                this.shards[i].writer.close();
+            } catch (IOException closeError) {
+                error = ShardedWriter.addError(error, closeError);
+            }
+        }
+
+        if (error != null) {
+            throw error;
+        }
+
+        var files = new JSONArray();
+        long total = 0;
+        for (Shard shard : this.shards) {
+            var file = new JSONObject(true);
+            file.put("file", shard.name);
+            file.put("lines", shard.lineCount);
+            files.add(file);
+            total += shard.lineCount;
+        }
+
+        var manifest = new JSONObject(true);
+        manifest.put("compression", this.compression.name().toLowerCase());
+        manifest.put("lines", total);
+        manifest.put("shards", files);
+        Files.writeString(this.outputPath.resolve("manifest.json"), manifest.toJSONString(), StandardCharsets.UTF_8);
+    }
+
+    private static IOException addError(IOException error, IOException next) {
+        if (error == null) {
+            return next;
+        }
+        error.addSuppressed(next);
+        return error;
+    }
+
+    public List<Path> getShardPaths() {
+        var result = new ArrayList<Path>(this.shards.length);
+        for (Shard shard : this.shards) {
+            result.add(this.outputPath.resolve(shard.name));
+        }
+        return result;
+    }
+
+    private static final class Shard {
+        private final String name;
+        private final Writer writer;
+        private long lineCount = 0;
+
+        Shard(String name, OutputStream stream) {
+            this.name = name;
+            this.writer = new OutputStreamWriter(stream, StandardCharsets.UTF_8);
+        }
+
+        void drain(StringBuilder buffer) {
+            var count = 0;
+            for (int i = 0; i < buffer.length(); i += 1) {
+                if (buffer.charAt(i) == '\n') {
+                    count += 1;
+                }
+            }
+
+            synchronized (this) {
+                try {
+                    this.writer.append(buffer);
+                    this.lineCount += count;
+                } catch (IOException error) {
+                    throw new UncheckedIOException(error);
+                }
+            }
+            buffer.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package lol.memory.ts.index;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import lol.memory.ts.db.Database;
+import lombok.Value;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Memory-mapped screen name autocomplete index.
+ *
+ * <p>
+ * The file contains the lowercased screen names in key order (the order of the screen name keys in the metadata
+ * database) together with their observation counts and a range-maximum tree over those counts. A prefix query is two
+ * binary searches followed by a best-first walk of the tree, so the top k matches are found in O(k log n) time no
+ * matter how many names share the prefix.
+ */
+public final class ScreenNameIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ScreenNameIndex.class);
+    private static final int MAGIC = 0x534e4931;
+    private static final int HEADER_LENGTH = 16;
+    private final int size;
+    private final int treeSize;
+    private final IntBuffer offsets;
+    private final LongBuffer counts;
+    private final IntBuffer tree;
+    private final ByteBuffer names;
+
+    /**
+     * Rebuild an index file from a metadata database and print the top matches for any given prefixes.
+     */
+    public static void main(String[] args) throws IOException, RocksDBException {
+        RocksDB.loadLibrary();
+        var indexPath = Path.of(args[1]);
+
+        try (var db = Database.openReadOnly(args[0])) {
+            ScreenNameIndex.build(db, indexPath);
+        }
+
+        var index = ScreenNameIndex.open(indexPath);
+        ScreenNameIndex.logger.info("Wrote screen name index with {} names", index.size());
+
+        for (int i = 2; i < args.length; i += 1) {
+            for (Match match : index.lookup(args[i], 10)) {
+                System.out.printf("%s,%d\n", match.getScreenName(), match.getCount());
+            }
+        }
+    }
+
+    @Value
+    public static class Match {
+        private String screenName;
+        private long count;
+    }
+
+    /**
+     * Observation counts gathered during an import, for incremental updates.
+     */
+    public static final class Delta {
+        private final Map<String, LongAdder> counts = new ConcurrentHashMap<>();
+
+        public void add(String screenName, long count) {
+            this.counts.computeIfAbsent(screenName.toLowerCase(), key -> new LongAdder()).add(count);
+        }
+
+        public boolean isEmpty() {
+            return this.counts.isEmpty();
+        }
+    }
+
+    public static ScreenNameIndex open(Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            var header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_LENGTH);
+
+            if (header.getInt() != MAGIC) {
+                throw new IOException(String.format("Invalid screen name index file: %s", path));
+            }
+
+            var size = header.getInt();
+            var treeSize = header.getInt();
+            var namesLength = header.getInt();
+
+            long position = HEADER_LENGTH;
+            var offsets = channel.map(FileChannel.MapMode.READ_ONLY, position, (size + 1) * 4L).asIntBuffer();
+            position += (size + 1) * 4L;
+            var counts = channel.map(FileChannel.MapMode.READ_ONLY, position, size * 8L).asLongBuffer();
+            position += size * 8L;
+            var tree = channel.map(FileChannel.MapMode.READ_ONLY, position, treeSize * 8L).asIntBuffer();
+            position += treeSize * 8L;
+            var names = channel.map(FileChannel.MapMode.READ_ONLY, position, namesLength);
+
+            return new ScreenNameIndex(size, treeSize, offsets, counts, tree, names);
+        }
+    }
+
+    private ScreenNameIndex(int size, int treeSize, IntBuffer offsets, LongBuffer counts, IntBuffer tree,
+            ByteBuffer names) {
+        this.size = size;
+        this.treeSize = treeSize;
+        this.offsets = offsets;
+        this.counts = counts;
+        this.tree = tree;
+        this.names = names;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public String getScreenName(int i) {
+        var start = this.offsets.get(i);
+        var bytes = new byte[this.offsets.get(i + 1) - start];
+        this.names.duplicate().position(start).get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public long getCount(int i) {
+        return this.counts.get(i);
+    }
+
+    /**
+     * Find the (at most) k screen names with the given prefix that have been observed most often.
+     */
+    public List<Match> lookup(String prefix, int k) {
+        var prefixBytes = prefix.toLowerCase().getBytes(StandardCharsets.UTF_8);
+        var lower = this.search(prefixBytes, false);
+        var upper = this.search(prefixBytes, true);
+        var result = new ArrayList<Match>(Math.min(k, upper - lower));
+
+        // Each queued range is represented by its bounds and the position of its maximum.
+        var queue = new PriorityQueue<int[]>((a, b) -> Long.compare(this.counts.get(b[2]), this.counts.get(a[2])));
+
+        if (lower < upper) {
+            queue.add(new int[] { lower, upper, this.argMax(lower, upper) });
+        }
+
+        while (result.size() < k && !queue.isEmpty()) {
+            var range = queue.poll();
+            var i = range[2];
+            result.add(new Match(this.getScreenName(i), this.counts.get(i)));
+
+            if (range[0] < i) {
+                queue.add(new int[] { range[0], i, this.argMax(range[0], i) });
+            }
+            if (i + 1 < range[1]) {
+                queue.add(new int[] { i + 1, range[1], this.argMax(i + 1, range[1]) });
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Find the first position whose name is not less than the prefix (or, if {@code after} is set, the first position
+     * whose name is greater than every name starting with the prefix).
+     */
+    private int search(byte[] prefix, boolean after) {
+        int low = 0;
+        int high = this.size;
+
+        while (low < high) {
+            var middle = (low + high) >>> 1;
+            var comparison = this.comparePrefix(middle, prefix);
+            if (comparison < 0 || (after && comparison == 0)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Compare the name at the given position (truncated to the length of the prefix) with the prefix.
+     */
+    private int comparePrefix(int i, byte[] prefix) {
+        var start = this.offsets.get(i);
+        var length = this.offsets.get(i + 1) - start;
+
+        for (int j = 0; j < prefix.length; j += 1) {
+            if (j == length) {
+                return -1;
+            }
+            var comparison = Integer.compare(Byte.toUnsignedInt(this.names.get(start + j)),
+                    Byte.toUnsignedInt(prefix[j]));
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+
+        return 0;
+    }
+
+    private int argMax(int lower, int upper) {
+        int best = -1;
+        int left = lower + this.treeSize;
+        int right = upper + this.treeSize;
+
+        while (left < right) {
+            if ((left & 1) == 1) {
+                best = this.better(best, this.tree.get(left));
+                left += 1;
+            }
+            if ((right & 1) == 1) {
+                right -= 1;
+                best = this.better(best, this.tree.get(right));
+            }
+            left >>= 1;
+            right >>= 1;
+        }
+
+        return best;
+    }
+
+    private int better(int i, int j) {
+        if (i == -1) {
+            return j;
+        } else if (j == -1) {
+            return i;
+        } else {
+            var comparison = Long.compare(this.counts.get(i), this.counts.get(j));
+            return (comparison > 0 || (comparison == 0 && i < j)) ? i : j;
+        }
+    }
+
+    /**
+     * Rebuild the index from the user keys in a metadata database (which record every observation of every screen
+     * name).
+     */
+    public static void build(Database db, Path path) throws IOException {
+        var counts = new HashMap<String, Long>();
+
+        db.scan(new byte[] { 0 }, new byte[] { 1 }, (key, value) -> {
+            var screenName = new String(key, 9, key.length - 9, StandardCharsets.UTF_8).toLowerCase();
+            counts.merge(screenName, (long) (value.length / 8), Long::sum);
+            return true;
+        });
+
+        ScreenNameIndex.write(path, counts);
+    }
+
+    /**
+     * Add the observations gathered during an import to an existing index (or create a new one if none exists).
+     */
+    public static void update(Path path, Delta delta) throws IOException {
+        var counts = new HashMap<String, Long>();
+
+        if (Files.exists(path)) {
+            var existing = ScreenNameIndex.open(path);
+            for (int i = 0; i < existing.size(); i += 1) {
+                counts.put(existing.getScreenName(i), existing.getCount(i));
+            }
+        }
+
+        for (Map.Entry<String, LongAdder> entry : delta.counts.entrySet()) {
+            counts.merge(entry.getKey(), entry.getValue().sum(), Long::sum);
+        }
+
+        ScreenNameIndex.write(path, counts);
+    }
+
+    /**
+     * Write an index file atomically, so that readers always see either the previous or the new version.
+     */
+    static void write(Path path, Map<String, Long> counts) throws IOException {
+        var size = counts.size();
+        var entries = new ArrayList<Map.Entry<byte[], Long>>(size);
+
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            entries.add(Map.entry(entry.getKey().getBytes(StandardCharsets.UTF_8), entry.getValue()));
+        }
+        entries.sort((a, b) -> Arrays.compareUnsigned(a.getKey(), b.getKey()));
+
+        var names = new byte[size][];
+        var sortedCounts = new long[size];
+        long namesLength = 0;
+
+        int i;
+        for (i = 0; i < size; i += 1) {
+            names[i] = entries.get(i).getKey();
+            sortedCounts[i] = entries.get(i).getValue();
+            namesLength += names[i].length;
+        }
+
+        if (namesLength > Integer.MAX_VALUE) {
+            throw new IOException("Too many screen names for index");
+        }
+
+        int treeSize = 1;
+        while (treeSize < size) {
+            treeSize <<= 1;
+        }
+
+        var tree = new int[treeSize * 2];
+        Arrays.fill(tree, -1);
+        for (i = 0; i < size; i += 1) {
+            tree[treeSize + i] = i;
+        }
+        for (i = treeSize - 1; i > 0; i -= 1) {
+            var left = tree[2 * i];
+            var right = tree[2 * i + 1];
+            tree[i] = (right == -1 || (left != -1 && sortedCounts[left] >= sortedCounts[right])) ? left : right;
+        }
+
+        var tmpPath = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (var output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpPath)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(size);
+            output.writeInt(treeSize);
+            output.writeInt((int) namesLength);
+
+            int offset = 0;
+            for (i = 0; i < size; i += 1) {
+                output.writeInt(offset);
+                offset += names[i].length;
+            }
+            output.writeInt(offset);
+
+            for (i = 0; i < size; i += 1) {
+                output.writeLong(sortedCounts[i]);
+            }
+            for (i = 0; i < tree.length; i += 1) {
+                output.writeInt(tree[i]);
+            }
+            for (i = 0; i < size; i += 1) {
+                output.write(names[i]);
+            }
+        }
+
+        Files.move(tmpPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
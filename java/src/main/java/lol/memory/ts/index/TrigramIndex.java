@@ -0,0 +1,399 @@
+package lol.memory.ts.index;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiPredicate;
+import lol.memory.ts.db.Database;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Memory-mapped trigram index for fuzzy and substring screen name search.
+ *
+ * <p>
+ * Screen names are identified by their position in key order. Each trigram of the padded, lowercased UTF-8 name maps to
+ * a posting list of these positions, stored as variable-length deltas. Candidates for a query are found by merging the
+ * posting lists of the query's trigrams, and are then verified against the name itself.
+ */
+public final class TrigramIndex {
+    private static final Logger logger = LoggerFactory.getLogger(TrigramIndex.class);
+    private static final int MAGIC = 0x54524931;
+    private static final int HEADER_LENGTH = 20;
+    // Screen names never contain NUL, so we use it to mark the beginning and end of the name.
+    private static final byte PADDING = 0;
+    private final int size;
+    private final int trigramCount;
+    private final IntBuffer offsets;
+    private final ByteBuffer names;
+    private final IntBuffer trigrams;
+    private final IntBuffer postingOffsets;
+    private final ByteBuffer postings;
+
+    /**
+     * Rebuild an index file from a metadata database and print the matches for any given queries.
+     */
+    public static void main(String[] args) throws IOException, RocksDBException {
+        RocksDB.loadLibrary();
+        var indexPath = Path.of(args[1]);
+
+        try (var db = Database.openReadOnly(args[0])) {
+            TrigramIndex.build(db, indexPath, Runtime.getRuntime().availableProcessors());
+        }
+
+        var index = TrigramIndex.open(indexPath);
+        TrigramIndex.logger.info("Wrote trigram index with {} names and {} trigrams", index.size(), index.trigramCount);
+
+        for (int i = 2; i < args.length; i += 1) {
+            for (String screenName : index.findSimilar(args[i], 2, 100)) {
+                System.out.println(screenName);
+            }
+        }
+    }
+
+    public static TrigramIndex open(Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            var header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_LENGTH);
+
+            if (header.getInt() != MAGIC) {
+                throw new IOException(String.format("Invalid trigram index file: %s", path));
+            }
+
+            var size = header.getInt();
+            var trigramCount = header.getInt();
+            var namesLength = header.getInt();
+            var postingsLength = header.getInt();
+
+            long position = HEADER_LENGTH;
+            var offsets = channel.map(FileChannel.MapMode.READ_ONLY, position, (size + 1) * 4L).asIntBuffer();
+            position += (size + 1) * 4L;
+            var names = channel.map(FileChannel.MapMode.READ_ONLY, position, namesLength);
+            position += namesLength;
+            var trigrams = channel.map(FileChannel.MapMode.READ_ONLY, position, trigramCount * 4L).asIntBuffer();
+            position += trigramCount * 4L;
+            var postingOffsets = channel.map(FileChannel.MapMode.READ_ONLY, position, (trigramCount + 1) * 4L)
+                    .asIntBuffer();
+            position += (trigramCount + 1) * 4L;
+            var postings = channel.map(FileChannel.MapMode.READ_ONLY, position, postingsLength);
+
+            return new TrigramIndex(size, trigramCount, offsets, names, trigrams, postingOffsets, postings);
+        }
+    }
+
+    private TrigramIndex(int size, int trigramCount, IntBuffer offsets, ByteBuffer names, IntBuffer trigrams,
+            IntBuffer postingOffsets, ByteBuffer postings) {
+        this.size = size;
+        this.trigramCount = trigramCount;
+        this.offsets = offsets;
+        this.names = names;
+        this.trigrams = trigrams;
+        this.postingOffsets = postingOffsets;
+        this.postings = postings;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public String getScreenName(int i) {
+        var start = this.offsets.get(i);
+        var bytes = new byte[this.offsets.get(i + 1) - start];
+        this.names.duplicate().position(start).get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Find screen names containing the query (in key order).
+     */
+    public List<String> findSubstring(String query, int limit) {
+        var lowercased = query.toLowerCase();
+        var grams = TrigramIndex.trigrams(lowercased.getBytes(StandardCharsets.UTF_8), false);
+        var result = new ArrayList<String>();
+
+        if (grams.length == 0) {
+            // Queries shorter than a trigram can only be answered by checking every name.
+            for (int i = 0; i < this.size && result.size() < limit; i += 1) {
+                var screenName = this.getScreenName(i);
+                if (screenName.contains(lowercased)) {
+                    result.add(screenName);
+                }
+            }
+        } else {
+            var counts = this.countCandidates(grams);
+            for (int i : TrigramIndex.atLeast(counts, grams.length)) {
+                var screenName = this.getScreenName(i);
+                if (screenName.contains(lowercased)) {
+                    result.add(screenName);
+                    if (result.size() == limit) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Find screen names within the given edit distance of the query (in key order).
+     *
+     * <p>
+     * An edit changes at most three trigrams, so a match must share all but {@code 3 * maxDistance} of the query's
+     * distinct trigrams (screen names are ASCII, so bytes and characters coincide). Queries that are too short for this
+     * to rule anything out are checked against every name.
+     */
+    public List<String> findSimilar(String query, int maxDistance, int limit) {
+        var lowercased = query.toLowerCase();
+        var grams = TrigramIndex.trigrams(lowercased.getBytes(StandardCharsets.UTF_8), true);
+        var threshold = grams.length - 3 * maxDistance;
+        var result = new ArrayList<String>();
+
+        if (threshold <= 0) {
+            for (int i = 0; i < this.size && result.size() < limit; i += 1) {
+                var screenName = this.getScreenName(i);
+                if (TrigramIndex.withinDistance(lowercased, screenName, maxDistance)) {
+                    result.add(screenName);
+                }
+            }
+        } else {
+            var counts = this.countCandidates(grams);
+            for (int i : TrigramIndex.atLeast(counts, threshold)) {
+                var screenName = this.getScreenName(i);
+                if (TrigramIndex.withinDistance(lowercased, screenName, maxDistance)) {
+                    result.add(screenName);
+                    if (result.size() == limit) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private Map<Integer, Integer> countCandidates(int[] grams) {
+        var counts = new HashMap<Integer, Integer>();
+
+        for (int gram : grams) {
+            var position = TrigramIndex.binarySearch(this.trigrams, this.trigramCount, gram);
+            if (position >= 0) {
+                var current = this.postingOffsets.get(position);
+                var end = this.postingOffsets.get(position + 1);
+                int id = 0;
+
+                while (current < end) {
+                    long delta = 0;
+                    int shift = 0;
+                    byte next;
+                    do {
+                        next = this.postings.get(current);
+                        current += 1;
+                        delta |= (long) (next & 0x7f) << shift;
+                        shift += 7;
+                    } while (next < 0);
+
+                    id += (int) delta;
+                    counts.merge(id, 1, Integer::sum);
+                }
+            }
+        }
+
+        return counts;
+    }
+
+    private static int[] atLeast(Map<Integer, Integer> counts, int threshold) {
+        return counts.entrySet().stream().filter(entry -> entry.getValue() >= threshold).mapToInt(Map.Entry::getKey)
+                .sorted().toArray();
+    }
+
+    private static int binarySearch(IntBuffer buffer, int length, int value) {
+        int low = 0;
+        int high = length - 1;
+
+        while (low <= high) {
+            var middle = (low + high) >>> 1;
+            var current = buffer.get(middle);
+            if (current < value) {
+                low = middle + 1;
+            } else if (current > value) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Compute the distinct trigrams of a name (optionally padded at both ends), sorted.
+     */
+    static int[] trigrams(byte[] bytes, boolean padded) {
+        byte[] input = bytes;
+        if (padded) {
+            input = new byte[bytes.length + 4];
+            input[0] = PADDING;
+            input[1] = PADDING;
+            System.arraycopy(bytes, 0, input, 2, bytes.length);
+            input[input.length - 2] = PADDING;
+            input[input.length - 1] = PADDING;
+        }
+
+        if (input.length < 3) {
+            return new int[0];
+        }
+
+        var result = new int[input.length - 2];
+        for (int i = 0; i < result.length; i += 1) {
+            result[i] = (Byte.toUnsignedInt(input[i]) << 16) | (Byte.toUnsignedInt(input[i + 1]) << 8)
+                    | Byte.toUnsignedInt(input[i + 2]);
+        }
+
+        return Arrays.stream(result).distinct().sorted().toArray();
+    }
+
+    static boolean withinDistance(String left, String right, int maxDistance) {
+        if (Math.abs(left.length() - right.length()) > maxDistance) {
+            return false;
+        }
+
+        var previous = new int[right.length() + 1];
+        var current = new int[right.length() + 1];
+        for (int j = 0; j <= right.length(); j += 1) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= left.length(); i += 1) {
+            current[0] = i;
+            var rowMinimum = current[0];
+            for (int j = 1; j <= right.length(); j += 1) {
+                var cost = (left.charAt(i - 1) == right.charAt(j - 1)) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            if (rowMinimum > maxDistance) {
+                return false;
+            }
+            var swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        return previous[right.length()] <= maxDistance;
+    }
+
+    /**
+     * Rebuild the index from the screen name keys in a metadata database, scanning the key space in parallel.
+     */
+    public static void build(Database db, Path path, int numThreads) throws IOException {
+        var parts = db.scanParallel(new byte[] { 1 }, new byte[] { 2 }, numThreads, () -> new KeyCollector());
+        var names = new ArrayList<byte[]>();
+        for (KeyCollector part : parts) {
+            names.addAll(part.keys);
+        }
+
+        TrigramIndex.write(path, names);
+    }
+
+    private static final class KeyCollector implements BiPredicate<byte[], byte[]> {
+        private final List<byte[]> keys = new ArrayList<>();
+
+        public boolean test(byte[] key, byte[] value) {
+            this.keys.add(Arrays.copyOfRange(key, 1, key.length));
+            return true;
+        }
+    }
+
+    /**
+     * Write an index file atomically for the given names, which must be distinct and sorted in unsigned byte order.
+     */
+    static void write(Path path, List<byte[]> names) throws IOException {
+        var postingLists = new TreeMap<Integer, PostingList>();
+
+        for (int i = 0; i < names.size(); i += 1) {
+            for (int gram : TrigramIndex.trigrams(names.get(i), true)) {
+                postingLists.computeIfAbsent(gram, key -> new PostingList()).add(i);
+            }
+        }
+
+        long namesLength = 0;
+        long postingsLength = 0;
+        for (byte[] name : names) {
+            namesLength += name.length;
+        }
+        for (PostingList postingList : postingLists.values()) {
+            postingsLength += postingList.bytes.size();
+        }
+
+        if (namesLength > Integer.MAX_VALUE || postingsLength > Integer.MAX_VALUE) {
+            throw new IOException("Too many screen names for index");
+        }
+
+        var tmpPath = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (var output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpPath)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(names.size());
+            output.writeInt(postingLists.size());
+            output.writeInt((int) namesLength);
+            output.writeInt((int) postingsLength);
+
+            int offset = 0;
+            for (byte[] name : names) {
+                output.writeInt(offset);
+                offset += name.length;
+            }
+            output.writeInt(offset);
+            for (byte[] name : names) {
+                output.write(name);
+            }
+
+            for (int gram : postingLists.keySet()) {
+                output.writeInt(gram);
+            }
+            offset = 0;
+            for (PostingList postingList : postingLists.values()) {
+                output.writeInt(offset);
+                offset += postingList.bytes.size();
+            }
+            output.writeInt(offset);
+            for (PostingList postingList : postingLists.values()) {
+                postingList.bytes.writeTo(output);
+            }
+        }
+
+        Files.move(tmpPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static final class PostingList {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private int last = 0;
+
+        void add(int id) {
+            int delta = id - this.last;
+            while ((delta & ~0x7f) != 0) {
+                this.bytes.write((delta & 0x7f) | 0x80);
+                delta >>>= 7;
+            }
+            this.bytes.write(delta);
+            this.last = id;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package lol.memory.ts.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event spanning the processing of one archive entry.
+ */
+@Name("lol.memory.ts.ArchiveEntry")
+@Label("Archive Entry")
+@Category({ "memory.lol", "Archive" })
+@Description("Reading and processing of one compressed file in an archive")
+@StackTrace(false)
+public final class ArchiveEntryEvent extends Event {
+    @Label("Archive")
+    public String archivePath;
+
+    @Label("Entry")
+    public String filePath;
+
+    @Label("Compressed Bytes")
+    @DataAmount
+    public long compressedBytes;
+
+    @Label("Uncompressed Bytes")
+    @DataAmount
+    public long uncompressedBytes;
+
+    @Label("Lines")
+    public int lineCount;
+}
@@ -0,0 +1,30 @@
+package lol.memory.ts.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for an archive line that could not be parsed as JSON.
+ */
+@Name("lol.memory.ts.JsonDecodeError")
+@Label("JSON Decode Error")
+@Category({ "memory.lol", "Archive" })
+@Description("Archive line that could not be parsed as JSON")
+@StackTrace(false)
+public final class JsonDecodeErrorEvent extends Event {
+    @Label("Archive")
+    public String archivePath;
+
+    @Label("Entry")
+    public String filePath;
+
+    @Label("Line Number")
+    public int lineNumber;
+
+    @Label("Message")
+    public String message;
+}
@@ -0,0 +1,398 @@
+package lol.memory.ts.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import lombok.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Latency histograms for each stage of the import pipeline, with record, error, and skip counts.
+ *
+ * <p>
+ * Recording is off by default, in which case the instrumented code only reads a static flag. It can be turned on with
+ * the {@code lol.memory.ts.metrics.enabled} system property or {@link #setEnabled(boolean)}. Each thread records into
+ * its own histograms, which are only summed when a summary is requested, so recording threads never contend. When a
+ * recording thread dies its histograms are folded into a shared total, so short-lived pools don't accumulate state. The
+ * histograms are log-linear (as in HdrHistogram), with sixteen buckets per power of two, so percentiles are accurate to
+ * within about 6%.
+ */
+public final class PipelineMetrics implements PipelineMetricsMXBean {
+    private static final Logger logger = LoggerFactory.getLogger(PipelineMetrics.class);
+    private static final String ENABLED_PROPERTY = "lol.memory.ts.metrics.enabled";
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKET_COUNT * 2;
+    private static final int BUCKET_COUNT = LINEAR_LIMIT + (64 - SUB_BUCKET_BITS - 2) * SUB_BUCKET_COUNT;
+    private static final PipelineMetrics INSTANCE = new PipelineMetrics();
+    private static volatile boolean enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    private final ConcurrentLinkedQueue<ThreadState> allStates = new ConcurrentLinkedQueue<>();
+    private final ThreadState retired = new ThreadState(null);
+    private final ThreadLocal<ThreadState> states = ThreadLocal.withInitial(() -> {
+        this.retireDeadStates();
+        var state = new ThreadState(Thread.currentThread());
+        this.allStates.add(state);
+        return state;
+    });
+
+    static {
+        if (PipelineMetrics.enabled) {
+            PipelineMetrics.INSTANCE.register();
+        }
+    }
+
+    /**
+     * Stages of a record's path through an import, in order.
+     *
+     * <p>
+     * Reading a line is split between bzip2 decompression and everything else done by the reader (character decoding
+     * and finding line breaks). Entry construction covers computing new values for database entries, which is where
+     * they are encoded.
+     */
+    public enum Stage {
+        BZIP2_READ, LINE_SPLIT, JSON_PARSE, ITEM_DECODE, ENTRY_CONSTRUCTION, DB_GET, DB_PUT, COMMIT
+    }
+
+    @Value
+    public static class StageSummary {
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+        private double meanMicros;
+        private double p50Micros;
+        private double p90Micros;
+        private double p99Micros;
+        private double perRecordMicros;
+    }
+
+    @Value
+    public static class Summary {
+        private long recordCount;
+        private long errorCount;
+        private long skipCount;
+        private Map<Stage, StageSummary> stages;
+
+        /**
+         * Total recorded time per record across all stages.
+         */
+        public double getPerRecordMicros() {
+            return this.stages.values().stream().mapToDouble(StageSummary::getPerRecordMicros).sum();
+        }
+
+        @Override
+        public String toString() {
+            var builder = new StringBuilder(String.format("%d records, %d errors, %d skipped; %.3f us per record%n",
+                    this.recordCount, this.errorCount, this.skipCount, this.getPerRecordMicros()));
+            builder.append(String.format("%-20s %12s %12s %10s %10s %10s %10s %8s%n", "stage", "count", "us/record",
+                    "mean", "p50", "p90", "p99", "share"));
+            var total = this.getPerRecordMicros();
+
+            for (Map.Entry<Stage, StageSummary> entry : this.stages.entrySet()) {
+                var stage = entry.getValue();
+                builder.append(String.format("%-20s %12d %12.3f %10.3f %10.3f %10.3f %10.3f %7.1f%%%n",
+                        entry.getKey().name().toLowerCase(), stage.getCount(), stage.getPerRecordMicros(),
+                        stage.getMeanMicros(), stage.getP50Micros(), stage.getP90Micros(), stage.getP99Micros(),
+                        (total == 0) ? 0.0 : 100.0 * stage.getPerRecordMicros() / total));
+            }
+            return builder.toString();
+        }
+    }
+
+    private PipelineMetrics() {
+    }
+
+    public static PipelineMetrics get() {
+        return PipelineMetrics.INSTANCE;
+    }
+
+    public static boolean isEnabled() {
+        return PipelineMetrics.enabled;
+    }
+
+    /**
+     * Turn recording on or off (the MBean is registered the first time recording is turned on).
+     */
+    public static void setEnabled(boolean value) {
+        PipelineMetrics.enabled = value;
+        if (value) {
+            PipelineMetrics.INSTANCE.register();
+        }
+    }
+
+    /**
+     * Start timing a stage (returns zero if recording is off).
+     */
+    public static long start() {
+        return PipelineMetrics.enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Record the time since a value returned by {@link #start()}.
+     */
+    public static void record(Stage stage, long startNanos) {
+        if (startNanos != 0 && PipelineMetrics.enabled) {
+            PipelineMetrics.INSTANCE.states.get().record(stage, System.nanoTime() - startNanos);
+        }
+    }
+
+    public static void recordNanos(Stage stage, long nanos) {
+        if (PipelineMetrics.enabled) {
+            PipelineMetrics.INSTANCE.states.get().record(stage, nanos);
+        }
+    }
+
+    public static void countRecord() {
+        if (PipelineMetrics.enabled) {
+            PipelineMetrics.INSTANCE.states.get().recordCount += 1;
+        }
+    }
+
+    public static void countError() {
+        if (PipelineMetrics.enabled) {
+            PipelineMetrics.INSTANCE.states.get().errorCount += 1;
+        }
+    }
+
+    public static void countSkip() {
+        if (PipelineMetrics.enabled) {
+            PipelineMetrics.INSTANCE.states.get().skipCount += 1;
+        }
+    }
+
+    /**
+     * Sum the histograms and counts from all threads (counts from threads that are still recording may be slightly out
+     * of date).
+     */
+    public Summary summarize() {
+        var stageCount = Stage.values().length;
+        var buckets = new long[stageCount][BUCKET_COUNT];
+        var totals = new long[stageCount];
+        var maxima = new long[stageCount];
+        long recordCount = 0;
+        long errorCount = 0;
+        long skipCount = 0;
+
+        this.retireDeadStates();
+
+        synchronized (this.retired) {
+            // States are only retired while holding this lock, so none can be counted twice.
+            var all = new ArrayList<ThreadState>(this.allStates);
+            all.add(this.retired);
+
+            for (ThreadState state : all) {
+                for (int i = 0; i < stageCount; i += 1) {
+                    for (int j = 0; j < BUCKET_COUNT; j += 1) {
+                        buckets[i][j] += state.buckets[i][j];
+                    }
+                    totals[i] += state.totalNanos[i];
+                    maxima[i] = Math.max(maxima[i], state.maxNanos[i]);
+                }
+                recordCount += state.recordCount;
+                errorCount += state.errorCount;
+                skipCount += state.skipCount;
+            }
+        }
+
+        var stages = new LinkedHashMap<Stage, StageSummary>();
+        for (Stage stage : Stage.values()) {
+            var counts = buckets[stage.ordinal()];
+            long count = 0;
+            for (long value : counts) {
+                count += value;
+            }
+            var total = totals[stage.ordinal()];
+
+            stages.put(stage,
+                    new StageSummary(count, total, maxima[stage.ordinal()], (count == 0) ? 0.0 : total / 1e3 / count,
+                            PipelineMetrics.percentile(counts, count, 0.5) / 1e3,
+                            PipelineMetrics.percentile(counts, count, 0.9) / 1e3,
+                            PipelineMetrics.percentile(counts, count, 0.99) / 1e3,
+                            (recordCount == 0) ? 0.0 : total / 1e3 / recordCount));
+        }
+
+        return new Summary(recordCount, errorCount, skipCount, stages);
+    }
+
+    /**
+     * Clear all recorded values (this should only be called while nothing is recording).
+     */
+    public void reset() {
+        for (ThreadState state : this.allStates) {
+            state.clear();
+        }
+        synchronized (this.retired) {
+            this.retired.clear();
+        }
+    }
+
+    /**
+     * Fold the states of threads that have died into the retired state.
+     *
+     * <p>
+     * A thread's writes are visible once it is seen to have terminated, and it can't record anything more.
+     */
+    private void retireDeadStates() {
+        synchronized (this.retired) {
+            var iterator = this.allStates.iterator();
+
+            while (iterator.hasNext()) {
+                var state = iterator.next();
+                var owner = state.owner.get();
+
+                if (owner == null || !owner.isAlive()) {
+                    this.retired.add(state);
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * The number of threads whose states have not been retired.
+     */
+    int getLiveStateCount() {
+        this.retireDeadStates();
+        return this.allStates.size();
+    }
+
+    public void logSummary() {
+        PipelineMetrics.logger.info("Import pipeline latencies:\n{}", this.summarize());
+    }
+
+    public long getRecordCount() {
+        return this.summarize().getRecordCount();
+    }
+
+    public long getErrorCount() {
+        return this.summarize().getErrorCount();
+    }
+
+    public long getSkipCount() {
+        return this.summarize().getSkipCount();
+    }
+
+    public String getSummary() {
+        return this.summarize().toString();
+    }
+
+    public Map<String, Double> getPerRecordMicros() {
+        var result = new LinkedHashMap<String, Double>();
+        this.summarize().getStages()
+                .forEach((stage, summary) -> result.put(stage.name().toLowerCase(), summary.getPerRecordMicros()));
+        return result;
+    }
+
+    public Map<String, Double> getP99Micros() {
+        var result = new LinkedHashMap<String, Double>();
+        this.summarize().getStages()
+                .forEach((stage, summary) -> result.put(stage.name().toLowerCase(), summary.getP99Micros()));
+        return result;
+    }
+
+    private void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+                    new ObjectName("lol.memory.ts:type=PipelineMetrics"));
+        } catch (InstanceAlreadyExistsException error) {
+            // Already registered.
+        } catch (JMException error) {
+            PipelineMetrics.logger.error("Error registering pipeline metrics MBean: {}", error.getMessage());
+        }
+    }
+
+    static int bucketIndex(long nanos) {
+        if (nanos < LINEAR_LIMIT) {
+            return (int) Math.max(0, nanos);
+        } else {
+            var exponent = 63 - Long.numberOfLeadingZeros(nanos);
+            var subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+            return LINEAR_LIMIT + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKET_COUNT + subBucket;
+        }
+    }
+
+    /**
+     * The midpoint of the range of values in a bucket.
+     */
+    static double bucketValue(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        } else {
+            var exponent = (index - LINEAR_LIMIT) / SUB_BUCKET_COUNT + SUB_BUCKET_BITS + 1;
+            var subBucket = (index - LINEAR_LIMIT) % SUB_BUCKET_COUNT;
+            var width = 1L << (exponent - SUB_BUCKET_BITS);
+            return (SUB_BUCKET_COUNT + subBucket) * (double) width + width / 2.0;
+        }
+    }
+
+    private static double percentile(long[] counts, long total, double quantile) {
+        if (total == 0) {
+            return 0.0;
+        }
+
+        var target = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i += 1) {
+            seen += counts[i];
+            if (seen >= target) {
+                return PipelineMetrics.bucketValue(i);
+            }
+        }
+        return PipelineMetrics.bucketValue(counts.length - 1);
+    }
+
+    private static final class ThreadState {
+        private final WeakReference<Thread> owner;
+        private final long[][] buckets = new long[Stage.values().length][BUCKET_COUNT];
+        private final long[] totalNanos = new long[Stage.values().length];
+        private final long[] maxNanos = new long[Stage.values().length];
+        private long recordCount = 0;
+        private long errorCount = 0;
+        private long skipCount = 0;
+
+        ThreadState(Thread owner) {
+            this.owner = new WeakReference<>(owner);
+        }
+
+        void record(Stage stage, long nanos) {
+            var index = stage.ordinal();
+            this.buckets[index][PipelineMetrics.bucketIndex(nanos)] += 1;
+            this.totalNanos[index] += nanos;
+            if (nanos > this.maxNanos[index]) {
+                this.maxNanos[index] = nanos;
+            }
+        }
+
+        void add(ThreadState other) {
+            for (int i = 0; i < this.buckets.length; i += 1) {
+                for (int j = 0; j < BUCKET_COUNT; j += 1) {
+                    this.buckets[i][j] += other.buckets[i][j];
+                }
+                this.totalNanos[i] += other.totalNanos[i];
+                this.maxNanos[i] = Math.max(this.maxNanos[i], other.maxNanos[i]);
+            }
+            this.recordCount += other.recordCount;
+            this.errorCount += other.errorCount;
+            this.skipCount += other.skipCount;
+        }
+
+        void clear() {
+            for (long[] stageBuckets : this.buckets) {
+                Arrays.fill(stageBuckets, 0);
+            }
+            Arrays.fill(this.totalNanos, 0);
+            Arrays.fill(this.maxNanos, 0);
+            this.recordCount = 0;
+            this.errorCount = 0;
+            this.skipCount = 0;
+        }
+    }
+}
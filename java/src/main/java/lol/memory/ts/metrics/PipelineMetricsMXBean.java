@@ -0,0 +1,23 @@
+package lol.memory.ts.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of the import pipeline's latency histograms (see {@link PipelineMetrics}).
+ */
+public interface PipelineMetricsMXBean {
+    long getRecordCount();
+
+    long getErrorCount();
+
+    long getSkipCount();
+
+    /**
+     * A table of the latency distribution for each stage.
+     */
+    String getSummary();
+
+    Map<String, Double> getPerRecordMicros();
+
+    Map<String, Double> getP99Micros();
+}
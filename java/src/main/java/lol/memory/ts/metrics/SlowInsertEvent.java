@@ -0,0 +1,33 @@
+package lol.memory.ts.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event for database inserts that take longer than the threshold (1 ms unless the recording's settings
+ * say otherwise).
+ */
+@Name("lol.memory.ts.SlowInsert")
+@Label("Slow Insert")
+@Category({ "memory.lol", "Database" })
+@Description("Database insert (read, update, and write of one entry) that exceeded the threshold")
+@Threshold("1 ms")
+@StackTrace(false)
+public final class SlowInsertEvent extends Event {
+    @Label("Entry Type")
+    public String entryType;
+
+    @Label("Key Tag")
+    public byte keyTag;
+
+    @Label("Key Length")
+    public int keyLength;
+
+    @Label("Written")
+    public boolean written;
+}
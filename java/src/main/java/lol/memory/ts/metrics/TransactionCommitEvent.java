@@ -0,0 +1,27 @@
+package lol.memory.ts.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for a transaction commit, including failed commits.
+ */
+@Name("lol.memory.ts.TransactionCommit")
+@Label("Transaction Commit")
+@Category({ "memory.lol", "Database" })
+@Description("Commit of a database transaction (conflicts are commits that failed with a busy or try-again status)")
+@StackTrace(false)
+public final class TransactionCommitEvent extends Event {
+    @Label("Committed")
+    public boolean committed;
+
+    @Label("Conflict")
+    public boolean conflict;
+
+    @Label("Status")
+    public String status;
+}
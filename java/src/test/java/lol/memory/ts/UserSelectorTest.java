@@ -0,0 +1,32 @@
+package lol.memory.ts;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.testng.annotations.Test;
+import org.testng.Assert;
+
+public class UserSelectorTest {
+    @Test
+    public void loadTextAndBinary() throws IOException {
+        var textPath = Files.createTempFile("selection", ".txt");
+        Files.writeString(textPath, "12\n-3\n12\nnot-an-id\n9223372036854775807\n", StandardCharsets.UTF_8);
+
+        var selector = UserSelector.load(textPath);
+        Assert.assertEquals(selector.size(), 3);
+        Assert.assertTrue(selector.test(12L));
+        Assert.assertTrue(selector.test(-3L));
+        Assert.assertTrue(selector.test(Long.MAX_VALUE));
+        Assert.assertFalse(selector.test(0L));
+
+        var binaryPath = Files.createTempFile("selection", ".bin");
+        selector.write(binaryPath);
+
+        var loaded = UserSelector.load(binaryPath);
+        Assert.assertEquals(loaded.size(), 3);
+        Assert.assertTrue(loaded.test(-3L));
+        Assert.assertFalse(loaded.test(13L));
+        Assert.assertFalse(UserSelector.empty().test(12L));
+        Assert.assertTrue(UserSelector.of(5L, 1L, 5L).test(5L));
+    }
+}
@@ -0,0 +1,74 @@
+package lol.memory.ts.archive;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+import lol.memory.ts.Item;
+import org.testng.annotations.Test;
+import org.testng.Assert;
+
+public class ArchiveGeneratorTest {
+    private static final ArchiveGenerator.Config config = ArchiveGenerator.Config.builder().seed(42).itemCount(2000)
+            .entryCount(7).entrySkew(1.0).userCount(300).preSnowflakeRatio(0.2).screenNameChangeRatio(0.05).build();
+
+    @Test
+    public void generateReadableArchives() throws IOException {
+        var directory = Files.createTempDirectory("generated-archives");
+
+        for (String name : new String[] { "generated.zip", "generated.tar" }) {
+            var path = directory.resolve(name);
+            var summary = ArchiveGenerator.generate(path, ArchiveGeneratorTest.config);
+
+            var counter = new Consumer<Record<Item>>() {
+                int deleteCount = 0;
+                int tweetCount = 0;
+                Set<String> entries = new HashSet<>();
+                boolean preSnowflake = false;
+
+                public synchronized void accept(Record<Item> record) {
+                    this.entries.add(record.getFilePath().get());
+                    if (record.getValue().isTweet()) {
+                        var tweet = record.getValue().asTweet().get();
+                        Assert.assertTrue(tweet.getFullUser().isPresent());
+                        this.preSnowflake |= tweet.getRetweetedStatus()
+                                .map(status -> status.getStatusId() < 100000000000000L).orElse(false);
+                        this.tweetCount += 1;
+                    } else {
+                        this.deleteCount += 1;
+                    }
+                }
+            };
+
+            Archive.load(path).run(counter);
+
+            Assert.assertEquals(summary.getTweetCount() + summary.getDeleteCount(), 2000);
+            Assert.assertEquals(counter.tweetCount, summary.getTweetCount());
+            Assert.assertEquals(counter.deleteCount, summary.getDeleteCount());
+            Assert.assertEquals(counter.entries.size(), 7);
+            Assert.assertTrue(counter.preSnowflake);
+            Assert.assertTrue(summary.getScreenNameChangeCount() > 0);
+        }
+
+        // Tar entries are spooled to temporary files, which are removed.
+        try (var paths = Files.list(directory)) {
+            Assert.assertEquals(paths.count(), 2);
+        }
+    }
+
+    @Test
+    public void generateDeterministically() throws IOException {
+        var directory = Files.createTempDirectory("generated-archives");
+        var first = directory.resolve("first.zip");
+        var second = directory.resolve("second.zip");
+        var other = directory.resolve("other.zip");
+
+        ArchiveGenerator.generate(first, ArchiveGeneratorTest.config);
+        ArchiveGenerator.generate(second, ArchiveGeneratorTest.config);
+        ArchiveGenerator.generate(other, ArchiveGeneratorTest.config.toBuilder().seed(43).build());
+
+        Assert.assertEquals(Files.readAllBytes(first), Files.readAllBytes(second));
+        Assert.assertNotEquals(Files.readAllBytes(first), Files.readAllBytes(other));
+    }
+}
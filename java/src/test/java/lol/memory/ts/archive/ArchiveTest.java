@@ -1,7 +1,11 @@
 package lol.memory.ts.archive;
 
+import java.lang.management.ManagementFactory;
 import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import javax.management.JMException;
+import javax.management.ObjectName;
 import lol.memory.ts.Item;
 import org.testng.annotations.Test;
 import org.testng.Assert;
@@ -29,4 +33,32 @@ public class ArchiveTest {
         Assert.assertEquals(counter.deleteCount, 832);
         Assert.assertEquals(counter.tweetCount, 5378);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void reportProgress() throws Exception {
+        var path = Paths.get("../examples/archives/twitter-stream-2021-01-01.zip");
+        var archive = Archive.load(path);
+        var server = ManagementFactory.getPlatformMBeanServer();
+        var name = new ObjectName("lol.memory.ts:type=Archive,path=" + ObjectName.quote(path.toString()));
+        var entriesTotal = new AtomicInteger(-1);
+
+        archive.run(record -> {
+            try {
+                entriesTotal.compareAndSet(-1, (Integer) server.getAttribute(name, "EntriesTotal"));
+            } catch (JMException error) {
+                throw new IllegalStateException(error);
+            }
+        });
+
+        var progress = archive.getProgress().get();
+        Assert.assertFalse(server.isRegistered(name));
+        Assert.assertEquals(entriesTotal.get(), progress.getEntriesTotal());
+        Assert.assertEquals(progress.getEntriesDone(), progress.getEntriesTotal());
+        Assert.assertEquals(progress.getEntriesInProgress(), 0);
+        Assert.assertEquals(progress.getTweetCount(), 5378);
+        Assert.assertEquals(progress.getDeleteCount(), 832);
+        Assert.assertEquals(progress.getLineCount(), 5378 + 832);
+        Assert.assertEquals(progress.getCompressedBytesConsumed(), progress.getCompressedBytesTotal());
+        Assert.assertEquals(progress.getEtaSeconds(), 0);
+    }
+}
@@ -1,17 +1,36 @@
 package lol.memory.ts.db;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
 import java.util.function.Consumer;
+import javax.management.ObjectName;
 import lol.memory.ts.archive.Archive;
+import lol.memory.ts.Twitter;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeSuite;
 import org.testng.annotations.Test;
 import org.testng.Assert;
 
 public class DatabaseTest {
+    private Database indexed;
+
     @BeforeSuite
     public void load() {
         RocksDB.loadLibrary();
@@ -25,4 +44,456 @@ public class DatabaseTest {
 
         archive.run(importer);
     }
-}
\ No newline at end of file
+
+    @BeforeClass
+    public void importIndexed() throws IOException, RocksDBException {
+        var archive = Archive.load(Paths.get("../examples/archives/twitter-stream-2021-01-01.zip"));
+        var dbPath = Files.createTempDirectory("metadata-db");
+
+        this.indexed = new Database(dbPath.toString());
+        archive.run(ImportMetadata.create(this.indexed,
+                EnumSet.of(ImportMetadata.Index.TIMELINE, ImportMetadata.Index.DELETE_TIME)));
+    }
+
+    @AfterClass
+    public void closeIndexed() {
+        this.indexed.close();
+    }
+
+    @Test
+    public void lookupUserTimeline() {
+        var lookup = new Lookup(this.indexed);
+
+        var all = lookup.lookupUserTimeline(884378714L, Instant.EPOCH, Instant.parse("2030-01-01T00:00:00Z"));
+        Assert.assertEquals(all.size(), 15);
+
+        var split = Twitter.extractTimestamp(all.get(7)).get();
+        var before = lookup.lookupUserTimeline(884378714L, Instant.EPOCH, split);
+        var after = lookup.lookupUserTimeline(884378714L, split, Instant.parse("2030-01-01T00:00:00Z"));
+        Assert.assertEquals(before, all.subList(0, before.size()));
+        Assert.assertEquals(after, all.subList(before.size(), all.size()));
+        Assert.assertTrue(after.contains(all.get(7)));
+    }
+
+    @Test
+    public void lookupUsersAndStatuses() throws RocksDBException {
+        var lookup = new Lookup(this.indexed);
+        var screenNames = lookup.lookupScreenNames(884378714L);
+        Assert.assertFalse(screenNames.isEmpty());
+        Assert.assertTrue(lookup.lookupUserIds(screenNames.get(0).toUpperCase()).contains(884378714L));
+
+        var statusIds = new ArrayList<>(
+                lookup.lookupUserTimeline(884378714L, Instant.EPOCH, Instant.parse("2030-01-01T00:00:00Z")));
+        statusIds.add(1L);
+        var statuses = lookup.lookupStatuses(statusIds);
+        Assert.assertEquals(statuses.size(), statusIds.size());
+        Assert.assertTrue(statuses.get(statuses.size() - 1).isEmpty());
+        for (int i = 0; i < statuses.size() - 1; i += 1) {
+            Assert.assertEquals(statuses.get(i).get().getUserId(), 884378714L);
+            Assert.assertEquals(statuses.get(i), lookup.lookupStatus(statusIds.get(i)));
+        }
+    }
+
+    @Test
+    public void lookupDeletions() {
+        var lookup = new Lookup(this.indexed);
+        var deleteCount = new int[] { 0 };
+        this.indexed.scan(new byte[] { 3 }, new byte[] { 4 }, (key, value) -> {
+            deleteCount[0] += 1;
+            return true;
+        });
+
+        var all = lookup.lookupDeletions(Instant.EPOCH, Instant.parse("2030-01-01T00:00:00Z"));
+        Assert.assertEquals(all.size(), deleteCount[0]);
+
+        var split = Instant.ofEpochMilli(all.get(all.size() / 2).getTimestampMillis());
+        var before = lookup.lookupDeletions(Instant.EPOCH, split);
+        var after = lookup.lookupDeletions(split, Instant.parse("2030-01-01T00:00:00Z"));
+        Assert.assertEquals(before.size() + after.size(), all.size());
+        Assert.assertTrue(before.stream().allMatch(deletion -> deletion.getTimestampMillis() < split.toEpochMilli()));
+        Assert.assertEquals(after.get(0).getTimestampMillis(), split.toEpochMilli());
+    }
+
+    @Test
+    public void checkpointDuringImport() throws IOException, RocksDBException {
+        var archive = Archive.load(Paths.get("../examples/archives/twitter-stream-2021-01-01.zip"));
+        var dbPath = Files.createTempDirectory("metadata-db");
+        var checkpointPath = Files.createTempDirectory("metadata-checkpoints");
+        var options = DatabaseOptions.builder().checkpointDirectory(Optional.of(checkpointPath))
+                .checkpointAfterEntry(true).retainedCheckpoints(1).build();
+
+        try (var db = new Database(dbPath.toString(), options)) {
+            ImportMetadata.addCheckpointListener(archive, db);
+            archive.run(ImportMetadata.create(db, EnumSet.noneOf(ImportMetadata.Index.class)));
+
+            // The writer is still open, so this checkpoint is taken live.
+            var path = db.checkpoint();
+            Assert.assertTrue(path.isPresent());
+
+            try (var replica = Database.openLatestCheckpoint(checkpointPath)) {
+                var status = new Lookup(replica).lookupStatus(1345059463120621570L);
+                Assert.assertEquals(status.map(value -> value.getStatusId()), Optional.of(1345059463120621570L));
+
+                // A newer checkpoint doesn't delete the one that is open.
+                var next = db.checkpoint();
+                while (next.equals(path)) {
+                    next = db.checkpoint();
+                }
+                Assert.assertTrue(Files.isDirectory(path.get()));
+                Assert.assertEquals(new Lookup(replica).lookupStatus(1345059463120621570L), status);
+            }
+        }
+
+        try (var paths = Files.list(checkpointPath)) {
+            Assert.assertEquals(paths.filter(path -> path.getFileName().toString().startsWith("checkpoint-")).count(),
+                    1);
+        }
+
+        // If the latest checkpoint is gone, the error names it.
+        var latest = Files.readString(checkpointPath.resolve("LATEST"), StandardCharsets.UTF_8).trim();
+        Files.move(checkpointPath.resolve(latest), checkpointPath.resolve("moved"));
+        var error = Assert.expectThrows(NoSuchFileException.class, () -> Database.openLatestCheckpoint(checkpointPath));
+        Assert.assertEquals(error.getFile(), checkpointPath.resolve(latest).toString());
+    }
+
+    @Test
+    public void secondaryFollowsPrimary() throws IOException, RocksDBException {
+        var dbPath = Files.createTempDirectory("metadata-db");
+        var secondaryPath = Files.createTempDirectory("metadata-secondary");
+        var options = DatabaseOptions.builder().catchUpInterval(Duration.ofHours(1)).build();
+
+        try (var db = new Database(dbPath.toString())) {
+            try (var tx = db.beginTransaction()) {
+                db.insert(tx, MetadataDbEntry.makeScreenNameEntry(1L, "first"));
+                tx.commit();
+            }
+
+            try (var secondary = Database.openSecondary(dbPath.toString(), secondaryPath.toString(), options)) {
+                var key = MetadataDbEntry.makeScreenNameEntry(2L, "second").getKey();
+                Assert.assertTrue(secondary.get(MetadataDbEntry.makeScreenNameEntry(1L, "first").getKey()).isPresent());
+                Assert.assertTrue(secondary.get(key).isEmpty());
+
+                try (var tx = db.beginTransaction()) {
+                    db.insert(tx, MetadataDbEntry.makeScreenNameEntry(2L, "second"));
+                    tx.commit();
+                }
+
+                Assert.assertTrue(secondary.catchUp());
+                Assert.assertTrue(secondary.get(key).isPresent());
+
+                var status = secondary.getCatchUpStatus().get();
+                Assert.assertEquals(status.getCatchUpCount(), 1);
+                Assert.assertEquals(status.getSequenceNumber(), db.getLatestSequenceNumber());
+                Assert.assertFalse(status.isStale());
+            }
+        }
+    }
+
+    @Test
+    public void importUsersWithCounterDeltas() throws IOException, RocksDBException {
+        // A single thread makes the choice between snapshots with the same timestamp deterministic.
+        var archive = Archive.load(Paths.get("../examples/archives/twitter-stream-2021-01-01.zip"), 1);
+
+        try (var full = new Database(Files.createTempDirectory("user-db").toString());
+                var deduplicated = new Database(Files.createTempDirectory("user-db").toString())) {
+            archive.run(ImportUsers.create(full, userId -> true, UserDbEntry.SnapshotMode.FULL));
+            archive.run(ImportUsers.create(deduplicated, userId -> true, UserDbEntry.SnapshotMode.COUNTER_DELTAS));
+
+            var userIds = new TreeSet<Long>();
+            full.scan(new byte[] { 0 }, new byte[] { 1 }, (key, value) -> {
+                userIds.add(ByteBuffer.wrap(key, 1, 8).getLong());
+                return true;
+            });
+            var fullSnapshotCount = new int[] { 0 };
+            deduplicated.scan(new byte[] { 0 }, new byte[] { 1 }, (key, value) -> {
+                fullSnapshotCount[0] += 1;
+                return true;
+            });
+
+            var snapshotCount = 0;
+            for (long userId : userIds) {
+                var expected = UserDbEntry.readSnapshots(full, userId);
+                Assert.assertEquals(UserDbEntry.readSnapshots(deduplicated, userId), expected);
+                snapshotCount += expected.size();
+            }
+            Assert.assertTrue(fullSnapshotCount[0] < snapshotCount);
+        }
+    }
+
+    @Test
+    public void benchmarkImport() throws IOException, RocksDBException {
+        var archivePath = Paths.get("../examples/archives/twitter-stream-2021-01-01.zip");
+        var temporaryCount = DatabaseTest.countBenchmarkDirectories();
+        var result = ImportBenchmark.run(archivePath, ImportBenchmark.Importer.METADATA, 2,
+                ImportBenchmark.parseSettings("checkpoint.retained=1"));
+
+        // The benchmark database is deleted once it has been measured.
+        Assert.assertEquals(DatabaseTest.countBenchmarkDirectories(), temporaryCount);
+
+        Assert.assertEquals(result.getLongValue("records"), 5378 + 832);
+        Assert.assertEquals(result.getLongValue("writeErrors"), 0);
+        Assert.assertTrue(result.getDoubleValue("recordsPerSecond") > 0);
+        Assert.assertTrue(result.getLongValue("databaseBytes") > 0);
+        Assert.assertEquals(result.getJSONObject("settings").getString("checkpoint.retained"), "1");
+        Assert.assertTrue(result.getJSONObject("stalls").containsKey("total_stop"));
+    }
+
+    @Test
+    public void collectStatistics() throws Exception {
+        var archive = Archive.load(Paths.get("../examples/archives/twitter-stream-2021-01-01.zip"));
+        var dbPath = Files.createTempDirectory("metadata-db");
+        var options = DatabaseOptions.builder().statisticsInterval(Optional.of(Duration.ofMillis(100))).build();
+        var server = ManagementFactory.getPlatformMBeanServer();
+        var name = new ObjectName("lol.memory.ts:type=Database,path=" + ObjectName.quote(dbPath.toString()));
+
+        try (var db = new Database(dbPath.toString(), options)) {
+            archive.run(ImportMetadata.create(db, EnumSet.noneOf(ImportMetadata.Index.class)));
+
+            var sample = db.getStatistics().get().sample();
+            Assert.assertTrue(sample.getKeysWritten() > 0);
+            Assert.assertTrue(sample.getBytesWritten() > 0);
+            Assert.assertEquals(server.getAttribute(name, "KeysWritten"), sample.getKeysWritten());
+        }
+
+        Assert.assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    public void importGroupCommit() throws IOException, RocksDBException {
+        var archive = Archive.load(Paths.get("../examples/archives/twitter-stream-2021-01-01.zip"));
+        var dbPath = Files.createTempDirectory("metadata-db");
+        var options = DatabaseOptions.builder().writeMode(DatabaseOptions.WriteMode.GROUP_COMMIT)
+                .groupCommitMaxBatch(64).build();
+
+        try (var db = new Database(dbPath.toString(), options)) {
+            archive.run(ImportMetadata.create(db,
+                    EnumSet.of(ImportMetadata.Index.TIMELINE, ImportMetadata.Index.DELETE_TIME)));
+            db.awaitWrites();
+
+            // The group commit import should contain exactly the same pairs as the transactional one.
+            var expected = DatabaseTest.dump(this.indexed, new byte[] { 0 }, new byte[] { 6 });
+            Assert.assertFalse(expected.isEmpty());
+            Assert.assertEquals(DatabaseTest.dump(db, new byte[] { 0 }, new byte[] { 6 }), expected);
+
+            Assert.assertThrows(IllegalStateException.class, () -> this.indexed.submit(new EntryBatch()));
+        }
+    }
+
+    @Test
+    public void isolateGroupCommitFailures() throws IOException, RocksDBException {
+        var options = DatabaseOptions.builder().writeMode(DatabaseOptions.WriteMode.GROUP_COMMIT)
+                .groupCommitMaxLatency(Duration.ofSeconds(1)).build();
+        var db = new Database(Files.createTempDirectory("metadata-db").toString(), options);
+
+        try {
+            for (long userId = 1; userId <= 3; userId += 1) {
+                var batch = new EntryBatch(Optional.of("example.json"), (int) userId);
+                batch.add(MetadataDbEntry.makeScreenNameEntry(userId, "example" + userId));
+                if (userId == 2) {
+                    batch.add(new Entry(new byte[] { 7 }) {
+                        public Optional<byte[]> updateValue(Optional<byte[]> previousValue) {
+                            throw new IllegalArgumentException("Invalid entry");
+                        }
+                    });
+                }
+                db.submit(batch);
+            }
+            db.awaitWrites();
+
+            // Only the record with the failing entry is lost.
+            Assert.assertTrue(db.get(MetadataDbEntry.ScreenNameEntry.makeKey("example1")).isPresent());
+            Assert.assertFalse(db.get(MetadataDbEntry.ScreenNameEntry.makeKey("example2")).isPresent());
+            Assert.assertEquals(db.getWriteErrorCount(), 1);
+            Assert.assertTrue(db.get(MetadataDbEntry.ScreenNameEntry.makeKey("example3")).isPresent());
+        } finally {
+            db.close();
+        }
+
+        Assert.assertThrows(IllegalStateException.class, () -> db.submit(new EntryBatch()));
+    }
+
+    @Test
+    public void rejectSubmitsAfterGroupCommitWriterDies() throws IOException, RocksDBException {
+        var options = DatabaseOptions.builder().writeMode(DatabaseOptions.WriteMode.GROUP_COMMIT)
+                .groupCommitQueueCapacity(1).build();
+
+        try (var db = new Database(Files.createTempDirectory("metadata-db").toString(), options)) {
+            var batch = new EntryBatch();
+            batch.add(new Entry(new byte[] { 7 }) {
+                public Optional<byte[]> updateValue(Optional<byte[]> previousValue) {
+                    throw new AssertionError("Fatal entry");
+                }
+            });
+            db.submit(batch);
+
+            // Errors aren't caught by the writer, so its thread dies, and later submissions fail instead of waiting
+            // forever for the queue to drain.
+            Assert.assertThrows(IllegalStateException.class, () -> {
+                for (long userId = 1; userId <= 3; userId += 1) {
+                    var next = new EntryBatch();
+                    next.add(MetadataDbEntry.makeScreenNameEntry(userId, "example" + userId));
+                    db.submit(next);
+                }
+            });
+            db.awaitWrites();
+        }
+    }
+
+    @Test
+    public void importStriped() throws IOException, RocksDBException {
+        var archive = Archive.load(Paths.get("../examples/archives/twitter-stream-2021-01-01.zip"));
+        var options = DatabaseOptions.builder().writeMode(DatabaseOptions.WriteMode.STRIPED).lockStripes(16).build();
+
+        try (var db = new Database(Files.createTempDirectory("metadata-db").toString(), options)) {
+            archive.run(ImportMetadata.create(db,
+                    EnumSet.of(ImportMetadata.Index.TIMELINE, ImportMetadata.Index.DELETE_TIME)));
+
+            Assert.assertEquals(DatabaseTest.dump(db, new byte[] { 0 }, new byte[] { 6 }),
+                    DatabaseTest.dump(this.indexed, new byte[] { 0 }, new byte[] { 6 }));
+            Assert.assertThrows(IllegalStateException.class, () -> db.beginTransaction());
+        }
+
+        // The user import runs with at least the default thread count, so that the per-user locks are contended.
+        var concurrent = Archive.load(Paths.get("../examples/archives/twitter-stream-2021-01-01.zip"),
+                Math.max(4, Runtime.getRuntime().availableProcessors()));
+
+        try (var transactional = new Database(Files.createTempDirectory("user-db").toString());
+                var striped = new Database(Files.createTempDirectory("user-db").toString(), options)) {
+            concurrent.run(ImportUsers.create(transactional, userId -> true, UserDbEntry.SnapshotMode.COUNTER_DELTAS));
+            concurrent.run(ImportUsers.create(striped, userId -> true, UserDbEntry.SnapshotMode.COUNTER_DELTAS));
+
+            var expected = DatabaseTest.dump(transactional, new byte[] { 0 }, new byte[] { 2 });
+            Assert.assertFalse(expected.isEmpty());
+            Assert.assertEquals(DatabaseTest.dump(striped, new byte[] { 0 }, new byte[] { 2 }), expected);
+        }
+    }
+
+    @Test
+    public void skipSettledEntries() throws IOException, RocksDBException {
+        var archive = Archive.load(Paths.get("../examples/archives/twitter-stream-2021-01-01.zip"));
+
+        try (var db = new Database(Files.createTempDirectory("metadata-db").toString())) {
+            archive.run(ImportMetadata.create(db, EnumSet.noneOf(ImportMetadata.Index.class)));
+            var first = db.getEntryCacheCounts().get();
+            var expected = DatabaseTest.dump(db, new byte[] { 0 }, new byte[] { 6 });
+
+            archive.run(ImportMetadata.create(db, EnumSet.noneOf(ImportMetadata.Index.class)));
+            var second = db.getEntryCacheCounts().get();
+            var actual = DatabaseTest.dump(db, new byte[] { 0 }, new byte[] { 6 });
+
+            // Statuses are stored in full and screen names are recorded, so nearly all of both should be skipped.
+            Assert.assertTrue(second.getHitCount() - first.getHitCount() > 10000);
+            Assert.assertEquals(actual, expected);
+        }
+    }
+
+    @Test
+    public void skipSettledScreenNames() throws IOException, RocksDBException {
+        try (var db = new Database(Files.createTempDirectory("metadata-db").toString())) {
+            var key = MetadataDbEntry.ScreenNameEntry.makeKey("example");
+
+            for (long userId : new long[] { 2L, 1L, 2L, 1L }) {
+                var batch = new EntryBatch();
+                batch.add(MetadataDbEntry.makeScreenNameEntry(userId, (userId == 1L) ? "Example" : "example"));
+                try (var tx = db.beginTransaction()) {
+                    var actions = db.insert(tx, batch);
+                    db.commit(tx);
+                    actions.forEach(Runnable::run);
+                }
+            }
+
+            // A new user ID for a cached screen name is still written, and repeated pairs are skipped.
+            Assert.assertEquals(MetadataDbEntry.decodeIds(db.get(key).get()), new long[] { 1L, 2L });
+            Assert.assertEquals(db.getEntryCacheCounts().get().getHitCount(), 2);
+        }
+    }
+
+    @Test
+    public void coalesceEntriesPerRecord() throws RocksDBException {
+        var batch = new EntryBatch();
+        batch.add(MetadataDbEntry.makeUserEntry(1L, "example", 10L));
+        batch.add(MetadataDbEntry.makeScreenNameEntry(1L, "example"));
+        batch.add(MetadataDbEntry.makeShortStatusEntry(100L, 1L));
+        batch.add(MetadataDbEntry.makeUserEntry(1L, "example", 11L));
+        batch.add(MetadataDbEntry.makeScreenNameEntry(2L, "Example"));
+        batch.add(MetadataDbEntry.makeFullStatusEntry(100L, 0L, 1L, Optional.empty(), Optional.empty(), List.of(2L)));
+        Assert.assertEquals(batch.getEntryCount(), 6);
+        Assert.assertEquals(batch.getKeyCount(), 3);
+
+        // Each distinct key should be read and written exactly once.
+        var values = new HashMap<String, byte[]>();
+        var gets = new ArrayList<String>();
+        var puts = new ArrayList<String>();
+        batch.apply(key -> {
+            gets.add(Arrays.toString(key));
+            var value = values.get(Arrays.toString(key));
+            return (value == null) ? null : ByteBuffer.wrap(value);
+        }, (key, value) -> {
+            puts.add(Arrays.toString(key));
+            values.put(Arrays.toString(key), value);
+        }, Optional.empty());
+
+        Assert.assertEquals(gets.size(), 3);
+        Assert.assertEquals(new TreeSet<>(gets).size(), 3);
+        Assert.assertEquals(new TreeSet<>(puts), new TreeSet<>(gets));
+        Assert.assertEquals(puts.size(), 3);
+
+        var userKey = Arrays.toString(MetadataDbEntry.UserEntry.makeKey(1L, "example"));
+        var screenNameKey = Arrays.toString(MetadataDbEntry.ScreenNameEntry.makeKey("example"));
+        Assert.assertEquals(MetadataDbEntry.decodeIds(values.get(userKey)), new long[] { 10L, 11L });
+        Assert.assertEquals(MetadataDbEntry.decodeIds(values.get(screenNameKey)), new long[] { 1L, 2L });
+        var statusKey = MetadataDbEntry.StatusEntry.makeKey(100L);
+        Assert.assertTrue(MetadataDbEntry.decodeStatus(statusKey, values.get(Arrays.toString(statusKey))).isFull());
+    }
+
+    @Test
+    public void encodeScreenNameKeys() {
+        for (String screenName : List.of("travisbrown", "Caf\u00e9", "\u65e5\u672c", "emoji\ud83d\ude00", "lone\ud83d",
+                "lone\ude00x", "")) {
+            var bytes = screenName.getBytes(StandardCharsets.UTF_8);
+            var key = MetadataDbEntry.UserEntry.makeKey(1L, screenName);
+            Assert.assertEquals(Arrays.copyOfRange(key, 9, key.length), bytes);
+            Assert.assertEquals(Entry.utf8Length(screenName), bytes.length);
+        }
+    }
+
+    @Test
+    public void readLargeValuesThroughDirectBuffers() throws IOException, RocksDBException {
+        var options = DatabaseOptions.builder().writeMode(DatabaseOptions.WriteMode.STRIPED).build();
+
+        try (var db = new Database(Files.createTempDirectory("metadata-db").toString(), options)) {
+            // Values grow past the initial direct buffer size, so reads must resize and retry.
+            for (long userId = 1000; userId > 0; userId -= 1) {
+                var batch = new EntryBatch();
+                batch.add(MetadataDbEntry.makeScreenNameEntry(userId, "example"));
+                db.insert(batch).forEach(Runnable::run);
+            }
+
+            var ids = MetadataDbEntry.decodeIds(db.get(MetadataDbEntry.ScreenNameEntry.makeKey("example")).get());
+            Assert.assertEquals(ids.length, 1000);
+            for (int i = 0; i < ids.length; i += 1) {
+                Assert.assertEquals(ids[i], i + 1);
+            }
+        }
+
+        // Growth past the largest power of two that fits doesn't overflow.
+        Assert.assertEquals(DirectBuffers.grow(4096, 5000), 8192);
+        Assert.assertEquals(DirectBuffers.grow(4096, (1 << 30) + 1), (1 << 30) + 1);
+        Assert.assertEquals(DirectBuffers.grow(1 << 30, Integer.MAX_VALUE), Integer.MAX_VALUE);
+    }
+
+    private static long countBenchmarkDirectories() throws IOException {
+        try (var paths = Files.list(Paths.get(System.getProperty("java.io.tmpdir")))) {
+            return paths.filter(path -> path.getFileName().toString().startsWith("import-benchmark")).count();
+        }
+    }
+
+    /**
+     * Every pair with a key in the given range, in key order, as strings that can be compared.
+     */
+    private static List<String> dump(Database db, byte[] lowerBound, byte[] upperBound) {
+        var result = new ArrayList<String>();
+        db.scan(lowerBound, upperBound, (key, value) -> result.add(Arrays.toString(key) + Arrays.toString(value)));
+        return result;
+    }
+}
@@ -0,0 +1,75 @@
+package lol.memory.ts.export;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import lol.memory.ts.archive.Archive;
+import lol.memory.ts.db.Database;
+import lol.memory.ts.db.ImportMetadata;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.testng.annotations.Test;
+import org.testng.Assert;
+
+public class AvroExportTest {
+    @Test
+    public void exportContainers() throws IOException, RocksDBException {
+        RocksDB.loadLibrary();
+        var archive = Archive.load(Paths.get("../examples/archives/twitter-stream-2021-01-01.zip"));
+
+        try (var db = new Database(Files.createTempDirectory("metadata-db").toString())) {
+            archive.run(ImportMetadata.create(db, EnumSet.noneOf(ImportMetadata.Index.class)));
+            var outputPath = Files.createTempDirectory("avro");
+            var total = AvroExport.export(db, outputPath, 4, CodecFactory.deflateCodec(6));
+
+            List<Path> files;
+            try (var paths = Files.list(outputPath)) {
+                files = paths.sorted().collect(Collectors.toList());
+            }
+            long actualTotal = 0;
+
+            for (AvroExport.RecordType recordType : AvroExport.RecordType.values()) {
+                // Record types are declared in the order of their key tags.
+                var tag = (byte) recordType.ordinal();
+                var expected = new long[] { 0 };
+                db.scan(new byte[] { tag }, new byte[] { (byte) (tag + 1) }, (key, value) -> {
+                    expected[0] += 1;
+                    return true;
+                });
+
+                long actual = 0;
+                var prefix = recordType.name().toLowerCase() + "-";
+                for (Path file : files) {
+                    if (file.getFileName().toString().startsWith(prefix)) {
+                        actual += AvroExportTest.countRecords(file);
+                    }
+                }
+
+                Assert.assertTrue(expected[0] > 0);
+                Assert.assertEquals(actual, expected[0], recordType.name());
+                actualTotal += actual;
+            }
+
+            Assert.assertEquals(actualTotal, total);
+        }
+    }
+
+    private static long countRecords(Path path) throws IOException {
+        long result = 0;
+        try (var reader = new DataFileReader<GenericRecord>(path.toFile(), new GenericDatumReader<>())) {
+            for (GenericRecord record : reader) {
+                Assert.assertNotNull(record);
+                result += 1;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,138 @@
+package lol.memory.ts.export;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import lol.memory.ts.archive.Archive;
+import lol.memory.ts.db.Database;
+import lol.memory.ts.db.ImportMetadata;
+import lol.memory.ts.db.Lookup;
+import lol.memory.ts.db.MetadataDbEntry;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.testng.annotations.Test;
+import org.testng.Assert;
+
+public class GraphExportTest {
+    @Test
+    public void exportGraphs() throws IOException, RocksDBException {
+        RocksDB.loadLibrary();
+        var archive = Archive.load(Paths.get("../examples/archives/twitter-stream-2021-01-01.zip"));
+
+        try (var db = new Database(Files.createTempDirectory("metadata-db").toString())) {
+            archive.run(ImportMetadata.create(db, EnumSet.noneOf(ImportMetadata.Index.class)));
+            var outputPath = Files.createTempDirectory("graphs");
+            GraphExport.export(db, outputPath, 4);
+            GraphExportTest.checkGraphs(db, outputPath);
+        }
+    }
+
+    @Test
+    public void exportWhileWriterIsOpen() throws IOException, RocksDBException {
+        RocksDB.loadLibrary();
+        var archive = Archive.load(Paths.get("../examples/archives/twitter-stream-2021-01-01.zip"));
+        var dbPath = Files.createTempDirectory("metadata-db").toString();
+
+        // The writer holds the database's lock, so the tool has to open it read-only.
+        try (var db = new Database(dbPath)) {
+            archive.run(ImportMetadata.create(db, EnumSet.noneOf(ImportMetadata.Index.class)));
+            var outputPath = Files.createTempDirectory("graphs");
+            GraphExport.main(new String[] { dbPath, outputPath.toString(), "2" });
+            GraphExportTest.checkGraphs(db, outputPath);
+
+            // A mistyped path is an error, rather than a new empty database.
+            var missingPath = Paths.get(dbPath).resolveSibling(Paths.get(dbPath).getFileName() + "-missing");
+            Assert.assertThrows(RocksDBException.class,
+                    () -> GraphExport.main(new String[] { missingPath.toString(), outputPath.toString() }));
+            Assert.assertFalse(Files.exists(missingPath));
+        }
+    }
+
+    private static void checkGraphs(Database db, Path outputPath) throws IOException, RocksDBException {
+        var expected = GraphExportTest.scanEdges(db);
+        var nodes = GraphExportTest.readLongs(outputPath.resolve("nodes.i64"));
+        Assert.assertFalse(expected.get(GraphExport.Relation.MENTION).isEmpty());
+
+        for (GraphExport.Relation relation : GraphExport.Relation.values()) {
+            var name = relation.name().toLowerCase();
+            var offsets = GraphExportTest.readLongs(outputPath.resolve(name + ".offsets.i64"));
+            var targets = GraphExportTest.readInts(outputPath.resolve(name + ".edges.i32"));
+            var weights = GraphExportTest.readInts(outputPath.resolve(name + ".weights.i32"));
+
+            Assert.assertEquals(offsets.length, nodes.length + 1);
+            Assert.assertEquals(offsets[0], 0);
+            Assert.assertEquals(offsets[nodes.length], targets.length);
+            Assert.assertEquals(weights.length, targets.length);
+
+            var actual = new HashMap<List<Long>, Integer>();
+            for (int i = 0; i < nodes.length; i += 1) {
+                Assert.assertTrue(offsets[i] <= offsets[i + 1]);
+                for (int j = (int) offsets[i]; j < offsets[i + 1]; j += 1) {
+                    actual.put(List.of(nodes[i], nodes[targets[j]]), weights[j]);
+                }
+            }
+
+            Assert.assertEquals(actual, expected.get(relation));
+        }
+    }
+
+    /**
+     * Count the edges for each relation (as source and target user ID pairs) with a direct scan of the statuses.
+     */
+    private static Map<GraphExport.Relation, Map<List<Long>, Integer>> scanEdges(Database db) throws RocksDBException {
+        var statuses = new ArrayList<MetadataDbEntry.Status>();
+        db.scan(new byte[] { 2 }, new byte[] { 3 },
+                (key, value) -> statuses.add(MetadataDbEntry.decodeStatus(key, value)));
+
+        var lookup = new Lookup(db);
+        var result = new EnumMap<GraphExport.Relation, Map<List<Long>, Integer>>(GraphExport.Relation.class);
+        for (GraphExport.Relation relation : GraphExport.Relation.values()) {
+            result.put(relation, new HashMap<>());
+        }
+
+        for (MetadataDbEntry.Status status : statuses) {
+            var userId = status.getUserId();
+            var statusIds = Map.of(GraphExport.Relation.REPLY, status.getRepliedToId(), GraphExport.Relation.QUOTE,
+                    status.getQuotedId(), GraphExport.Relation.RETWEET, status.getRetweetedId());
+
+            for (Map.Entry<GraphExport.Relation, Optional<Long>> pair : statusIds.entrySet()) {
+                if (pair.getValue().isPresent()) {
+                    var target = lookup.lookupStatus(pair.getValue().get());
+                    if (target.isPresent()) {
+                        result.get(pair.getKey()).merge(List.of(userId, target.get().getUserId()), 1, Integer::sum);
+                    }
+                }
+            }
+
+            for (long mentionedId : status.getMentionedIds()) {
+                result.get(GraphExport.Relation.MENTION).merge(List.of(userId, mentionedId), 1, Integer::sum);
+            }
+        }
+
+        return result;
+    }
+
+    private static long[] readLongs(Path path) throws IOException {
+        var buffer = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+        var result = new long[buffer.remaining()];
+        buffer.get(result);
+        return result;
+    }
+
+    private static int[] readInts(Path path) throws IOException {
+        var buffer = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        var result = new int[buffer.remaining()];
+        buffer.get(result);
+        return result;
+    }
+}
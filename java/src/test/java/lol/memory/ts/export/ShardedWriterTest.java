@@ -0,0 +1,94 @@
+package lol.memory.ts.export;
+
+import com.alibaba.fastjson.JSON;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorInputStream;
+import org.testng.annotations.Test;
+import org.testng.Assert;
+
+public class ShardedWriterTest {
+    @Test
+    public void writeShards() throws IOException, InterruptedException {
+        for (ShardedWriter.Compression compression : ShardedWriter.Compression.values()) {
+            var outputPath = Files.createTempDirectory("sharded");
+            var writer = new ShardedWriter(outputPath, "values", 3, compression);
+            var pool = Executors.newFixedThreadPool(4);
+
+            for (int i = 0; i < 4; i += 1) {
+                var offset = i * 10000L;
+                pool.submit(() -> {
+                    for (long key = offset; key < offset + 10000; key += 1) {
+                        writer.write(key, Long.toString(key));
+                    }
+                });
+            }
+            pool.shutdown();
+            Assert.assertTrue(pool.awaitTermination(1, TimeUnit.MINUTES));
+            writer.close();
+
+            var manifest = JSON.parseObject(Files.readString(outputPath.resolve("manifest.json")));
+            Assert.assertEquals(manifest.getLongValue("lines"), 40000L);
+
+            var seen = new TreeSet<Long>();
+            var paths = writer.getShardPaths();
+            for (int i = 0; i < paths.size(); i += 1) {
+                try (var reader = new BufferedReader(new InputStreamReader(
+                        ShardedWriterTest.open(paths.get(i), compression), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        var key = Long.parseLong(line);
+                        Assert.assertEquals(key % 3, i);
+                        seen.add(key);
+                    }
+                }
+            }
+            Assert.assertEquals(seen.size(), 40000);
+        }
+    }
+
+    @Test
+    public void writeManyShards() throws IOException {
+        // With more shards than the per-thread budget covers, each buffer is handed over at the minimum size.
+        var outputPath = Files.createTempDirectory("sharded");
+        var writer = new ShardedWriter(outputPath, "values", 300, ShardedWriter.Compression.NONE);
+        for (long key = 0; key < 100000; key += 1) {
+            writer.write(key * 7, Long.toString(key * 7));
+        }
+        writer.close();
+
+        var manifest = JSON.parseObject(Files.readString(outputPath.resolve("manifest.json")));
+        Assert.assertEquals(manifest.getLongValue("lines"), 100000L);
+
+        var paths = writer.getShardPaths();
+        long total = 0;
+        for (int i = 0; i < paths.size(); i += 1) {
+            for (String line : Files.readAllLines(paths.get(i))) {
+                Assert.assertEquals(Long.parseLong(line) % 300, i);
+                total += 1;
+            }
+        }
+        Assert.assertEquals(total, 100000L);
+    }
+
+    private static InputStream open(Path path, ShardedWriter.Compression compression) throws IOException {
+        var stream = Files.newInputStream(path);
+        switch (compression) {
+        case GZIP:
+            return new GZIPInputStream(stream);
+        case ZSTD:
+            return new ZstdCompressorInputStream(stream);
+        default:
+            return stream;
+        }
+    }
+}
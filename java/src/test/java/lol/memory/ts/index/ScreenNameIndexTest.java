@@ -0,0 +1,34 @@
+package lol.memory.ts.index;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import org.testng.annotations.Test;
+import org.testng.Assert;
+
+public class ScreenNameIndexTest {
+    @Test
+    public void lookupRankedPrefixMatches() throws IOException {
+        var path = Files.createTempDirectory("screen-name-index").resolve("index");
+        ScreenNameIndex.write(path, Map.of("foo", 3L, "foobar", 10L, "foobaz", 1L, "fop", 7L, "bar", 100L, "fo", 2L));
+
+        var index = ScreenNameIndex.open(path);
+        Assert.assertEquals(index.size(), 6);
+        Assert.assertEquals(index.lookup("FOO", 2),
+                List.of(new ScreenNameIndex.Match("foobar", 10L), new ScreenNameIndex.Match("foo", 3L)));
+        Assert.assertEquals(index.lookup("fo", 10).size(), 5);
+        Assert.assertEquals(index.lookup("fooz", 10), List.of());
+        Assert.assertEquals(index.lookup("", 1), List.of(new ScreenNameIndex.Match("bar", 100L)));
+
+        var delta = new ScreenNameIndex.Delta();
+        delta.add("FooBaz", 20);
+        delta.add("food", 4);
+        ScreenNameIndex.update(path, delta);
+
+        index = ScreenNameIndex.open(path);
+        Assert.assertEquals(index.size(), 7);
+        Assert.assertEquals(index.lookup("foo", 3), List.of(new ScreenNameIndex.Match("foobaz", 21L),
+                new ScreenNameIndex.Match("foobar", 10L), new ScreenNameIndex.Match("food", 4L)));
+    }
+}
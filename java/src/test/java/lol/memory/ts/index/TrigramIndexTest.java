@@ -0,0 +1,29 @@
+package lol.memory.ts.index;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.testng.annotations.Test;
+import org.testng.Assert;
+
+public class TrigramIndexTest {
+    @Test
+    public void findSimilarAndSubstring() throws IOException {
+        var path = Files.createTempDirectory("trigram-index").resolve("index");
+        var names = Stream.of("genflynn", "gen_flynn", "generalflynn", "flynnfan", "travisbrown", "travis", "xy")
+                .sorted().map(name -> name.getBytes(StandardCharsets.UTF_8)).collect(Collectors.toList());
+        TrigramIndex.write(path, names);
+
+        var index = TrigramIndex.open(path);
+        Assert.assertEquals(index.size(), 7);
+        Assert.assertEquals(index.findSimilar("GenFlyn", 2, 10), List.of("gen_flynn", "genflynn"));
+        Assert.assertEquals(index.findSimilar("travisbrwn", 1, 10), List.of("travisbrown"));
+        Assert.assertEquals(index.findSimilar("xz", 1, 10), List.of("xy"));
+        Assert.assertEquals(index.findSubstring("flynn", 10),
+                List.of("flynnfan", "gen_flynn", "generalflynn", "genflynn"));
+        Assert.assertEquals(index.findSubstring("vi", 10), List.of("travis", "travisbrown"));
+    }
+}
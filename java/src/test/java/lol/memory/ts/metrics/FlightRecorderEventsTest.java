@@ -0,0 +1,65 @@
+package lol.memory.ts.metrics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.EnumSet;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import lol.memory.ts.archive.Archive;
+import lol.memory.ts.db.Database;
+import lol.memory.ts.db.ImportMetadata;
+import org.rocksdb.RocksDBException;
+import org.testng.annotations.Test;
+import org.testng.Assert;
+
+public class FlightRecorderEventsTest {
+    @Test
+    public void recordImportEvents() throws IOException, RocksDBException {
+        var archive = Archive.load(Paths.get("../examples/archives/twitter-stream-2021-01-01.zip"));
+        var recordingPath = Files.createTempFile("import", ".jfr");
+
+        try (var recording = new Recording()) {
+            recording.enable(ArchiveEntryEvent.class);
+            recording.enable(TransactionCommitEvent.class);
+            recording.enable(SlowInsertEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+
+            try (var db = new Database(Files.createTempDirectory("metadata-db").toString())) {
+                archive.run(ImportMetadata.create(db, EnumSet.noneOf(ImportMetadata.Index.class)));
+            }
+
+            recording.stop();
+            recording.dump(recordingPath);
+        }
+
+        long lineCount = 0;
+        long compressedBytes = 0;
+        long commitCount = 0;
+        long insertCount = 0;
+        for (RecordedEvent event : RecordingFile.readAllEvents(recordingPath)) {
+            switch (event.getEventType().getName()) {
+            case "lol.memory.ts.ArchiveEntry":
+                lineCount += event.getInt("lineCount");
+                compressedBytes += event.getLong("compressedBytes");
+                Assert.assertTrue(event.getLong("uncompressedBytes") > event.getLong("compressedBytes"));
+                break;
+            case "lol.memory.ts.TransactionCommit":
+                Assert.assertTrue(event.getBoolean("committed"));
+                commitCount += 1;
+                break;
+            case "lol.memory.ts.SlowInsert":
+                insertCount += 1;
+                break;
+            default:
+            }
+        }
+
+        Assert.assertEquals(lineCount, 5378 + 832);
+        Assert.assertTrue(compressedBytes > 0);
+        Assert.assertEquals(commitCount, 5378 + 832);
+        Assert.assertTrue(insertCount > commitCount);
+    }
+}
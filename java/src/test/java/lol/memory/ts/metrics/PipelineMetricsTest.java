@@ -0,0 +1,71 @@
+package lol.memory.ts.metrics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.EnumSet;
+import lol.memory.ts.archive.Archive;
+import lol.memory.ts.db.Database;
+import lol.memory.ts.db.ImportMetadata;
+import org.rocksdb.RocksDBException;
+import org.testng.annotations.Test;
+import org.testng.Assert;
+
+public class PipelineMetricsTest {
+    @Test
+    public void bucketsHaveBoundedError() {
+        var previous = -1;
+        for (long value = 0; value < (1L << 40); value = value * 3 / 2 + 1) {
+            var index = PipelineMetrics.bucketIndex(value);
+            Assert.assertTrue(index >= previous);
+            Assert.assertTrue(Math.abs(PipelineMetrics.bucketValue(index) - value) <= value / 32.0 + 0.5);
+            previous = index;
+        }
+        Assert.assertTrue(PipelineMetrics.bucketIndex(Long.MAX_VALUE) >= previous);
+    }
+
+    @Test
+    public void retireDeadThreads() throws InterruptedException {
+        var metrics = PipelineMetrics.get();
+        var before = metrics.summarize().getSkipCount();
+
+        PipelineMetrics.setEnabled(true);
+        try {
+            for (int i = 0; i < 100; i += 1) {
+                var thread = new Thread(PipelineMetrics::countSkip);
+                thread.start();
+                thread.join();
+            }
+        } finally {
+            PipelineMetrics.setEnabled(false);
+        }
+
+        Assert.assertEquals(metrics.summarize().getSkipCount() - before, 100);
+        Assert.assertTrue(metrics.getLiveStateCount() < 100);
+    }
+
+    @Test
+    public void recordImportStages() throws IOException, RocksDBException {
+        var archive = Archive.load(Paths.get("../examples/archives/twitter-stream-2021-01-01.zip"));
+        var metrics = PipelineMetrics.get();
+
+        PipelineMetrics.setEnabled(true);
+        try (var db = new Database(Files.createTempDirectory("metadata-db").toString())) {
+            metrics.reset();
+            archive.run(ImportMetadata.create(db, EnumSet.noneOf(ImportMetadata.Index.class)));
+        } finally {
+            PipelineMetrics.setEnabled(false);
+        }
+
+        var summary = metrics.summarize();
+        Assert.assertEquals(summary.getRecordCount(), 5378 + 832);
+        Assert.assertEquals(summary.getErrorCount(), 0);
+        Assert.assertEquals(summary.getStages().get(PipelineMetrics.Stage.JSON_PARSE).getCount(), 5378 + 832);
+        Assert.assertEquals(summary.getStages().get(PipelineMetrics.Stage.COMMIT).getCount(), 5378 + 832);
+        for (PipelineMetrics.StageSummary stage : summary.getStages().values()) {
+            Assert.assertTrue(stage.getCount() > 0);
+            Assert.assertTrue(stage.getP50Micros() <= stage.getP99Micros());
+        }
+        Assert.assertTrue(summary.getPerRecordMicros() > 0);
+    }
+}
@@ -239,6 +239,8 @@ impl Lookup {
                 3 => {
                     delete_count += 2;
                 }
+                // Optional secondary index keys written by the Java importer.
+                4 | 5 => {}
                 _ => {
                     return Err(Error::UnexpectedKey(format!("Invalid tag: {}", tag)));
                 }